@@ -0,0 +1,398 @@
+package U1.PPC;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import U1.supplyDemand.SupplyDemandSnapshot;
+
+/**
+ * Embedded server answering what-if queries about the models of a {@link ModelRegistry} over a socket.
+ * Each connection is served by its own virtual thread when the JVM supports them, and by a thread from a cached
+ * pool otherwise. The server binds to the loopback address unless another address is given.
+ * <p>
+ * Requests are lines of space-separated words starting with a request ID chosen by the client, followed by a command
+ * and its arguments. Every request receives one response line, {@code <id> OK <results>} or {@code <id> ERROR <message>},
+ * in the order the requests were sent. Clients may pipeline requests without waiting for responses: responses to
+ * requests that arrive together are written back together. Requests longer than {@value #MAX_REQUEST_LENGTH}
+ * characters are skipped up to the end of their line and answered with an error.
+ * <ul>
+ * <li>{@code OPPORTUNITY_COST <economy> <product>}: opportunity cost of the product.</li>
+ * <li>{@code PPC_STATE <economy> <amtA> <amtB>}: economic state of the economy at a production point.</li>
+ * <li>{@code ABSOLUTE_ADVANTAGE <trade> <product>} and {@code COMPARATIVE_ADVANTAGE <trade> <product>}: name of the
+ * economy with the advantage, or NONE.</li>
+ * <li>{@code EQUILIBRIUM <market>}: equilibrium type, price and quantity.</li>
+ * <li>{@code MARKET_STATE_P <market> <price>} and {@code MARKET_STATE_Q <market> <quantity>}: economic state of the market.</li>
+ * <li>{@code SHIFT_SUPPLY <market> <amount>} and {@code SHIFT_DEMAND <market> <amount>}: shift a curve, returning the
+ * new equilibrium.</li>
+ * <li>{@code CHANGE_RESOURCES <economy> <amount>}, {@code IMPROVE_TECHNOLOGY_A <economy> <improvement>} and
+ * {@code IMPROVE_TECHNOLOGY_B <economy> <improvement>}: change an economy, returning its new maximum amounts of A and B.</li>
+ * </ul>
+ */
+public class ModelQueryServer implements AutoCloseable {
+    public static final int MAX_REQUEST_LENGTH = 4096;
+
+    private ModelRegistry registry;
+    private ServerSocket serverSocket;
+    private ExecutorService connections;
+    private boolean virtualThreads;
+    private Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private Thread acceptor;
+
+    /**
+     * Create a new server. Call {@link #start()} to begin accepting connections.
+     * @param registry Registry holding the models to query.
+     */
+    public ModelQueryServer(ModelRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Accessor methods
+
+    public ModelRegistry getRegistry() {
+        return registry;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Start accepting connections on an ephemeral port of the loopback address.
+     * @throws IOException If the server socket cannot be opened.
+     */
+    public void start() throws IOException {
+        start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Start accepting connections.
+     * @param address Address and port to listen on.
+     * @throws IOException If the server socket cannot be opened.
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (serverSocket != null) {
+            throw new IllegalStateException("Attempted to start a query server that was already started.");
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.bind(address, 1024);
+        connections = newConnectionExecutor();
+        acceptor = new Thread(this::acceptConnections, "model-query-server-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Stop accepting connections and close every open connection.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (serverSocket == null) {
+            return;
+        }
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        connections.shutdown();
+    }
+
+    /**
+     * Virtual threads are looked up reflectively so that the server also runs on JVMs without them.
+     */
+    private ExecutorService newConnectionExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "model-query-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                sockets.add(socket);
+                // close() closes the server socket before the open connections, so a connection it missed is seen here
+                if (serverSocket.isClosed()) {
+                    closeAccepted(socket);
+                    return;
+                }
+                try {
+                    connections.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    // close() shut the executor down after the connection was accepted
+                    closeAccepted(socket);
+                    return;
+                }
+            } catch (IOException e) {
+                // Thrown when the server socket is closed
+            }
+        }
+    }
+
+    private void closeAccepted(Socket socket) throws IOException {
+        sockets.remove(socket);
+        socket.close();
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+                RequestReader in = new RequestReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            StringBuilder response = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                response.setLength(0);
+                if (in.wasTruncated()) {
+                    handleTooLong(line, response);
+                } else {
+                    handle(line, response);
+                }
+                out.append(response).append('\n');
+                // Only flush once every request that has already arrived has been answered
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // Connection closed by the client or by close()
+        } catch (IOException e) {
+            // Nothing can be reported once the connection is broken
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    /**
+     * Answer one request line.
+     * @param request Request line.
+     * @param response Builder receiving the response line, without line terminator.
+     */
+    void handle(String request, StringBuilder response) {
+        String[] words = request.trim().split("\\s+");
+        response.append(words[0]).append(' ');
+        try {
+            if (words.length < 3) {
+                throw new IllegalArgumentException("Expected a request ID, a command and a model name.");
+            }
+            response.append("OK");
+            execute(words, response);
+        } catch (RuntimeException e) {
+            response.setLength(words[0].length() + 1);
+            response.append("ERROR ").append(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Answer a request that was cut off at {@link #MAX_REQUEST_LENGTH} characters.
+     * @param request Start of the request line.
+     * @param response Builder receiving the response line, without line terminator.
+     */
+    void handleTooLong(String request, StringBuilder response) {
+        response.append(request.trim().split("\\s+")[0])
+                .append(" ERROR Request is longer than ").append(MAX_REQUEST_LENGTH).append(" characters.");
+    }
+
+    private void execute(String[] words, StringBuilder response) {
+        String name = words[2];
+        switch (words[1]) {
+            case "OPPORTUNITY_COST": {
+                PPCSnapshot economy = registry.getEconomy(name);
+                append(response, economy.getOpportunityCost(product(economy, argument(words, 3))));
+                break;
+            }
+            case "PPC_STATE": {
+                PPCSnapshot economy = registry.getEconomy(name);
+                append(response, economy.getEconomicState(intArgument(words, 3), intArgument(words, 4)));
+                break;
+            }
+            case "ABSOLUTE_ADVANTAGE":
+            case "COMPARATIVE_ADVANTAGE": {
+                // Build the trade from the names read, in case the pair is redefined in the meantime
+                String[] economyNames = registry.getTradeEconomies(name);
+                TradeSnapshot trade = new TradeSnapshot(registry.getEconomy(economyNames[0]), registry.getEconomy(economyNames[1]));
+                Product product = product(trade.getCountryA(), argument(words, 3));
+                PPCSnapshot winner = words[1].equals("ABSOLUTE_ADVANTAGE")
+                        ? trade.absoluteAdvantage(product)
+                        : trade.comparativeAdvantage(product);
+                append(response, winner == null ? "NONE" : winner == trade.getCountryA() ? economyNames[0] : economyNames[1]);
+                break;
+            }
+            case "EQUILIBRIUM":
+                appendEquilibrium(response, registry.getMarket(name));
+                break;
+            case "MARKET_STATE_P":
+                append(response, registry.getMarket(name).getEconomicStateGivenP(doubleArgument(words, 3)));
+                break;
+            case "MARKET_STATE_Q":
+                append(response, registry.getMarket(name).getEconomicStateGivenQ(intArgument(words, 3)));
+                break;
+            case "SHIFT_SUPPLY": {
+                double amount = doubleArgument(words, 3);
+                appendEquilibrium(response, registry.updateMarket(name, market -> market.withSupplyShift(amount)));
+                break;
+            }
+            case "SHIFT_DEMAND": {
+                double amount = doubleArgument(words, 3);
+                appendEquilibrium(response, registry.updateMarket(name, market -> market.withDemandShift(amount)));
+                break;
+            }
+            case "CHANGE_RESOURCES": {
+                double amount = doubleArgument(words, 3);
+                appendMaxAmounts(response, registry.updateEconomy(name, economy -> economy.withResourceChange(amount)));
+                break;
+            }
+            case "IMPROVE_TECHNOLOGY_A": {
+                double improvement = doubleArgument(words, 3);
+                appendMaxAmounts(response, registry.updateEconomy(name, economy -> economy.withTechnologyImprovementA(improvement)));
+                break;
+            }
+            case "IMPROVE_TECHNOLOGY_B": {
+                double improvement = doubleArgument(words, 3);
+                appendMaxAmounts(response, registry.updateEconomy(name, economy -> economy.withTechnologyImprovementB(improvement)));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown command " + words[1] + ".");
+        }
+    }
+
+    private static Product product(PPCSnapshot economy, String productName) {
+        if (economy.getProductA().getName().equals(productName)) {
+            return economy.getProductA();
+        } else if (economy.getProductB().getName().equals(productName)) {
+            return economy.getProductB();
+        }
+        throw new IllegalArgumentException("Product " + productName + " is not being produced in the economy.");
+    }
+
+    private static String argument(String[] words, int index) {
+        if (index >= words.length) {
+            throw new IllegalArgumentException("Missing argument " + (index - 2) + " of " + words[1] + ".");
+        }
+        return words[index];
+    }
+
+    private static int intArgument(String[] words, int index) {
+        return Integer.parseInt(argument(words, index));
+    }
+
+    private static double doubleArgument(String[] words, int index) {
+        return Double.parseDouble(argument(words, index));
+    }
+
+    private static void append(StringBuilder response, Object value) {
+        response.append(' ').append(value);
+    }
+
+    private static void appendEquilibrium(StringBuilder response, SupplyDemandSnapshot market) {
+        append(response, market.getEquilibriumType());
+        append(response, market.getEquilibriumPrice());
+        append(response, market.getEquilibriumQuantity());
+    }
+
+    private static void appendMaxAmounts(StringBuilder response, PPCSnapshot economy) {
+        append(response, economy.getAmtA(0));
+        append(response, economy.getAmtB(0));
+    }
+
+    /**
+     * Buffered reader of request lines that never holds more than {@link #MAX_REQUEST_LENGTH} characters of a line,
+     * so that a client cannot exhaust the memory of the server with one endless line. Lines end with \n or \r\n.
+     */
+    private static class RequestReader implements AutoCloseable {
+        private Reader in;
+        private char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private StringBuilder line = new StringBuilder();
+        private boolean truncated;
+
+        RequestReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * Read the next line, keeping only its first {@link #MAX_REQUEST_LENGTH} characters.
+         * @return Line without terminator, or null at the end of the stream.
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return line.length() > 0 || truncated ? finish() : null;
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                int keep = Math.min(position - start, MAX_REQUEST_LENGTH - line.length());
+                line.append(buffer, start, keep);
+                truncated |= keep < position - start;
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        /**
+         * Check whether the last line read was longer than {@link #MAX_REQUEST_LENGTH} characters.
+         */
+        boolean wasTruncated() {
+            return truncated;
+        }
+
+        /**
+         * Check whether another line has already started to arrive.
+         */
+        boolean ready() throws IOException {
+            return position < limit || in.ready();
+        }
+
+        private String finish() {
+            int length = line.length();
+            if (length > 0 && line.charAt(length - 1) == '\r') {
+                line.setLength(length - 1);
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
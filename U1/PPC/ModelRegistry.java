@@ -0,0 +1,150 @@
+package U1.PPC;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import U1.supplyDemand.SupplyDemandModel;
+import U1.supplyDemand.SupplyDemandSnapshot;
+
+/**
+ * Named collection of economies, markets and trade pairs shared between many threads.
+ * Every economy and market is held as an immutable snapshot, so readers never lock and updates replace the
+ * snapshot atomically. A trade pair only names two economies, so it always compares their latest snapshots.
+ */
+public class ModelRegistry {
+    private Map<String, AtomicReference<PPCSnapshot>> economies = new ConcurrentHashMap<>();
+    private Map<String, AtomicReference<SupplyDemandSnapshot>> markets = new ConcurrentHashMap<>();
+    private Map<String, String[]> trades = new ConcurrentHashMap<>();
+
+    /**
+     * Add or replace an economy with a snapshot of a PPC model.
+     * @param name Name of the economy.
+     * @param model PPC model, which can keep changing without affecting the registry.
+     */
+    public void putEconomy(String name, PPCModel model) {
+        putEconomy(name, model.snapshot());
+    }
+
+    /**
+     * Add or replace an economy.
+     * @param name Name of the economy.
+     * @param snapshot Snapshot of the economy.
+     */
+    public void putEconomy(String name, PPCSnapshot snapshot) {
+        economies.put(name, new AtomicReference<>(snapshot));
+    }
+
+    /**
+     * Add or replace a market with a snapshot of a supply-demand model.
+     * @param name Name of the market.
+     * @param model Supply-demand model, which can keep changing without affecting the registry.
+     */
+    public void putMarket(String name, SupplyDemandModel model) {
+        putMarket(name, model.snapshot());
+    }
+
+    /**
+     * Add or replace a market.
+     * @param name Name of the market.
+     * @param snapshot Snapshot of the market.
+     */
+    public void putMarket(String name, SupplyDemandSnapshot snapshot) {
+        markets.put(name, new AtomicReference<>(snapshot));
+    }
+
+    /**
+     * Add or replace a trade pair comparing two registered economies producing the same products.
+     * @param name Name of the trade pair.
+     * @param economyA Name of the first economy.
+     * @param economyB Name of the second economy.
+     */
+    public void putTrade(String name, String economyA, String economyB) {
+        // Fails if either economy is missing or their products differ
+        new TradeSnapshot(getEconomy(economyA), getEconomy(economyB));
+        trades.put(name, new String[] { economyA, economyB });
+    }
+
+    /**
+     * Add every model of a snapshot file, naming PPC models {@code ppc<i>} and markets {@code market<i>}.
+     * @param file Opened snapshot file.
+     */
+    public void putAll(ModelSnapshotFile file) {
+        for (int i = 0; i < file.getPPCModelCount(); i++) {
+            putEconomy("ppc" + i, file.getPPCModel(i));
+        }
+        for (int i = 0; i < file.getMarketCount(); i++) {
+            putMarket("market" + i, file.getMarket(i));
+        }
+    }
+
+    // Accessor methods
+
+    public PPCSnapshot getEconomy(String name) {
+        return economyRef(name).get();
+    }
+
+    public SupplyDemandSnapshot getMarket(String name) {
+        return marketRef(name).get();
+    }
+
+    /**
+     * Get the names of the two economies compared by a trade pair.
+     * @param name Name of the trade pair.
+     * @return Names of the first and second economy.
+     */
+    public String[] getTradeEconomies(String name) {
+        String[] economyNames = trades.get(name);
+        if (economyNames == null) {
+            throw new IllegalArgumentException("No trade pair named " + name + ".");
+        }
+        return economyNames.clone();
+    }
+
+    /**
+     * Get a trade snapshot comparing the latest snapshots of the two economies of a trade pair.
+     * @param name Name of the trade pair.
+     * @return Trade snapshot.
+     */
+    public TradeSnapshot getTrade(String name) {
+        String[] economyNames = getTradeEconomies(name);
+        return new TradeSnapshot(getEconomy(economyNames[0]), getEconomy(economyNames[1]));
+    }
+
+    /**
+     * Atomically replace the snapshot of an economy with an updated one.
+     * @param name Name of the economy.
+     * @param update Function computing the new snapshot from the current one. May be called more than once.
+     * @return The new snapshot.
+     */
+    public PPCSnapshot updateEconomy(String name, UnaryOperator<PPCSnapshot> update) {
+        return economyRef(name).updateAndGet(update);
+    }
+
+    /**
+     * Atomically replace the snapshot of a market with an updated one.
+     * @param name Name of the market.
+     * @param update Function computing the new snapshot from the current one. May be called more than once.
+     * @return The new snapshot.
+     */
+    public SupplyDemandSnapshot updateMarket(String name, UnaryOperator<SupplyDemandSnapshot> update) {
+        return marketRef(name).updateAndGet(update);
+    }
+
+    private AtomicReference<PPCSnapshot> economyRef(String name) {
+        AtomicReference<PPCSnapshot> ref = economies.get(name);
+        if (ref == null) {
+            throw new IllegalArgumentException("No economy named " + name + ".");
+        }
+        return ref;
+    }
+
+    private AtomicReference<SupplyDemandSnapshot> marketRef(String name) {
+        AtomicReference<SupplyDemandSnapshot> ref = markets.get(name);
+        if (ref == null) {
+            throw new IllegalArgumentException("No market named " + name + ".");
+        }
+        return ref;
+    }
+}
@@ -0,0 +1,294 @@
+package U1.PPC;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import U1.resources.EconomyTable;
+import U1.resources.Resources;
+import U1.supplyDemand.DemandCurve;
+import U1.supplyDemand.SupplyCurve;
+import U1.supplyDemand.SupplyDemandModel;
+
+/**
+ * Versioned binary snapshot of a whole set of PPC and supply-demand models, for fast cold starts.
+ * The file is memory-mapped when opened and models are only built when first accessed. Every double is
+ * stored with its exact bit pattern, so models round-trip exactly.
+ * <p>
+ * Layout (little-endian): a {@value #HEADER_SIZE} byte header with the magic number, format version, the number of
+ * products, PPC models and markets and the offset of each section, followed by
+ * <ul>
+ * <li>products: base cost (double), name length (int) and UTF-8 name, in catalog ID order;</li>
+ * <li>resource columns, one value per PPC model: land (double), capital (double), entrepreneurship (double), labor (int);</li>
+ * <li>PPC models: product A ID (int), product B ID (int), efficiency factor A (double), efficiency factor B (double),
+ * flags (int, 1 if both products share one technology) and four bytes of padding;</li>
+ * <li>markets: product ID (int), inferior good flag (int), supply intercept, supply slope, demand intercept and demand slope (doubles).</li>
+ * </ul>
+ * A model whose products shared one technology when written gets a single technology for both when loaded, so
+ * improving it still moves both costs. Technologies shared between different models are loaded separately.
+ */
+public class ModelSnapshotFile {
+    public static final int MAGIC = 0x55315553;
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 56;
+
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int PPC_RECORD_SIZE = 32;
+    private static final int RESOURCES_SIZE = 3 * Double.BYTES + Integer.BYTES;
+    private static final int SHARED_TECHNOLOGY = 1;
+    private static final int MARKET_RECORD_SIZE = 40;
+
+    private ByteBuffer buffer;
+    private ProductCatalog catalog = new ProductCatalog();
+    private int ppcCount;
+    private int marketCount;
+    private int resourcesOffset;
+    private int ppcOffset;
+    private int marketsOffset;
+    private EconomyTable resources;
+    private PPCModel[] ppcModels;
+    private SupplyDemandModel[] markets;
+
+    private ModelSnapshotFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(BYTE_ORDER);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("File is not a model snapshot.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported model snapshot version " + buffer.getInt(4) + ".");
+        }
+        int productCount = buffer.getInt(8);
+        this.ppcCount = buffer.getInt(12);
+        this.marketCount = buffer.getInt(16);
+        int productsOffset = section(buffer.getLong(24), productCount, 12);
+        this.resourcesOffset = section(buffer.getLong(32), ppcCount, RESOURCES_SIZE);
+        this.ppcOffset = section(buffer.getLong(40), ppcCount, PPC_RECORD_SIZE);
+        this.marketsOffset = section(buffer.getLong(48), marketCount, MARKET_RECORD_SIZE);
+        this.ppcModels = new PPCModel[ppcCount];
+        this.markets = new SupplyDemandModel[marketCount];
+
+        int position = productsOffset;
+        for (int i = 0; i < productCount; i++) {
+            if (position > buffer.capacity() - 12) {
+                throw new IOException("Model snapshot is corrupt: products run past the end of the file.");
+            }
+            double baseCost = buffer.getDouble(position);
+            int nameLength = buffer.getInt(position + 8);
+            if (nameLength < 0 || nameLength > buffer.capacity() - (position + 12)) {
+                throw new IOException("Model snapshot is corrupt: product " + i + " has a name of invalid length " + nameLength + ".");
+            }
+            byte[] name = new byte[nameLength];
+            buffer.get(position + 12, name);
+            catalog.intern(new String(name, StandardCharsets.UTF_8), baseCost);
+            position += 12 + nameLength;
+        }
+    }
+
+    /**
+     * Check that a section of records lies within the file.
+     * @param offset Offset of the section read from the header.
+     * @param count Number of records read from the header.
+     * @param recordSize Size of each record, or the smallest possible size for records of varying size.
+     * @return The offset as an int.
+     * @throws IOException If the count is negative or the section does not fit in the file.
+     */
+    private int section(long offset, int count, int recordSize) throws IOException {
+        if (count < 0) {
+            throw new IOException("Model snapshot is corrupt: negative record count " + count + ".");
+        }
+        long end;
+        try {
+            end = Math.addExact(offset, Math.multiplyExact((long) count, recordSize));
+        } catch (ArithmeticException e) {
+            throw new IOException("Model snapshot is corrupt: section at " + offset + " overflows.", e);
+        }
+        if (offset < HEADER_SIZE || end > buffer.capacity()) {
+            throw new IOException("Model snapshot is corrupt: section [" + offset + ", " + end
+                    + ") lies outside of the file of " + buffer.capacity() + " bytes.");
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Open a snapshot file by memory-mapping it. Models are built lazily when first accessed.
+     * @param path Path of the snapshot file.
+     * @return The opened snapshot.
+     * @throws IOException If the file cannot be read or is not a model snapshot.
+     */
+    public static ModelSnapshotFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Model snapshot is too large to be mapped.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ModelSnapshotFile(buffer);
+        }
+    }
+
+    /**
+     * Write a set of models to a snapshot file, replacing any existing file.
+     * Products are identified by name, and products with the same name must have the same base cost.
+     * @param path Path of the snapshot file.
+     * @param ppcModels PPC models to write.
+     * @param markets Supply-demand models to write.
+     * @throws IOException If the file cannot be written.
+     * @throws IllegalArgumentException If the total amount of resources of a PPC model is not given by its land,
+     *         labor, capital and entrepreneurship, such as for a range of a resource tree.
+     */
+    public static void write(Path path, List<PPCModel> ppcModels, List<SupplyDemandModel> markets) throws IOException {
+        ProductCatalog catalog = new ProductCatalog();
+        for (PPCModel model : ppcModels) {
+            // Only the four resources are stored, from which the total amount is computed again when loaded
+            Resources r = model.getAvailableResources();
+            if (r.totalAmount() != (r.totalLand() + r.totalCapital() + r.totalLabor()) * r.totalEntrepreneurship()) {
+                throw new IllegalArgumentException("Attempted to write a PPC model whose total amount of resources "
+                        + "cannot be rebuilt from its land, labor, capital and entrepreneurship.");
+            }
+            catalog.intern(model.getProductA());
+            catalog.intern(model.getProductB());
+        }
+        for (SupplyDemandModel market : markets) {
+            catalog.intern(market.getProduct());
+        }
+        byte[][] names = new byte[catalog.size()][];
+        long productsSize = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = catalog.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            productsSize += 12 + names[i].length;
+        }
+
+        long productsOffset = HEADER_SIZE;
+        long resourcesOffset = align(productsOffset + productsSize);
+        long ppcOffset = align(resourcesOffset + (long) RESOURCES_SIZE * ppcModels.size());
+        long marketsOffset = ppcOffset + (long) PPC_RECORD_SIZE * ppcModels.size();
+        long size = marketsOffset + (long) MARKET_RECORD_SIZE * markets.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Models are too large for a single snapshot file.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(BYTE_ORDER);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(names.length).putInt(ppcModels.size()).putInt(markets.size()).putInt(0);
+        buffer.putLong(productsOffset).putLong(resourcesOffset).putLong(ppcOffset).putLong(marketsOffset);
+
+        for (int i = 0; i < names.length; i++) {
+            buffer.putDouble(catalog.get(i).getBaseCost()).putInt(names[i].length).put(names[i]);
+        }
+
+        int n = ppcModels.size();
+        for (int i = 0; i < n; i++) {
+            Resources r = ppcModels.get(i).getAvailableResources();
+            buffer.putDouble((int) resourcesOffset + 8 * i, r.totalLand());
+            buffer.putDouble((int) resourcesOffset + 8 * (n + i), r.totalCapital());
+            buffer.putDouble((int) resourcesOffset + 8 * (2 * n + i), r.totalEntrepreneurship());
+            buffer.putInt((int) resourcesOffset + 24 * n + 4 * i, r.totalLabor());
+
+            PPCModel model = ppcModels.get(i);
+            int record = (int) ppcOffset + PPC_RECORD_SIZE * i;
+            buffer.putInt(record, catalog.getId(model.getProductA()));
+            buffer.putInt(record + 4, catalog.getId(model.getProductB()));
+            buffer.putDouble(record + 8, model.getTechA().getEfficiencyFactor());
+            buffer.putDouble(record + 16, model.getTechB().getEfficiencyFactor());
+            buffer.putInt(record + 24, model.getTechA() == model.getTechB() ? SHARED_TECHNOLOGY : 0);
+        }
+
+        for (int i = 0; i < markets.size(); i++) {
+            SupplyDemandModel market = markets.get(i);
+            int record = (int) marketsOffset + MARKET_RECORD_SIZE * i;
+            buffer.putInt(record, catalog.getId(market.getProduct()));
+            buffer.putInt(record + 4, market.getDemandCurve().isInferiorGood() ? 1 : 0);
+            buffer.putDouble(record + 8, market.getSupplyCurve().getIntercept());
+            buffer.putDouble(record + 16, market.getSupplyCurve().getSlope());
+            buffer.putDouble(record + 24, market.getDemandCurve().getIntercept());
+            buffer.putDouble(record + 32, market.getDemandCurve().getSlope());
+        }
+
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    // Accessor methods
+
+    /**
+     * Get the catalog of every product in the snapshot, with the IDs used in the file.
+     * @return Product catalog.
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public int getPPCModelCount() {
+        return ppcCount;
+    }
+
+    public int getMarketCount() {
+        return marketCount;
+    }
+
+    /**
+     * Get the resources of every PPC model as a table, loading the resource columns on first access.
+     * The resources of PPC model i are row i of the table.
+     * @return Table of resources.
+     */
+    public synchronized EconomyTable getResources() {
+        if (resources == null) {
+            resources = new EconomyTable(ppcCount);
+            for (int i = 0; i < ppcCount; i++) {
+                resources.set(i,
+                        buffer.getDouble(resourcesOffset + 8 * i),
+                        buffer.getInt(resourcesOffset + 24 * ppcCount + 4 * i),
+                        buffer.getDouble(resourcesOffset + 8 * (ppcCount + i)),
+                        buffer.getDouble(resourcesOffset + 8 * (2 * ppcCount + i)));
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Get a PPC model, building it on first access.
+     * @param index Index of the model in the list it was written from.
+     * @return The PPC model.
+     */
+    public synchronized PPCModel getPPCModel(int index) {
+        if (ppcModels[index] == null) {
+            int record = ppcOffset + PPC_RECORD_SIZE * index;
+            Technology techA = new Technology(buffer.getDouble(record + 8));
+            Technology techB = (buffer.getInt(record + 24) & SHARED_TECHNOLOGY) != 0
+                    ? techA
+                    : new Technology(buffer.getDouble(record + 16));
+            ppcModels[index] = new PPCModel(catalog.get(buffer.getInt(record)), catalog.get(buffer.getInt(record + 4)),
+                    getResources().row(index), techA, techB);
+        }
+        return ppcModels[index];
+    }
+
+    /**
+     * Get a supply-demand model, building it on first access.
+     * @param index Index of the model in the list it was written from.
+     * @return The supply-demand model.
+     */
+    public synchronized SupplyDemandModel getMarket(int index) {
+        if (markets[index] == null) {
+            int record = marketsOffset + MARKET_RECORD_SIZE * index;
+            Product product = catalog.get(buffer.getInt(record));
+            markets[index] = new SupplyDemandModel(
+                    new SupplyCurve(product, buffer.getDouble(record + 8), buffer.getDouble(record + 16)),
+                    new DemandCurve(product, buffer.getDouble(record + 24), buffer.getDouble(record + 32), buffer.getInt(record + 4) != 0));
+        }
+        return markets[index];
+    }
+}
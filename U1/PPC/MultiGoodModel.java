@@ -0,0 +1,187 @@
+package U1.PPC;
+
+import java.util.Arrays;
+
+import U1.resources.Resources;
+
+/**
+ * Production model for an economy producing any number of products from a single shared pool of resources.
+ * Each product has its own technology, a minimum quota and a value used to decide how leftover resources
+ * are allocated. Assumes linear opportunity cost across model, like {@link PPCModel}.
+ */
+class MultiGoodModel {
+    private Product[] products;
+    private Technology[] techs;
+    private Resources availableResources;
+    private int[] quotas;
+    private double[] values;
+    private double[] costs;
+    private long[] costVersions;
+
+    /**
+     * Create a new multi-good model. All quotas start at zero and all values at one.
+     * @param products Products produced in the economy.
+     * @param techs Level of technology available for producing each product.
+     * @param availableResources Total resources available in the economy.
+     */
+    public MultiGoodModel(Product[] products, Technology[] techs, Resources availableResources) {
+        if (products.length != techs.length) {
+            throw new IllegalArgumentException("Attempted to create multi-good model with mismatched products and technologies.");
+        }
+        for (int i = 0; i < products.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (products[i].equals(products[j])) {
+                    throw new IllegalArgumentException("Attempted to create multi-good model with duplicate products.");
+                }
+            }
+        }
+        this.products = products.clone();
+        this.techs = techs.clone();
+        this.availableResources = availableResources;
+        this.quotas = new int[products.length];
+        this.values = new double[products.length];
+        this.costs = new double[products.length];
+        this.costVersions = new long[products.length];
+        Arrays.fill(values, 1);
+        Arrays.fill(costVersions, -1);
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return products.length;
+    }
+
+    public Product getProduct(int good) {
+        return products[good];
+    }
+
+    public Technology getTech(int good) {
+        return techs[good];
+    }
+
+    public Resources getAvailableResources() {
+        return availableResources;
+    }
+
+    public int getQuota(int good) {
+        return quotas[good];
+    }
+
+    public double getValue(int good) {
+        return values[good];
+    }
+
+    /**
+     * Set the minimum number of units of a product that must be produced.
+     * @param good Index of the product.
+     * @param quota Minimum amount to produce.
+     */
+    public void setQuota(int good, int quota) {
+        if (quota < 0) {
+            throw new IllegalArgumentException("Attempted to set a negative production quota.");
+        }
+        quotas[good] = quota;
+    }
+
+    /**
+     * Set the value of one unit of a product, used to allocate resources left over after quotas are met.
+     * @param good Index of the product.
+     * @param value Value of one unit.
+     */
+    public void setValue(int good, double value) {
+        values[good] = value;
+    }
+
+    /**
+     * Get the cost of producing a product given its technology, recomputed only when the technology changes.
+     * @param good Index of the product.
+     * @return Cost of the product.
+     */
+    public double getCost(int good) {
+        if (costVersions[good] != techs[good].getVersion()) {
+            costs[good] = products[good].cost(techs[good]);
+            costVersions[good] = techs[good].getVersion();
+        }
+        return costs[good];
+    }
+
+    /**
+     * Find the production plan maximizing the total value of production while meeting every quota.
+     * Since all products share one pool of resources, the optimum meets the quotas and spends the remaining
+     * resources on the product with the highest value per unit of cost, so no iterative solver is needed.
+     * @param out Array receiving the units of each product to produce.
+     * @return true if the quotas can be met with the available resources, false otherwise (out is left unchanged).
+     */
+    public boolean solve(int[] out) {
+        if (out.length < products.length) {
+            throw new IllegalArgumentException("Output array is shorter than the number of products.");
+        }
+        double remaining = availableResources.totalAmount();
+        int best = -1;
+        double bestRatio = 0;
+
+        for (int i = 0; i < products.length; i++) {
+            double cost = getCost(i);
+            remaining -= quotas[i] * cost;
+            double ratio = values[i] / cost;
+            if (ratio > bestRatio) {
+                best = i;
+                bestRatio = ratio;
+            }
+        }
+        if (remaining < 0) {
+            return false;
+        }
+        System.arraycopy(quotas, 0, out, 0, products.length);
+        if (best >= 0) {
+            out[best] += (int) (remaining / getCost(best));
+        }
+        return true;
+    }
+
+    /**
+     * Get the state in which the economy would be if it was producing the inputted amounts of products.
+     * Follows the same comparison as {@link PPCModel#getEconomicState(int, int)}.
+     * @param amounts Amount of each product being produced.
+     * @return Economic state at given point.
+     */
+    public PPCModel.PPCState getEconomicState(int[] amounts) {
+        if (amounts.length != products.length) {
+            throw new IllegalArgumentException("Attempted to evaluate a point with the wrong number of products.");
+        }
+        double resourcesRequired = 0;
+        for (int i = 0; i < products.length; i++) {
+            resourcesRequired += amounts[i] * getCost(i);
+        }
+        double resourcesAvailable = availableResources.totalAmount();
+
+        if (resourcesRequired < resourcesAvailable) {
+            return PPCModel.PPCState.IMPOSSIBLE;
+        } else if (resourcesRequired == resourcesAvailable) {
+            return PPCModel.PPCState.FULL_CAPACITY;
+        }
+        return PPCModel.PPCState.UNDERPRODUCTION;
+    }
+
+    /**
+     * Change the amount of available resources in an economy.
+     * Assumes all types of resources to be equally affected.
+     * @param amount Amount by which to change available resources.
+     */
+    public void changeAvailableResources(double amount) {
+        this.availableResources.addLand(amount / 4);
+        this.availableResources.addLabor((int) (amount / 4));
+        this.availableResources.addCapital(amount / 4);
+        this.availableResources.improveEntrepreneurship(amount / 4);
+    }
+
+    /**
+     * Improve the technology for producing a product by a certain amount.
+     * @param good Index of the product.
+     * @param improvement Factor by which to increase efficiency factor.
+     */
+    public void improveTechnology(int good, double improvement) {
+        techs[good].improveTechnology(improvement);
+    }
+}
@@ -0,0 +1,107 @@
+package U1.PPC;
+
+/**
+ * Batch evaluator for the frontier of a PPC model.
+ * Resources and product costs are read once per batch, so each call is equivalent to calling the
+ * scalar methods of the model for every point while the model is not being modified.
+ * <p>
+ * Amounts are converted to doubles through their bits rather than with a cast. On Java 17, with AVX, the cast
+ * compiles to an instruction that also depends on the previous contents of its register, which chains each
+ * division to the one before it. In PPCModelBenchmark at 1024 points, batched getAmtA takes about 11300 ns with
+ * the cast against 2800 ns for the scalar calls, and about 1900 ns with the conversion below.
+ */
+class PPCFrontier {
+    // 2^52 + 2^31: adding an int to the bits of this double gives exactly this value plus the int
+    private static final double INT_BIAS = 0x1p52 + 0x1p31;
+    private static final long INT_BIAS_BITS = Double.doubleToRawLongBits(INT_BIAS);
+
+    private PPCModel model;
+
+    /**
+     * Create a new frontier evaluator.
+     * @param model PPC model to evaluate.
+     */
+    public PPCFrontier(PPCModel model) {
+        this.model = model;
+    }
+
+    public PPCModel getModel() {
+        return model;
+    }
+
+    /**
+     * Get the units of product A that are available for production for each amount of product B.
+     * Equivalent to calling {@link PPCModel#getAmtA(int)} for every element.
+     * @param amtB Amounts of product B being concurrently produced.
+     * @param out Array receiving the amounts of product A, at least as long as amtB.
+     */
+    public void getAmtA(int[] amtB, int[] out) {
+        checkLengths(amtB.length, out.length);
+        double availableAmount = model.getAvailableResources().totalAmount();
+        double costA = model.getProductA().cost(model.getTechA());
+        double costB = model.getProductB().cost(model.getTechB());
+
+        for (int i = 0; i < amtB.length; i++) {
+            out[i] = (int) ((availableAmount - toDouble(amtB[i]) * costB) / costA);
+        }
+    }
+
+    /**
+     * Get the units of product B that are available for production for each amount of product A.
+     * Equivalent to calling {@link PPCModel#getAmtB(int)} for every element.
+     * @param amtA Amounts of product A being concurrently produced.
+     * @param out Array receiving the amounts of product B, at least as long as amtA.
+     */
+    public void getAmtB(int[] amtA, int[] out) {
+        checkLengths(amtA.length, out.length);
+        double availableAmount = model.getAvailableResources().totalAmount();
+        double costA = model.getProductA().cost(model.getTechA());
+        double costB = model.getProductB().cost(model.getTechB());
+
+        for (int i = 0; i < amtA.length; i++) {
+            out[i] = (int) ((availableAmount - toDouble(amtA[i]) * costA) / costB);
+        }
+    }
+
+    /**
+     * Get the economic state at each (amtA, amtB) point.
+     * Equivalent to calling {@link PPCModel#getEconomicState(int, int)} for every pair.
+     * @param amtA Amounts of product A being produced.
+     * @param amtB Amounts of product B being produced, same length as amtA.
+     * @param out Array receiving the economic states, at least as long as amtA.
+     */
+    public void getEconomicStates(int[] amtA, int[] amtB, PPCModel.PPCState[] out) {
+        if (amtA.length != amtB.length) {
+            throw new IllegalArgumentException("Attempted to evaluate points with mismatched amounts of products A and B.");
+        }
+        checkLengths(amtA.length, out.length);
+        double resourcesAvailable = model.getAvailableResources().totalAmount();
+        double costA = model.getProductA().cost(model.getTechA());
+        double costB = model.getProductB().cost(model.getTechB());
+
+        for (int i = 0; i < amtA.length; i++) {
+            double resourcesRequired = toDouble(amtA[i]) * costA + toDouble(amtB[i]) * costB;
+
+            if (resourcesRequired < resourcesAvailable) {
+                out[i] = PPCModel.PPCState.IMPOSSIBLE;
+            } else if (resourcesRequired == resourcesAvailable) {
+                out[i] = PPCModel.PPCState.FULL_CAPACITY;
+            } else {
+                out[i] = PPCModel.PPCState.UNDERPRODUCTION;
+            }
+        }
+    }
+
+    /**
+     * Exact conversion of an int to a double, equivalent to a cast.
+     */
+    private static double toDouble(int amount) {
+        return Double.longBitsToDouble(INT_BIAS_BITS + amount) - INT_BIAS;
+    }
+
+    private static void checkLengths(int inputLength, int outputLength) {
+        if (outputLength < inputLength) {
+            throw new IllegalArgumentException("Output array is shorter than the input array.");
+        }
+    }
+}
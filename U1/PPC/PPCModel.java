@@ -1,5 +1,7 @@
 package U1.PPC;
 
+import U1.metrics.MethodMetrics;
+import U1.metrics.Metrics;
 import U1.resources.Resources;
 
 /**
@@ -7,11 +9,23 @@ import U1.resources.Resources;
  * Assumes linear opportunity cost across model.
  */
 class PPCModel {
+    private static final MethodMetrics GET_AMT_A = Metrics.method("PPCModel", "getAmtA");
+    private static final MethodMetrics GET_AMT_B = Metrics.method("PPCModel", "getAmtB");
+    private static final MethodMetrics GET_OPPORTUNITY_COST = Metrics.method("PPCModel", "getOpportunityCost");
+    private static final MethodMetrics IS_ON_PPC = Metrics.method("PPCModel", "isOnPPC");
+    private static final MethodMetrics GET_ECONOMIC_STATE = Metrics.method("PPCModel", "getEconomicState");
+    private static final MethodMetrics CHANGE_AVAILABLE_RESOURCES = Metrics.method("PPCModel", "changeAvailableResources");
+    private static final MethodMetrics IMPROVE_TECHNOLOGY = Metrics.method("PPCModel", "improveTechnology");
+
     private Product productA;
     private Product productB;
     private Resources availableResources;
     private Technology techA;
     private Technology techB;
+    private long costAVersion = -1;
+    private long costBVersion = -1;
+    private double costA;
+    private double costB;
 
     /**
      * Enum containing all the possible states of an economy modeled using a PPC graph.
@@ -38,6 +52,25 @@ class PPCModel {
         this.techB = techB;
     }
 
+    /**
+     * Create a deep copy of the model, so that it can be modified without affecting this one.
+     * Products are shared since they cannot be modified.
+     * @return New PPC model with copies of the resources and technologies.
+     */
+    public PPCModel copy() {
+        Technology copyA = techA.copy();
+        Technology copyB = techB == techA ? copyA : techB.copy();
+        return new PPCModel(productA, productB, availableResources.copy(), copyA, copyB);
+    }
+
+    /**
+     * Take an immutable snapshot of the current state of the model.
+     * @return Snapshot unaffected by later changes to this model.
+     */
+    public PPCSnapshot snapshot() {
+        return new PPCSnapshot(copy());
+    }
+
     // Accessor methods for products
 
     public Product getProductA() {
@@ -48,6 +81,20 @@ class PPCModel {
         return this.productB;
     }
 
+    // Accessor methods for production inputs
+
+    public Resources getAvailableResources() {
+        return this.availableResources;
+    }
+
+    public Technology getTechA() {
+        return this.techA;
+    }
+
+    public Technology getTechB() {
+        return this.techB;
+    }
+
     /**
      * Get the units of product A that are available for production given the concurrent production of
      * amtB units of product B.   
@@ -55,11 +102,14 @@ class PPCModel {
      * @return Amount of product A able to be produced.
      */
     public int getAmtA(int amtB) {
+        long start = Metrics.start();
         double availableAmount = availableResources.totalAmount();
-        double costB = productB.cost(techB);
-        double costA = productA.cost(techA);
+        double costB = costB();
+        double costA = costA();
         
-        return (int) ((availableAmount - amtB * costB) / costA);
+        int amtA = (int) ((availableAmount - amtB * costB) / costA);
+        GET_AMT_A.stop(start);
+        return amtA;
     }
     
     /**
@@ -69,11 +119,14 @@ class PPCModel {
      * @return Amount of product B able to be produced.
      */
     public int getAmtB(int amtA) {
+        long start = Metrics.start();
         double availableAmount = availableResources.totalAmount();
-        double costA = productA.cost(techA);
-        double costB = productB.cost(techB);
+        double costA = costA();
+        double costB = costB();
         
-        return (int) ((availableAmount - amtA * costA) / costB);
+        int amtB = (int) ((availableAmount - amtA * costA) / costB);
+        GET_AMT_B.stop(start);
+        return amtB;
     }
 
     /**
@@ -83,13 +136,16 @@ class PPCModel {
      * @return Opportunity cost as a decimal.
      */
     public double getOpportunityCost(Product product) {
+        long start = Metrics.start();
         if (product.equals(productA)) {
-            double costOfProductA = product.cost(techA); 
-            double costOfProductB = productB.cost(techB); 
+            double costOfProductA = costA(); 
+            double costOfProductB = costB(); 
+            GET_OPPORTUNITY_COST.stop(start);
             return costOfProductA / costOfProductB; 
         } else if (product.equals(productB)) {
-            double costOfProductA = productA.cost(techA); 
-            double costOfProductB = product.cost(techB);
+            double costOfProductA = costA(); 
+            double costOfProductB = costB();
+            GET_OPPORTUNITY_COST.stop(start);
             return costOfProductB / costOfProductA; 
         } 
         throw new IllegalArgumentException("Attempted to get opportunity cost of a product that is not being produced in the economy.");
@@ -102,7 +158,10 @@ class PPCModel {
      * @return true if the point is on the PPC curve, false otherwise.
      */
     public boolean isOnPPC(int amtA, int amtB) {
-        return amtA * productA.cost(techA) + amtB * productB.cost(techB) == availableResources.totalAmount();
+        long start = Metrics.start();
+        boolean onPPC = amtA * costA() + amtB * costB() == availableResources.totalAmount();
+        IS_ON_PPC.stop(start);
+        return onPPC;
     }
 
     /**
@@ -112,27 +171,53 @@ class PPCModel {
      * @return Economic state at given point.
      */
     public PPCState getEconomicState(int amtA, int amtB) {
-        var resourcesRequired = amtA * productA.cost(techA) + amtB * productB.cost(techB);
+        long start = Metrics.start();
+        var resourcesRequired = amtA * costA() + amtB * costB();
         var resourcesAvailable = availableResources.totalAmount();
 
+        PPCState state;
         if (resourcesRequired < resourcesAvailable) {
-            return PPCState.IMPOSSIBLE;
+            state = PPCState.IMPOSSIBLE;
         } else if (resourcesRequired == resourcesAvailable) {
-            return PPCState.FULL_CAPACITY;
+            state = PPCState.FULL_CAPACITY;
+        } else {
+            state = PPCState.UNDERPRODUCTION;
+        }
+        GET_ECONOMIC_STATE.stop(start);
+        return state;
+    }
+
+    // Technology-adjusted product costs, recomputed only when the technology version changes
+
+    private double costA() {
+        if (costAVersion != techA.getVersion()) {
+            costA = productA.cost(techA);
+            costAVersion = techA.getVersion();
+        }
+        return costA;
+    }
+
+    private double costB() {
+        if (costBVersion != techB.getVersion()) {
+            costB = productB.cost(techB);
+            costBVersion = techB.getVersion();
         }
-        return PPCState.UNDERPRODUCTION;
+        return costB;
     }
 
     /**
      * Change the amount of available resources in an economy, shifting the PPC curve right or left.
      * Assumes all types of resources to be equally affected.
      * @param amount Amount by which to change available resources.
+     * @throws UnsupportedOperationException If the resources are read-only, such as a range of a resource tree.
      */
     public void changeAvailableResources(double amount) {
+        long start = Metrics.start();
         this.availableResources.addLand(amount / 4); 
         this.availableResources.addLabor((int) (amount / 4)); 
         this.availableResources.addCapital(amount / 4); 
         this.availableResources.improveEntrepreneurship(amount / 4); 
+        CHANGE_AVAILABLE_RESOURCES.stop(start);
     }
 
     /**
@@ -140,7 +225,9 @@ class PPCModel {
      * @param improvement Factor by which to increase efficiency factor.
      */
     public void improveTechnologyA(double improvement) {
+        long start = Metrics.start();
         techA.improveTechnology(improvement);
+        IMPROVE_TECHNOLOGY.stop(start);
     }
 
     /**
@@ -148,7 +235,9 @@ class PPCModel {
      * @param improvement Factor by which to increase efficiency factor.
      */
     public void improveTechnologyB(double improvement) {
+        long start = Metrics.start();
         techB.improveTechnology(improvement);
+        IMPROVE_TECHNOLOGY.stop(start);
     }
 }
 
@@ -0,0 +1,157 @@
+package U1.PPC;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo engine for studying how random shocks affect a PPC model.
+ * Each trajectory starts from a copy of a base model and applies a random sequence of resource changes
+ * and technology improvements, after which the frontier intercepts and opportunity costs are recorded.
+ * Trajectories are split across a fork/join pool using a fixed splitting scheme and split random number
+ * generators, so a given seed produces the same results regardless of the number of threads.
+ */
+class PPCScenarioEngine {
+    private static final int TRAJECTORIES_PER_TASK = 256;
+
+    private PPCModel baseModel;
+    private int steps;
+    private double maxResourceChange;
+    private double maxTechnologyImprovement;
+
+    /**
+     * Create a new scenario engine.
+     * The base model is only read, and must not be modified while scenarios are running.
+     * @param baseModel Model from which every trajectory starts.
+     * @param steps Number of shocks applied in each trajectory.
+     * @param maxResourceChange Resource changes are drawn uniformly from [-maxResourceChange, maxResourceChange).
+     * @param maxTechnologyImprovement Technology improvements are drawn uniformly from [0, maxTechnologyImprovement).
+     */
+    public PPCScenarioEngine(PPCModel baseModel, int steps, double maxResourceChange, double maxTechnologyImprovement) {
+        if (steps < 0 || maxResourceChange < 0 || maxTechnologyImprovement < 0) {
+            throw new IllegalArgumentException("Scenario parameters must not be negative.");
+        }
+        this.baseModel = baseModel;
+        this.steps = steps;
+        this.maxResourceChange = maxResourceChange;
+        this.maxTechnologyImprovement = maxTechnologyImprovement;
+    }
+
+    /**
+     * Summary statistics of the outcomes of all trajectories.
+     */
+    public static class ScenarioResults {
+        private SummaryStatistics maxAmtA = new SummaryStatistics();
+        private SummaryStatistics maxAmtB = new SummaryStatistics();
+        private SummaryStatistics opportunityCostA = new SummaryStatistics();
+        private SummaryStatistics opportunityCostB = new SummaryStatistics();
+
+        // Accessor methods
+
+        /** Units of product A produced when no product B is produced ({@code getAmtA(0)}). */
+        public SummaryStatistics getMaxAmtA() {
+            return maxAmtA;
+        }
+
+        /** Units of product B produced when no product A is produced ({@code getAmtB(0)}). */
+        public SummaryStatistics getMaxAmtB() {
+            return maxAmtB;
+        }
+
+        public SummaryStatistics getOpportunityCostA() {
+            return opportunityCostA;
+        }
+
+        public SummaryStatistics getOpportunityCostB() {
+            return opportunityCostB;
+        }
+
+        private void record(PPCModel model) {
+            maxAmtA.add(model.getAmtA(0));
+            maxAmtB.add(model.getAmtB(0));
+            opportunityCostA.add(model.getOpportunityCost(model.getProductA()));
+            opportunityCostB.add(model.getOpportunityCost(model.getProductB()));
+        }
+
+        private ScenarioResults merge(ScenarioResults other) {
+            maxAmtA.merge(other.maxAmtA);
+            maxAmtB.merge(other.maxAmtB);
+            opportunityCostA.merge(other.opportunityCostA);
+            opportunityCostB.merge(other.opportunityCostB);
+            return this;
+        }
+    }
+
+    /**
+     * Run trajectories on the common fork/join pool.
+     * @param trajectories Number of independent trajectories.
+     * @param seed Seed of the random number generator.
+     * @return Summary of the outcomes.
+     */
+    public ScenarioResults run(long trajectories, long seed) {
+        return run(trajectories, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run trajectories on the given fork/join pool.
+     * @param trajectories Number of independent trajectories.
+     * @param seed Seed of the random number generator.
+     * @param pool Pool on which to run the trajectories.
+     * @return Summary of the outcomes.
+     */
+    public ScenarioResults run(long trajectories, long seed, ForkJoinPool pool) {
+        if (trajectories < 0) {
+            throw new IllegalArgumentException("Number of trajectories must not be negative.");
+        }
+        return pool.invoke(new TrajectoryTask(0, trajectories, new SplittableRandom(seed)));
+    }
+
+    private void runTrajectory(SplittableRandom random, ScenarioResults results) {
+        PPCModel model = baseModel.copy();
+
+        for (int i = 0; i < steps; i++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    model.changeAvailableResources(maxResourceChange == 0 ? 0 : random.nextDouble(-maxResourceChange, maxResourceChange));
+                    break;
+                case 1:
+                    model.improveTechnologyA(maxTechnologyImprovement == 0 ? 0 : random.nextDouble(maxTechnologyImprovement));
+                    break;
+                default:
+                    model.improveTechnologyB(maxTechnologyImprovement == 0 ? 0 : random.nextDouble(maxTechnologyImprovement));
+                    break;
+            }
+        }
+        results.record(model);
+    }
+
+    @SuppressWarnings("serial")
+    private class TrajectoryTask extends RecursiveTask<ScenarioResults> {
+        private long from;
+        private long to;
+        private SplittableRandom random;
+
+        TrajectoryTask(long from, long to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected ScenarioResults compute() {
+            if (to - from <= TRAJECTORIES_PER_TASK) {
+                ScenarioResults results = new ScenarioResults();
+                for (long i = from; i < to; i++) {
+                    runTrajectory(random.split(), results);
+                }
+                return results;
+            }
+            long mid = from + (to - from) / 2;
+            TrajectoryTask left = new TrajectoryTask(from, mid, random.split());
+            TrajectoryTask right = new TrajectoryTask(mid, to, random);
+            left.fork();
+            ScenarioResults rightResults = right.compute();
+            return left.join().merge(rightResults);
+        }
+    }
+}
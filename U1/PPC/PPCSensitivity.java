@@ -0,0 +1,154 @@
+package U1.PPC;
+
+import U1.resources.Resources;
+
+/**
+ * Analytic sensitivities (partial derivatives) of the intercepts and opportunity costs of many PPC models with respect
+ * to each of their modifier methods, computed in one pass over the models.
+ * <p>
+ * The intercepts are the maximum amounts of each product, T / cost, before truncation to whole units, where
+ * T is {@link Resources#totalAmount()} and cost = baseCost / efficiencyFactor. Labor is treated as continuous,
+ * although {@link PPCModel#changeAvailableResources(double)} truncates the amount of labor added. The sensitivity to
+ * available resources differentiates T = (land + capital + labor) * entrepreneurship, which is NaN for
+ * resources whose total does not follow that formula, such as a range of a resource tree, since the lever cannot
+ * be applied to them.
+ * A technology shared by both products is improved for both by either technology lever.
+ */
+class PPCSensitivity {
+    /**
+     * Enum containing the modifier methods of a PPC model.
+     */
+    public enum Lever {
+        AVAILABLE_RESOURCES,
+        TECHNOLOGY_A,
+        TECHNOLOGY_B
+    }
+
+    private static final int LEVERS = Lever.values().length;
+
+    private double[] maxAmtA;
+    private double[] maxAmtB;
+    private double[] opportunityCostA;
+    private double[][] maxAmtABy;
+    private double[][] maxAmtBBy;
+    private double[][] opportunityCostABy;
+
+    /**
+     * Compute the sensitivities of a set of PPC models.
+     * @param models PPC models, with economy i being models[i].
+     */
+    public PPCSensitivity(PPCModel[] models) {
+        int economies = models.length;
+        this.maxAmtA = new double[economies];
+        this.maxAmtB = new double[economies];
+        this.opportunityCostA = new double[economies];
+        this.maxAmtABy = new double[LEVERS][economies];
+        this.maxAmtBBy = new double[LEVERS][economies];
+        this.opportunityCostABy = new double[LEVERS][economies];
+
+        int resources = Lever.AVAILABLE_RESOURCES.ordinal();
+        int techA = Lever.TECHNOLOGY_A.ordinal();
+        int techB = Lever.TECHNOLOGY_B.ordinal();
+        for (int i = 0; i < economies; i++) {
+            PPCModel model = models[i];
+            Resources available = model.getAvailableResources();
+            double baseAmount = available.totalLand() + available.totalCapital() + available.totalLabor();
+            double entrepreneurship = available.totalEntrepreneurship();
+            double total = available.totalAmount();
+            // changeAvailableResources adds a quarter of the amount to each of the four resources
+            double totalByResources = total == baseAmount * entrepreneurship
+                    ? 0.75 * entrepreneurship + 0.25 * baseAmount
+                    : Double.NaN;
+
+            double efficiencyA = model.getTechA().getEfficiencyFactor();
+            double efficiencyB = model.getTechB().getEfficiencyFactor();
+            double costA = model.getProductA().cost(model.getTechA());
+            double costB = model.getProductB().cost(model.getTechB());
+            boolean shared = model.getTechA() == model.getTechB();
+
+            double amtA = total / costA;
+            double amtB = total / costB;
+            double costRatio = costA / costB;
+            maxAmtA[i] = amtA;
+            maxAmtB[i] = amtB;
+            opportunityCostA[i] = costRatio;
+
+            maxAmtABy[resources][i] = totalByResources / costA;
+            maxAmtBBy[resources][i] = totalByResources / costB;
+
+            double amtAByEfficiencyA = amtA / efficiencyA;
+            double amtBByEfficiencyB = amtB / efficiencyB;
+            double costRatioByEfficiencyA = -costRatio / efficiencyA;
+            double costRatioByEfficiencyB = costRatio / efficiencyB;
+            maxAmtABy[techA][i] = amtAByEfficiencyA;
+            maxAmtBBy[techA][i] = shared ? amtBByEfficiencyB : 0;
+            opportunityCostABy[techA][i] = costRatioByEfficiencyA + (shared ? costRatioByEfficiencyB : 0);
+            maxAmtABy[techB][i] = shared ? amtAByEfficiencyA : 0;
+            maxAmtBBy[techB][i] = amtBByEfficiencyB;
+            opportunityCostABy[techB][i] = costRatioByEfficiencyB + (shared ? costRatioByEfficiencyA : 0);
+        }
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return maxAmtA.length;
+    }
+
+    public double getMaxAmtA(int economy) {
+        return maxAmtA[economy];
+    }
+
+    public double getMaxAmtB(int economy) {
+        return maxAmtB[economy];
+    }
+
+    public double getOpportunityCostA(int economy) {
+        return opportunityCostA[economy];
+    }
+
+    public double getOpportunityCostB(int economy) {
+        return 1 / opportunityCostA[economy];
+    }
+
+    /**
+     * Get the change in the maximum amount of product A per unit of the argument of a modifier method.
+     * @param economy Index of the economy.
+     * @param lever Modifier method.
+     * @return Partial derivative of the maximum amount of product A.
+     */
+    public double getMaxAmtASensitivity(int economy, Lever lever) {
+        return maxAmtABy[lever.ordinal()][economy];
+    }
+
+    /**
+     * Get the change in the maximum amount of product B per unit of the argument of a modifier method.
+     * @param economy Index of the economy.
+     * @param lever Modifier method.
+     * @return Partial derivative of the maximum amount of product B.
+     */
+    public double getMaxAmtBSensitivity(int economy, Lever lever) {
+        return maxAmtBBy[lever.ordinal()][economy];
+    }
+
+    /**
+     * Get the change in the opportunity cost of product A per unit of the argument of a modifier method.
+     * @param economy Index of the economy.
+     * @param lever Modifier method.
+     * @return Partial derivative of the opportunity cost of product A.
+     */
+    public double getOpportunityCostASensitivity(int economy, Lever lever) {
+        return opportunityCostABy[lever.ordinal()][economy];
+    }
+
+    /**
+     * Get the change in the opportunity cost of product B per unit of the argument of a modifier method.
+     * @param economy Index of the economy.
+     * @param lever Modifier method.
+     * @return Partial derivative of the opportunity cost of product B.
+     */
+    public double getOpportunityCostBSensitivity(int economy, Lever lever) {
+        double costRatio = opportunityCostA[economy];
+        return -opportunityCostABy[lever.ordinal()][economy] / (costRatio * costRatio);
+    }
+}
@@ -0,0 +1,135 @@
+package U1.PPC;
+
+/**
+ * Immutable snapshot of a PPC model, safe to share between threads without locking.
+ * Changes produce a new snapshot instead of modifying this one, so a snapshot can be published through
+ * an {@link java.util.concurrent.atomic.AtomicReference} and updated with
+ * {@code ref.updateAndGet(s -> s.withResourceChange(amount))} while readers keep using the current one.
+ */
+public final class PPCSnapshot {
+    private final PPCModel model;
+    private final double availableAmount;
+    private final double costA;
+    private final double costB;
+
+    /**
+     * Create a snapshot from a PPC model that is owned by the snapshot and never modified afterwards.
+     * Use {@link PPCModel#snapshot()} to take a snapshot of a model that is still in use.
+     * @param model Model owned by the snapshot.
+     */
+    PPCSnapshot(PPCModel model) {
+        this.model = model;
+        this.availableAmount = model.getAvailableResources().totalAmount();
+        this.costA = model.getProductA().cost(model.getTechA());
+        this.costB = model.getProductB().cost(model.getTechB());
+    }
+
+    // Accessor methods
+
+    public Product getProductA() {
+        return model.getProductA();
+    }
+
+    public Product getProductB() {
+        return model.getProductB();
+    }
+
+    public double getAvailableAmount() {
+        return availableAmount;
+    }
+
+    /**
+     * Get the units of product A that are available for production given the concurrent production of
+     * amtB units of product B. Same as {@link PPCModel#getAmtA(int)}.
+     * @param amtB Amount of product B being concurrently produced.
+     * @return Amount of product A able to be produced.
+     */
+    public int getAmtA(int amtB) {
+        return (int) ((availableAmount - amtB * costB) / costA);
+    }
+
+    /**
+     * Get the units of product B that are available for production given the concurrent production of
+     * amtA units of product A. Same as {@link PPCModel#getAmtB(int)}.
+     * @param amtA Amount of product A being concurrently produced.
+     * @return Amount of product B able to be produced.
+     */
+    public int getAmtB(int amtA) {
+        return (int) ((availableAmount - amtA * costA) / costB);
+    }
+
+    /**
+     * Get the opportunity cost of a certain product. Same as {@link PPCModel#getOpportunityCost(Product)}.
+     * @param product Product for which to calculate opportunity cost.
+     * @return Opportunity cost as a decimal.
+     */
+    public double getOpportunityCost(Product product) {
+        if (product.equals(getProductA())) {
+            return costA / costB;
+        } else if (product.equals(getProductB())) {
+            return costB / costA;
+        }
+        throw new IllegalArgumentException("Attempted to get opportunity cost of a product that is not being produced in the economy.");
+    }
+
+    /**
+     * Check whether a certain point is on the PPC curve. Same as {@link PPCModel#isOnPPC(int, int)}.
+     * @param amtA Amount of product A being produced.
+     * @param amtB Amount of product B being produced.
+     * @return true if the point is on the PPC curve, false otherwise.
+     */
+    public boolean isOnPPC(int amtA, int amtB) {
+        return amtA * costA + amtB * costB == availableAmount;
+    }
+
+    /**
+     * Get the state in which the economy would be if it was producing the inputted amount of products A and B.
+     * Same as {@link PPCModel#getEconomicState(int, int)}.
+     * @param amtA Amount of product A being produced.
+     * @param amtB Amount of product B being produced.
+     * @return Economic state at given point.
+     */
+    public PPCModel.PPCState getEconomicState(int amtA, int amtB) {
+        var resourcesRequired = amtA * costA + amtB * costB;
+
+        if (resourcesRequired < availableAmount) {
+            return PPCModel.PPCState.IMPOSSIBLE;
+        } else if (resourcesRequired == availableAmount) {
+            return PPCModel.PPCState.FULL_CAPACITY;
+        }
+        return PPCModel.PPCState.UNDERPRODUCTION;
+    }
+
+    /**
+     * Get a snapshot with the amount of available resources changed, as done by {@link PPCModel#changeAvailableResources(double)}.
+     * @param amount Amount by which to change available resources.
+     * @return New snapshot.
+     */
+    public PPCSnapshot withResourceChange(double amount) {
+        PPCModel changed = model.copy();
+        changed.changeAvailableResources(amount);
+        return new PPCSnapshot(changed);
+    }
+
+    /**
+     * Get a snapshot with the technology for producing product A improved by a certain amount.
+     * @param improvement Factor by which to increase efficiency factor.
+     * @return New snapshot.
+     */
+    public PPCSnapshot withTechnologyImprovementA(double improvement) {
+        PPCModel changed = model.copy();
+        changed.improveTechnologyA(improvement);
+        return new PPCSnapshot(changed);
+    }
+
+    /**
+     * Get a snapshot with the technology for producing product B improved by a certain amount.
+     * @param improvement Factor by which to increase efficiency factor.
+     * @return New snapshot.
+     */
+    public PPCSnapshot withTechnologyImprovementB(double improvement) {
+        PPCModel changed = model.copy();
+        changed.improveTechnologyB(improvement);
+        return new PPCSnapshot(changed);
+    }
+}
@@ -2,10 +2,14 @@ package U1.PPC;
 
 /**
  * Represents a product that can be produced in an economy.
+ * Products interned in a {@link ProductCatalog} carry a dense integer ID, which makes comparing
+ * two products of the same catalog an integer comparison instead of a name comparison.
  */
 public class Product {
     private String name;
     private double baseCost; 
+    private ProductCatalog catalog;
+    private int id = -1;
 
     /**
      * Create a new product object.
@@ -16,6 +20,37 @@ public class Product {
         this.baseCost = baseCost;
     }
 
+    /**
+     * Create a product interned in a catalog.
+     */
+    Product(String name, double baseCost, ProductCatalog catalog, int id) {
+        this(name, baseCost);
+        this.catalog = catalog;
+        this.id = id;
+    }
+
+    // Accessor methods
+
+    public String getName() {
+        return name;
+    }
+
+    public double getBaseCost() {
+        return baseCost;
+    }
+
+    /**
+     * Get the ID of the product in its catalog.
+     * @return ID of the product, or -1 if it was not created by a catalog.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
     /**
      * Returns cost of producing a certain product based on the technological level of an economy.
      * @param tech Technology level of economy.
@@ -26,7 +61,22 @@ public class Product {
     }
 
     public boolean equals(Product p) {
+        if (this == p) {
+            return true;
+        }
+        if (catalog != null && catalog == p.catalog) {
+            return id == p.id;
+        }
         return this.name.equals(p.name);
     }
-}
 
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Product && equals((Product) o);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+}
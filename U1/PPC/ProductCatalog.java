@@ -0,0 +1,90 @@
+package U1.PPC;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Catalog interning products by name and assigning them dense integer IDs starting at zero.
+ * Products of the same catalog are compared by ID, and data about them can be stored in arrays indexed by ID.
+ */
+public class ProductCatalog {
+    private Map<String, Product> byName = new HashMap<>();
+    private Product[] byId = new Product[16];
+    private int size;
+
+    // Accessor methods
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a product by ID.
+     * @param id ID of the product.
+     * @return The product with the given ID.
+     */
+    public Product get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Invalid product ID " + id + " for catalog of size " + size + ".");
+        }
+        return byId[id];
+    }
+
+    /**
+     * Get the product of this catalog with the given name.
+     * @param name Name of the product.
+     * @return The product, or null if no product with that name was interned.
+     */
+    public Product get(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Get the ID of a product in this catalog, which may be a product created outside of the catalog.
+     * @param product Product to look up.
+     * @return ID of the product with the same name, or -1 if there is none.
+     */
+    public int getId(Product product) {
+        if (product.getCatalog() == this) {
+            return product.getId();
+        }
+        Product interned = byName.get(product.getName());
+        return interned == null ? -1 : interned.getId();
+    }
+
+    /**
+     * Get the product with the given name, creating it if it is not in the catalog yet.
+     * @param name Name of the product.
+     * @param baseCost Base cost of product without taking into account technology.
+     * @return The interned product.
+     */
+    public Product intern(String name, double baseCost) {
+        Product product = byName.get(name);
+        if (product != null) {
+            if (Double.compare(product.getBaseCost(), baseCost) != 0) {
+                throw new IllegalArgumentException("Attempted to intern product " + name + " with a different base cost.");
+            }
+            return product;
+        }
+        if (size == byId.length) {
+            byId = Arrays.copyOf(byId, size * 2);
+        }
+        product = new Product(name, baseCost, this, size);
+        byId[size++] = product;
+        byName.put(name, product);
+        return product;
+    }
+
+    /**
+     * Get the interned version of a product, creating it if it is not in the catalog yet.
+     * @param product Product to intern.
+     * @return The interned product.
+     */
+    public Product intern(Product product) {
+        if (product.getCatalog() == this) {
+            return product;
+        }
+        return intern(product.getName(), product.getBaseCost());
+    }
+}
@@ -0,0 +1,50 @@
+package U1.PPC;
+
+import java.util.Arrays;
+
+/**
+ * Map from the products of a catalog to values, backed by an array indexed by product ID.
+ * Lookups of interned products are a single array access, without hashing or boxing of keys.
+ * @param <V> Type of values.
+ */
+public class ProductMap<V> {
+    private ProductCatalog catalog;
+    private Object[] values;
+
+    /**
+     * Create a new empty map.
+     * @param catalog Catalog of the products used as keys.
+     */
+    public ProductMap(ProductCatalog catalog) {
+        this.catalog = catalog;
+        this.values = new Object[Math.max(catalog.size(), 1)];
+    }
+
+    /**
+     * Get the value associated with a product.
+     * @param product Product to look up, interned in the catalog of the map or not.
+     * @return The associated value, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Product product) {
+        int id = catalog.getId(product);
+        return id >= 0 && id < values.length ? (V) values[id] : null;
+    }
+
+    /**
+     * Associate a value with a product, interning the product in the catalog of the map if needed.
+     * @param product Product used as key.
+     * @param value Value to associate with the product.
+     * @return The previously associated value, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(Product product, V value) {
+        int id = catalog.intern(product).getId();
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+        }
+        V previous = (V) values[id];
+        values[id] = value;
+        return previous;
+    }
+}
@@ -0,0 +1,162 @@
+package U1.PPC;
+
+/**
+ * Streaming summary statistics (count, mean, variance, min, max and approximate quantiles) over a
+ * sequence of values. Memory use does not depend on the number of values recorded.
+ * Quantiles are estimated from logarithmic buckets with a relative error of about one percent.
+ */
+public class SummaryStatistics {
+    private static final double GAMMA = 1.02;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int MAX_INDEX = (int) Math.ceil(Math.log(1e12) / LOG_GAMMA);
+    private static final double MIN_MAGNITUDE = Math.pow(GAMMA, -MAX_INDEX);
+
+    private long count;
+    private double mean;
+    private double sumOfSquaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long zeroCount;
+    private long[] positiveBuckets;
+    private long[] negativeBuckets;
+
+    /**
+     * Record a new value.
+     * @param value Value to record, must not be NaN.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Attempted to record NaN in summary statistics.");
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDeviations += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (Math.abs(value) < MIN_MAGNITUDE) {
+            zeroCount++;
+        } else if (value > 0) {
+            if (positiveBuckets == null) {
+                positiveBuckets = new long[2 * MAX_INDEX + 1];
+            }
+            positiveBuckets[bucketIndex(value)]++;
+        } else {
+            if (negativeBuckets == null) {
+                negativeBuckets = new long[2 * MAX_INDEX + 1];
+            }
+            negativeBuckets[bucketIndex(-value)]++;
+        }
+    }
+
+    /**
+     * Merge the values recorded by another summary into this one.
+     * @param other Summary to merge.
+     */
+    public void merge(SummaryStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        sumOfSquaredDeviations += other.sumOfSquaredDeviations + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        zeroCount += other.zeroCount;
+        positiveBuckets = mergeBuckets(positiveBuckets, other.positiveBuckets);
+        negativeBuckets = mergeBuckets(negativeBuckets, other.negativeBuckets);
+    }
+
+    // Accessor methods
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Get the sample variance of the recorded values.
+     * @return Sample variance, or NaN if fewer than two values were recorded.
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : sumOfSquaredDeviations / (count - 1);
+    }
+
+    /**
+     * Get an approximate quantile of the recorded values.
+     * @param q Quantile between 0 and 1 (0.5 for the median).
+     * @return Approximate value at the given quantile, or NaN if no values were recorded.
+     */
+    public double getQuantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        long seen = 0;
+
+        if (negativeBuckets != null) {
+            for (int i = negativeBuckets.length - 1; i >= 0; i--) {
+                seen += negativeBuckets[i];
+                if (seen > rank) {
+                    return clamp(-bucketValue(i));
+                }
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return clamp(0);
+        }
+        if (positiveBuckets != null) {
+            for (int i = 0; i < positiveBuckets.length; i++) {
+                seen += positiveBuckets[i];
+                if (seen > rank) {
+                    return clamp(bucketValue(i));
+                }
+            }
+        }
+        return max;
+    }
+
+    private double clamp(double value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int bucketIndex(double magnitude) {
+        int index = (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+        return Math.max(-MAX_INDEX, Math.min(MAX_INDEX, index)) + MAX_INDEX;
+    }
+
+    private static double bucketValue(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket - MAX_INDEX) / (GAMMA + 1);
+    }
+
+    private static long[] mergeBuckets(long[] buckets, long[] otherBuckets) {
+        if (otherBuckets == null) {
+            return buckets;
+        }
+        if (buckets == null) {
+            return otherBuckets.clone();
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += otherBuckets[i];
+        }
+        return buckets;
+    }
+}
@@ -7,6 +7,7 @@ package U1.PPC;
  */
 class Technology {
     private double efficiencyFactor;
+    private long version;
 
     /**
      * Initialize technology parameter. 
@@ -16,6 +17,26 @@ class Technology {
         this.efficiencyFactor = efficiencyFactor;
     }
 
+    public double getEfficiencyFactor() {
+        return efficiencyFactor;
+    }
+
+    /**
+     * Version of the technology, incremented every time the efficiency factor is modified.
+     * @return Current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Create an independent copy of this technology level.
+     * @return New technology object with the same efficiency factor.
+     */
+    public Technology copy() {
+        return new Technology(efficiencyFactor);
+    }
+
     /**
      * Apply technological multiplier to base cost of product.
      * @param baseCost Base cost of product.
@@ -31,6 +52,7 @@ class Technology {
      */
     public void improveTechnology(double improvement) {
         efficiencyFactor += improvement; 
+        version++;
     }
 }
 
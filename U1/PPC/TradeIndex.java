@@ -0,0 +1,242 @@
+package U1.PPC;
+
+import java.util.Arrays;
+
+/**
+ * Index over the PPC models of many countries producing the same two products, for answering
+ * comparative and absolute advantage queries without comparing every pair of countries.
+ * Opportunity costs and maximum outputs of every country are kept in sorted arrays, which must be
+ * refreshed with {@link #update(int)} whenever the technology or resources of a country change.
+ */
+class TradeIndex {
+    private PPCModel[] countries;
+    private Product productA;
+    private Product productB;
+    private Ranking opportunityCostA;
+    private Ranking opportunityCostB;
+    private Ranking maxAmtA;
+    private Ranking maxAmtB;
+
+    /**
+     * Create a new trade index.
+     * @param countries PPC models of the countries, all producing the same products.
+     */
+    public TradeIndex(PPCModel[] countries) {
+        if (countries.length == 0) {
+            throw new IllegalArgumentException("Attempted to create trade index without any countries.");
+        }
+        this.productA = countries[0].getProductA();
+        this.productB = countries[0].getProductB();
+        for (PPCModel country : countries) {
+            if (!country.getProductA().equals(productA) || !country.getProductB().equals(productB))
+                throw new IllegalArgumentException("Attempted to create trade index using PPC models with mismatched products.");
+        }
+        this.countries = countries.clone();
+
+        int n = countries.length;
+        double[] ocA = new double[n];
+        double[] ocB = new double[n];
+        double[] amtA = new double[n];
+        double[] amtB = new double[n];
+        for (int i = 0; i < n; i++) {
+            ocA[i] = this.countries[i].getOpportunityCost(productA);
+            ocB[i] = this.countries[i].getOpportunityCost(productB);
+            amtA[i] = -this.countries[i].getAmtA(0);
+            amtB[i] = -this.countries[i].getAmtB(0);
+        }
+        this.opportunityCostA = new Ranking(ocA);
+        this.opportunityCostB = new Ranking(ocB);
+        this.maxAmtA = new Ranking(amtA);
+        this.maxAmtB = new Ranking(amtB);
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return countries.length;
+    }
+
+    public PPCModel getCountry(int country) {
+        return countries[country];
+    }
+
+    /**
+     * Refresh the index after the technology or resources of a country have changed.
+     * @param country Index of the country that changed.
+     */
+    public void update(int country) {
+        PPCModel model = countries[country];
+        opportunityCostA.update(country, model.getOpportunityCost(productA));
+        opportunityCostB.update(country, model.getOpportunityCost(productB));
+        maxAmtA.update(country, -model.getAmtA(0));
+        maxAmtB.update(country, -model.getAmtB(0));
+    }
+
+    /**
+     * Returns country with absolute advantage in terms of producing a certain product.
+     * @param product Product to be compared.
+     * @return PPC model for country with absolute advantage, or null if the best countries are tied.
+     */
+    public PPCModel absoluteAdvantage(Product product) {
+        return best(absoluteRanking(product));
+    }
+
+    /**
+     * Returns country with comparative advantage in terms of producing a certain product.
+     * @param product Product to be compared.
+     * @return PPC model for country with comparative advantage, or null if the best countries are tied.
+     */
+    public PPCModel comparativeAdvantage(Product product) {
+        return best(comparativeRanking(product));
+    }
+
+    /**
+     * Returns the countries producing the most of a certain product, best first.
+     * @param product Product to be compared.
+     * @param k Maximum number of countries to return.
+     * @return PPC models of the top producers.
+     */
+    public PPCModel[] topProducers(Product product, int k) {
+        return top(absoluteRanking(product), k);
+    }
+
+    /**
+     * Returns the countries with the lowest opportunity cost for a certain product, best first.
+     * @param product Product to be compared.
+     * @param k Maximum number of countries to return.
+     * @return PPC models of the countries with the greatest comparative advantage.
+     */
+    public PPCModel[] topComparativeProducers(Product product, int k) {
+        return top(comparativeRanking(product), k);
+    }
+
+    /**
+     * Get the rank of a country in terms of maximum output of a product. Tied countries share a rank.
+     * @param product Product to be compared.
+     * @param country Index of the country.
+     * @return Number of countries producing strictly more of the product (0 for the best).
+     */
+    public int absoluteRank(Product product, int country) {
+        return absoluteRanking(product).rank(country);
+    }
+
+    /**
+     * Get the rank of a country in terms of opportunity cost of a product. Tied countries share a rank.
+     * @param product Product to be compared.
+     * @param country Index of the country.
+     * @return Number of countries with a strictly lower opportunity cost (0 for the best).
+     */
+    public int comparativeRank(Product product, int country) {
+        return comparativeRanking(product).rank(country);
+    }
+
+    private Ranking absoluteRanking(Product product) {
+        if (product.equals(productA)) {
+            return maxAmtA;
+        } else if (product.equals(productB)) {
+            return maxAmtB;
+        }
+        throw new IllegalArgumentException("Attempted to compare a product that is not being produced in the economies.");
+    }
+
+    private Ranking comparativeRanking(Product product) {
+        if (product.equals(productA)) {
+            return opportunityCostA;
+        } else if (product.equals(productB)) {
+            return opportunityCostB;
+        }
+        throw new IllegalArgumentException("Attempted to compare a product that is not being produced in the economies.");
+    }
+
+    private PPCModel best(Ranking ranking) {
+        if (ranking.keys.length > 1 && ranking.keys[0] == ranking.keys[1]) {
+            return null;
+        }
+        return countries[ranking.countries[0]];
+    }
+
+    private PPCModel[] top(Ranking ranking, int k) {
+        PPCModel[] top = new PPCModel[Math.max(0, Math.min(k, countries.length))];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = countries[ranking.countries[i]];
+        }
+        return top;
+    }
+
+    /**
+     * Countries sorted by ascending key, along with the position of each country in the sorted order.
+     */
+    private static class Ranking {
+        private double[] keys;
+        private int[] countries;
+        private int[] positions;
+
+        Ranking(double[] countryKeys) {
+            int n = countryKeys.length;
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(countryKeys[a], countryKeys[b]));
+
+            this.keys = new double[n];
+            this.countries = new int[n];
+            this.positions = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = countryKeys[order[i]];
+                countries[i] = order[i];
+                positions[order[i]] = i;
+            }
+        }
+
+        int rank(int country) {
+            double key = keys[positions[country]];
+            int low = 0;
+            int high = positions[country];
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Double.compare(keys[mid], key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void update(int country, double key) {
+            int from = positions[country];
+            int to = insertionPoint(key, from);
+            if (to > from) {
+                System.arraycopy(keys, from + 1, keys, from, to - from);
+                System.arraycopy(countries, from + 1, countries, from, to - from);
+            } else if (to < from) {
+                System.arraycopy(keys, to, keys, to + 1, from - to);
+                System.arraycopy(countries, to, countries, to + 1, from - to);
+            }
+            keys[to] = key;
+            countries[to] = country;
+            for (int i = Math.min(from, to); i <= Math.max(from, to); i++) {
+                positions[countries[i]] = i;
+            }
+        }
+
+        /**
+         * Position at which a key ends up once the entry currently at the given position is removed.
+         */
+        private int insertionPoint(double key, int removed) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int index = mid < removed ? mid : mid + 1;
+                if (Double.compare(keys[index], key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
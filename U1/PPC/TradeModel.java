@@ -1,10 +1,15 @@
 package U1.PPC;
 
+import U1.metrics.MethodMetrics;
+import U1.metrics.Metrics;
+
 /**
  * Model for comparing the PPC models of two countries and determining
  * comparative and absolute advantages for given products.
  */
 class TradeModel {
+    private static final MethodMetrics ABSOLUTE_ADVANTAGE = Metrics.method("TradeModel", "absoluteAdvantage");
+    private static final MethodMetrics COMPARATIVE_ADVANTAGE = Metrics.method("TradeModel", "comparativeAdvantage");
 
 	private PPCModel countryA;
 	private PPCModel countryB;
@@ -17,12 +22,27 @@ class TradeModel {
         this.countryB = countryB;
     }
 
+    /**
+     * Take an immutable snapshot of the current state of both countries.
+     * @return Snapshot unaffected by later changes to the countries.
+     */
+    public TradeSnapshot snapshot() {
+        return new TradeSnapshot(countryA.snapshot(), countryB.snapshot());
+    }
+
     /**
      * Returns country with absolute advantage in terms of producing a certain product.
      * @param product Product to be compared.
      * @return PPC model for ountry with absolute advantage in terms of production.
      */
     public PPCModel absoluteAdvantage(Product product) {
+        long start = Metrics.start();
+        PPCModel country = findAbsoluteAdvantage(product);
+        ABSOLUTE_ADVANTAGE.stop(start);
+        return country;
+    }
+
+    private PPCModel findAbsoluteAdvantage(Product product) {
         if (product.equals(countryA.getProductA())) {
             if (countryA.getAmtA(0) > countryB.getAmtA(0)) {
                 return countryA;
@@ -49,6 +69,13 @@ class TradeModel {
      * @return PPC model for ountry with comparative advantage in terms of production.
      */
     public PPCModel comparativeAdvantage(Product product) {
+        long start = Metrics.start();
+        PPCModel country = findComparativeAdvantage(product);
+        COMPARATIVE_ADVANTAGE.stop(start);
+        return country;
+    }
+
+    private PPCModel findComparativeAdvantage(Product product) {
         if (countryA.getOpportunityCost(product) < countryB.getOpportunityCost(product)) {
             return countryA;
         } else if (countryA.getOpportunityCost(product) > countryB.getOpportunityCost(product)) {
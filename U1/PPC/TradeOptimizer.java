@@ -0,0 +1,619 @@
+package U1.PPC;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Optimizer for the specialization of many countries trading freely with each other. Given the PPC models of the
+ * countries and the amounts each of them wants to consume, finds which country should produce how much of each
+ * product so that the world produces as much as possible while every demand is still met, along with the terms of
+ * trade under which every country gains and the size of those gains compared to each country producing its own
+ * demand.
+ * <p>
+ * Amounts in the plans are fractional, since the world optimum generally leaves one country splitting its resources
+ * at a point that is not a whole number of units.
+ */
+class TradeOptimizer {
+    private static final double EPSILON = 1e-9;
+    private static final int CELLS_PER_TASK = 1 << 16;
+    private static final int DEGENERATE_PIVOTS_BEFORE_BLAND = 50;
+
+    private TradeOptimizer() {
+    }
+
+    /**
+     * Find the plan producing as much of product A as possible while producing at least as much of product B as
+     * the countries demand in total. Since opportunity costs are linear, countries are sorted by their opportunity
+     * cost of product A and product B is assigned to the most expensive ones first, so that at most one country
+     * produces both products. Runs in O(n log n).
+     * @param countries PPC models of the countries, all producing the same products.
+     * @param demandA Amount of product A each country consumes.
+     * @param demandB Amount of product B each country consumes.
+     * @return Specialization plan.
+     */
+    public static Plan specialize(PPCModel[] countries, int[] demandA, int[] demandB) {
+        int n = countries.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Attempted to plan trade without any countries.");
+        }
+        if (demandA.length != n || demandB.length != n) {
+            throw new IllegalArgumentException("Attempted to plan trade using demands of mismatched lengths.");
+        }
+        Product productA = countries[0].getProductA();
+        Product productB = countries[0].getProductB();
+
+        double[] costA = new double[n];
+        double[] costB = new double[n];
+        double[] total = new double[n];
+        double[] opportunityCostA = new double[n];
+        double demandedB = 0;
+        for (int i = 0; i < n; i++) {
+            PPCModel country = countries[i];
+            if (!country.getProductA().equals(productA) || !country.getProductB().equals(productB))
+                throw new IllegalArgumentException("Attempted to plan trade using PPC models with mismatched products.");
+            costA[i] = productA.cost(country.getTechA());
+            costB[i] = productB.cost(country.getTechB());
+            total[i] = country.getAvailableResources().totalAmount();
+            checkCost(costA[i]);
+            checkCost(costB[i]);
+            if (demandA[i] < 0 || demandB[i] < 0) {
+                throw new IllegalArgumentException("Attempted to plan trade with a negative demand.");
+            }
+            if (demandA[i] * costA[i] + demandB[i] * costB[i] > total[i] * (1 + EPSILON)) {
+                throw new IllegalArgumentException("Attempted to plan trade with a demand outside the PPC of a country.");
+            }
+            opportunityCostA[i] = costA[i] / costB[i];
+            demandedB += demandB[i];
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(opportunityCostA[a], opportunityCostA[b]));
+
+        // Countries at the end of the order give up the most A for each unit of B, so they produce B
+        double[] amtA = new double[n];
+        double[] amtB = new double[n];
+        double remainingB = demandedB;
+        int marginal = -1;
+        int split = n;
+        while (split > 0 && remainingB > 0) {
+            int country = order[split - 1];
+            double maxB = total[country] / costB[country];
+            if (maxB > remainingB) {
+                amtB[country] = remainingB;
+                amtA[country] = (total[country] - remainingB * costB[country]) / costA[country];
+                marginal = country;
+                remainingB = 0;
+                break;
+            }
+            amtB[country] = maxB;
+            remainingB -= maxB;
+            split--;
+        }
+        for (int i = 0; i < split; i++) {
+            int country = order[i];
+            if (country != marginal) {
+                amtA[country] = total[country] / costA[country];
+            }
+        }
+
+        double minTerms;
+        double maxTerms;
+        if (marginal >= 0) {
+            minTerms = opportunityCostA[marginal];
+            maxTerms = opportunityCostA[marginal];
+        } else {
+            minTerms = split > 0 ? opportunityCostA[order[split - 1]] : 0;
+            maxTerms = split < n ? opportunityCostA[order[split]] : Double.POSITIVE_INFINITY;
+        }
+        return new Plan(amtA, amtB, demandA.clone(), demandB.clone(), marginal, minTerms, maxTerms);
+    }
+
+    /**
+     * Find the plan producing the greatest total value across many countries producing any number of products,
+     * while producing at least the sum of the quotas of every country for each product. The quotas act as the
+     * demand of each country. Unlike the two-product case there is no ordering of the countries to exploit, so the
+     * plan is found with the simplex method, with each pivot split across the common fork/join pool once the
+     * problem is large enough.
+     * @param countries Multi-good models of the countries, all producing the same products in the same order.
+     * @param values Value of one unit of each product to the world.
+     * @return Specialization plan, or null if the world cannot meet the quotas.
+     */
+    public static MultiGoodPlan specialize(MultiGoodModel[] countries, double[] values) {
+        int n = countries.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Attempted to plan trade without any countries.");
+        }
+        int goods = countries[0].size();
+        if (values.length != goods) {
+            throw new IllegalArgumentException("Attempted to plan trade with the wrong number of product values.");
+        }
+
+        double[] costs = new double[n * goods];
+        int[] demands = new int[n * goods];
+        double[] totals = new double[n];
+        double[] worldDemand = new double[goods];
+        for (int i = 0; i < n; i++) {
+            MultiGoodModel country = countries[i];
+            if (country.size() != goods) {
+                throw new IllegalArgumentException("Attempted to plan trade using multi-good models with mismatched products.");
+            }
+            for (int g = 0; g < goods; g++) {
+                if (!country.getProduct(g).equals(countries[0].getProduct(g)))
+                    throw new IllegalArgumentException("Attempted to plan trade using multi-good models with mismatched products.");
+                costs[i * goods + g] = country.getCost(g);
+                checkCost(costs[i * goods + g]);
+                demands[i * goods + g] = country.getQuota(g);
+                worldDemand[g] += country.getQuota(g);
+            }
+            totals[i] = country.getAvailableResources().totalAmount();
+            if (!(totals[i] >= 0)) {
+                throw new IllegalArgumentException("Attempted to plan trade for a country with negative resources.");
+            }
+        }
+
+        Simplex simplex = new Simplex(costs, totals, worldDemand, values);
+        if (!simplex.solve()) {
+            return null;
+        }
+        return simplex.plan(costs, totals, demands, values);
+    }
+
+    private static void checkCost(double cost) {
+        if (!(cost > 0)) {
+            throw new IllegalArgumentException("Attempted to plan trade for a country with a non-positive product cost.");
+        }
+    }
+
+    /**
+     * Specialization plan for countries producing two products.
+     * Terms of trade are the units of product B exchanged for one unit of product A.
+     */
+    public static class Plan {
+        private double[] amtA;
+        private double[] amtB;
+        private int[] demandA;
+        private int[] demandB;
+        private int marginal;
+        private double minTerms;
+        private double maxTerms;
+
+        private Plan(double[] amtA, double[] amtB, int[] demandA, int[] demandB, int marginal, double minTerms, double maxTerms) {
+            this.amtA = amtA;
+            this.amtB = amtB;
+            this.demandA = demandA;
+            this.demandB = demandB;
+            this.marginal = marginal;
+            this.minTerms = minTerms;
+            this.maxTerms = maxTerms;
+        }
+
+        // Accessor methods
+
+        public int size() {
+            return amtA.length;
+        }
+
+        public double getAmtA(int country) {
+            return amtA[country];
+        }
+
+        public double getAmtB(int country) {
+            return amtB[country];
+        }
+
+        /**
+         * Get the country producing both products, whose opportunity cost fixes the terms of trade.
+         * @return Index of the country, or -1 if every country fully specializes.
+         */
+        public int getMarginalCountry() {
+            return marginal;
+        }
+
+        /**
+         * Lowest terms of trade under which no country would rather produce a different mix of products.
+         * @return Units of product B per unit of product A.
+         */
+        public double getMinTermsOfTrade() {
+            return minTerms;
+        }
+
+        /**
+         * Highest terms of trade under which no country would rather produce a different mix of products.
+         * @return Units of product B per unit of product A, or infinity if no country produces product B.
+         */
+        public double getMaxTermsOfTrade() {
+            return maxTerms;
+        }
+
+        public double getWorldAmtA() {
+            return sum(amtA);
+        }
+
+        public double getWorldAmtB() {
+            return sum(amtB);
+        }
+
+        /**
+         * Get the additional units of product A produced by the world compared to every country producing its own
+         * demand. The world produces exactly the demanded units of product B in both cases.
+         * @return Gains from trade in units of product A.
+         */
+        public double getGainsFromTrade() {
+            double demanded = 0;
+            for (int amount : demandA) {
+                demanded += amount;
+            }
+            return getWorldAmtA() - demanded;
+        }
+
+        /**
+         * Get the gains of a single country when it trades its production at certain terms of trade, compared to
+         * producing its own demand. Never negative for terms of trade between the minimum and maximum.
+         * @param country Index of the country.
+         * @param termsOfTrade Units of product B exchanged for one unit of product A.
+         * @return Gains from trade in units of product B.
+         */
+        public double getGainsFromTrade(int country, double termsOfTrade) {
+            return termsOfTrade * (amtA[country] - demandA[country]) + (amtB[country] - demandB[country]);
+        }
+
+        private static double sum(double[] amounts) {
+            double sum = 0;
+            for (double amount : amounts) {
+                sum += amount;
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Specialization plan for countries producing any number of products. Prices are the value of one more unit
+     * of each product to the world, so the ratio of the prices of two products gives the terms of trade between them.
+     */
+    public static class MultiGoodPlan {
+        private int goods;
+        private double[] amounts;
+        private double[] prices;
+        private double[] resourcePrices;
+        private double[] autarkyValues;
+        private double[] gains;
+        private double value;
+
+        private MultiGoodPlan(int goods, double[] amounts, double[] prices, double[] resourcePrices, double[] autarkyValues,
+                double[] gains, double value) {
+            this.goods = goods;
+            this.amounts = amounts;
+            this.prices = prices;
+            this.resourcePrices = resourcePrices;
+            this.autarkyValues = autarkyValues;
+            this.gains = gains;
+            this.value = value;
+        }
+
+        // Accessor methods
+
+        public int size() {
+            return resourcePrices.length;
+        }
+
+        public int getGoods() {
+            return goods;
+        }
+
+        public double getAmount(int country, int good) {
+            return amounts[country * goods + good];
+        }
+
+        public double getPrice(int good) {
+            return prices[good];
+        }
+
+        /**
+         * Get the value to the world of one more unit of the resources of a country.
+         * @param country Index of the country.
+         * @return Value of one unit of resources, or zero if the country has resources left over.
+         */
+        public double getResourcePrice(int country) {
+            return resourcePrices[country];
+        }
+
+        /**
+         * Get the units of one product exchanged for one unit of another.
+         * @param good Index of the product being sold.
+         * @param numeraire Index of the product it is paid in.
+         * @return Terms of trade.
+         */
+        public double getTermsOfTrade(int good, int numeraire) {
+            return prices[good] / prices[numeraire];
+        }
+
+        public double getWorldAmount(int good) {
+            double sum = 0;
+            for (int i = good; i < amounts.length; i += goods) {
+                sum += amounts[i];
+            }
+            return sum;
+        }
+
+        /**
+         * Get the total value of the world production under the plan.
+         * @return Value of production.
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * Get the total value the countries would produce without trade, each meeting its own quotas and spending
+         * the rest of its resources on the product with the highest value per unit of cost.
+         * @return Value of production, or NaN if some country cannot meet its quotas alone.
+         */
+        public double getAutarkyValue() {
+            double sum = 0;
+            for (double autarkyValue : autarkyValues) {
+                sum += autarkyValue;
+            }
+            return sum;
+        }
+
+        public double getGainsFromTrade() {
+            return value - getAutarkyValue();
+        }
+
+        /**
+         * Get the gains of a single country when it sells its production at the prices of the plan, compared to the
+         * value of its own quotas at the same prices.
+         * @param country Index of the country.
+         * @return Gains from trade, never negative, or NaN if the country cannot meet its quotas alone.
+         */
+        public double getGainsFromTrade(int country) {
+            return gains[country];
+        }
+    }
+
+    /**
+     * Dense tableau for the multi-good problem. Variable i * goods + g is the amount of product g produced by
+     * country i, followed by the slack of each country's resources, the surplus over each world demand and an
+     * artificial variable per world demand used to find a first feasible plan.
+     */
+    private static class Simplex {
+        private int countries;
+        private int goods;
+        private int columns;
+        private int rhs;
+        private double[][] rows;
+        private int[] basis;
+        // Objective rows hold z_j - c_j, so a negative entry means the column can improve the objective
+        private double[] objective;
+        private double[] feasibility;
+        private double demanded;
+
+        Simplex(double[] costs, double[] totals, double[] worldDemand, double[] values) {
+            this.countries = totals.length;
+            this.goods = worldDemand.length;
+            int variables = countries * goods;
+            this.columns = variables + countries + 2 * goods;
+            this.rhs = columns;
+            this.rows = new double[countries + goods][columns + 1];
+            this.basis = new int[countries + goods];
+            this.objective = new double[columns + 1];
+            this.feasibility = new double[columns + 1];
+
+            for (int i = 0; i < countries; i++) {
+                double[] row = rows[i];
+                System.arraycopy(costs, i * goods, row, i * goods, goods);
+                row[variables + i] = 1;
+                row[rhs] = totals[i];
+                basis[i] = variables + i;
+            }
+            for (int g = 0; g < goods; g++) {
+                double[] row = rows[countries + g];
+                for (int i = 0; i < countries; i++) {
+                    row[i * goods + g] = 1;
+                }
+                row[surplus(g)] = -1;
+                row[artificial(g)] = 1;
+                row[rhs] = worldDemand[g];
+                demanded += worldDemand[g];
+                basis[countries + g] = artificial(g);
+
+                // Maximize minus the sum of the artificial variables, expressed in terms of the non-basic columns
+                for (int j = 0; j <= rhs; j++) {
+                    feasibility[j] -= row[j];
+                }
+                feasibility[artificial(g)] += 1;
+            }
+            for (int j = 0; j < variables; j++) {
+                objective[j] = -values[j % goods];
+            }
+        }
+
+        private int surplus(int good) {
+            return countries * goods + countries + good;
+        }
+
+        private int artificial(int good) {
+            return countries * goods + countries + goods + good;
+        }
+
+        /**
+         * Run both phases of the simplex method.
+         * @return true if the world demand can be met, false otherwise.
+         */
+        boolean solve() {
+            iterate(feasibility, columns);
+            if (feasibility[rhs] < -EPSILON * Math.max(1, demanded)) {
+                return false;
+            }
+            // Pivot artificial variables left in the basis at zero out of it, so they cannot grow again
+            for (int r = 0; r < basis.length; r++) {
+                if (basis[r] >= artificial(0)) {
+                    for (int j = 0; j < artificial(0); j++) {
+                        if (Math.abs(rows[r][j]) > EPSILON) {
+                            pivot(r, j);
+                            break;
+                        }
+                    }
+                }
+            }
+            iterate(objective, artificial(0));
+            return true;
+        }
+
+        private void iterate(double[] target, int allowedColumns) {
+            int degenerate = 0;
+            while (true) {
+                boolean bland = degenerate >= DEGENERATE_PIVOTS_BEFORE_BLAND;
+                int entering = -1;
+                double best = -EPSILON;
+                for (int j = 0; j < allowedColumns; j++) {
+                    if (target[j] < best) {
+                        entering = j;
+                        if (bland) {
+                            break;
+                        }
+                        best = target[j];
+                    }
+                }
+                if (entering < 0) {
+                    return;
+                }
+
+                int leaving = -1;
+                double ratio = Double.POSITIVE_INFINITY;
+                for (int r = 0; r < rows.length; r++) {
+                    double coefficient = rows[r][entering];
+                    if (coefficient > EPSILON) {
+                        double candidate = rows[r][rhs] / coefficient;
+                        if (candidate < ratio || (candidate == ratio && basis[r] < basis[leaving])) {
+                            leaving = r;
+                            ratio = candidate;
+                        }
+                    }
+                }
+                if (leaving < 0) {
+                    throw new IllegalStateException("Trade plan is unbounded.");
+                }
+                degenerate = ratio <= EPSILON ? degenerate + 1 : 0;
+                pivot(leaving, entering);
+            }
+        }
+
+        private void pivot(int leaving, int entering) {
+            double[] pivotRow = rows[leaving];
+            double scale = 1 / pivotRow[entering];
+            for (int j = 0; j <= rhs; j++) {
+                pivotRow[j] *= scale;
+            }
+            pivotRow[entering] = 1;
+            if ((long) rows.length * (rhs + 1) <= CELLS_PER_TASK) {
+                eliminateRange(leaving, entering, 0, rows.length);
+            } else {
+                ForkJoinPool.commonPool().invoke(new PivotTask(this, leaving, entering, 0, rows.length));
+            }
+            eliminate(objective, pivotRow, entering);
+            eliminate(feasibility, pivotRow, entering);
+            basis[leaving] = entering;
+        }
+
+        private void eliminateRange(int leaving, int entering, int from, int to) {
+            double[] pivotRow = rows[leaving];
+            for (int r = from; r < to; r++) {
+                if (r != leaving) {
+                    eliminate(rows[r], pivotRow, entering);
+                }
+            }
+        }
+
+        private static void eliminate(double[] row, double[] pivotRow, int entering) {
+            double factor = row[entering];
+            if (factor != 0) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] -= factor * pivotRow[j];
+                }
+                row[entering] = 0;
+            }
+        }
+
+        MultiGoodPlan plan(double[] costs, double[] totals, int[] demands, double[] values) {
+            int variables = countries * goods;
+            double[] amounts = new double[variables];
+            for (int r = 0; r < basis.length; r++) {
+                if (basis[r] < variables) {
+                    amounts[basis[r]] = Math.max(0, rows[r][rhs]);
+                }
+            }
+            double value = 0;
+            for (int j = 0; j < variables; j++) {
+                value += amounts[j] * values[j % goods];
+            }
+
+            // At the optimum, z_j - c_j of each slack and surplus column is the dual price of its constraint
+            double[] resourcePrices = new double[countries];
+            for (int i = 0; i < countries; i++) {
+                resourcePrices[i] = Math.max(0, objective[variables + i]);
+            }
+            double[] prices = new double[goods];
+            for (int g = 0; g < goods; g++) {
+                prices[g] = values[g] + Math.max(0, objective[surplus(g)]);
+            }
+
+            double[] autarkyValues = new double[countries];
+            double[] gains = new double[countries];
+            for (int i = 0; i < countries; i++) {
+                double remaining = totals[i];
+                double bestRatio = 0;
+                double autarky = 0;
+                double demandValue = 0;
+                for (int g = 0; g < goods; g++) {
+                    double cost = costs[i * goods + g];
+                    int demand = demands[i * goods + g];
+                    remaining -= demand * cost;
+                    autarky += demand * values[g];
+                    demandValue += demand * prices[g];
+                    bestRatio = Math.max(bestRatio, values[g] / cost);
+                }
+                if (remaining < -EPSILON * totals[i]) {
+                    autarkyValues[i] = Double.NaN;
+                    gains[i] = Double.NaN;
+                } else {
+                    // Producers earn exactly the price of their resources, and no product is worth more than that
+                    autarkyValues[i] = autarky + Math.max(0, remaining) * bestRatio;
+                    gains[i] = Math.max(0, resourcePrices[i] * totals[i] - demandValue);
+                }
+            }
+            return new MultiGoodPlan(goods, amounts, prices, resourcePrices, autarkyValues, gains, value);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class PivotTask extends RecursiveAction {
+        private Simplex simplex;
+        private int leaving;
+        private int entering;
+        private int from;
+        private int to;
+
+        PivotTask(Simplex simplex, int leaving, int entering, int from, int to) {
+            this.simplex = simplex;
+            this.leaving = leaving;
+            this.entering = entering;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * (simplex.rhs + 1) <= CELLS_PER_TASK || to - from == 1) {
+                simplex.eliminateRange(leaving, entering, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PivotTask(simplex, leaving, entering, from, mid), new PivotTask(simplex, leaving, entering, mid, to));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package U1.PPC;
+
+/**
+ * Immutable snapshot of a trade model comparing two countries, safe to share between threads without locking.
+ * Updated snapshots are built from updated country snapshots with {@link #withCountryA(PPCSnapshot)} and
+ * {@link #withCountryB(PPCSnapshot)}.
+ */
+public final class TradeSnapshot {
+    private final PPCSnapshot countryA;
+    private final PPCSnapshot countryB;
+
+    /**
+     * Create a new trade snapshot.
+     * @param countryA Snapshot of the first country.
+     * @param countryB Snapshot of the second country.
+     */
+    public TradeSnapshot(PPCSnapshot countryA, PPCSnapshot countryB) {
+        if (!countryA.getProductA().equals(countryB.getProductA()) ||
+            !countryA.getProductB().equals(countryB.getProductB()))
+                throw new IllegalArgumentException("Attempted to create trade model using PPC models with mismatched products.");
+        this.countryA = countryA;
+        this.countryB = countryB;
+    }
+
+    // Accessor methods
+
+    public PPCSnapshot getCountryA() {
+        return countryA;
+    }
+
+    public PPCSnapshot getCountryB() {
+        return countryB;
+    }
+
+    public TradeSnapshot withCountryA(PPCSnapshot countryA) {
+        return new TradeSnapshot(countryA, countryB);
+    }
+
+    public TradeSnapshot withCountryB(PPCSnapshot countryB) {
+        return new TradeSnapshot(countryA, countryB);
+    }
+
+    /**
+     * Returns country with absolute advantage in terms of producing a certain product.
+     * Same as {@link TradeModel#absoluteAdvantage(Product)}.
+     * @param product Product to be compared.
+     * @return Snapshot of country with absolute advantage, or null if neither has one.
+     */
+    public PPCSnapshot absoluteAdvantage(Product product) {
+        if (product.equals(countryA.getProductA())) {
+            return better(countryA.getAmtA(0), countryB.getAmtA(0));
+        } else if (product.equals(countryA.getProductB())) {
+            return better(countryA.getAmtB(0), countryB.getAmtB(0));
+        }
+        return null;
+    }
+
+    /**
+     * Returns country with comparative advantage in terms of producing a certain product.
+     * Same as {@link TradeModel#comparativeAdvantage(Product)}.
+     * @param product Product to be compared.
+     * @return Snapshot of country with comparative advantage, or null if neither has one.
+     */
+    public PPCSnapshot comparativeAdvantage(Product product) {
+        double costA = countryA.getOpportunityCost(product);
+        double costB = countryB.getOpportunityCost(product);
+        if (costA < costB) {
+            return countryA;
+        } else if (costA > costB) {
+            return countryB;
+        }
+        return null;
+    }
+
+    private PPCSnapshot better(int amountA, int amountB) {
+        if (amountA > amountB) {
+            return countryA;
+        } else if (amountA < amountB) {
+            return countryB;
+        }
+        return null;
+    }
+}
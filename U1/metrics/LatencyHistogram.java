@@ -0,0 +1,118 @@
+package U1.metrics;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets, in the style of HdrHistogram.
+ * Values below {@value #SUB_BUCKETS} are counted exactly, and each larger power of two is split into
+ * {@value #HALF_SUB_BUCKETS} linear buckets, so every value is known to within about 3% in a fixed amount of memory.
+ * Values above {@link #MAX_VALUE} are recorded as MAX_VALUE.
+ * <p>
+ * A histogram is not thread-safe: threads sharing one must synchronize on it, as {@link MethodMetrics} does.
+ */
+public class LatencyHistogram {
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+
+    private long[] counts = new long[BUCKET_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Record a latency.
+     * @param nanos Latency in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Add the values recorded by another histogram to this one.
+     * @param other Histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Remove the values recorded by an earlier copy of this histogram, leaving only the values recorded since.
+     * The maximum becomes the upper end of the highest non-empty bucket.
+     * @param earlier Earlier copy of this histogram.
+     */
+    public void subtract(LatencyHistogram earlier) {
+        max = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] -= earlier.counts[i];
+            if (counts[i] > 0) {
+                max = Math.min(highestValue(i), MAX_VALUE);
+            }
+        }
+        count -= earlier.count;
+        sum -= earlier.sum;
+    }
+
+    // Accessor methods
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get the latency below which a given fraction of the recorded latencies fall.
+     * @param quantile Fraction between 0 and 1.
+     * @return Upper end of the bucket containing the quantile (never above the maximum), or 0 if nothing was recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - (long) shift * HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
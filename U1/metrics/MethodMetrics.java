@@ -0,0 +1,148 @@
+package U1.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Call count and latency histogram of one instrumented method.
+ * Threads record into a fixed number of {@link LatencyHistogram} stripes picked by a hash of the thread ID, so
+ * threads rarely contend with each other, and memory stays bounded however many threads come and go (such as one
+ * per connection of the query server). The stripes are created on first use and merged when the metrics are read.
+ * <p>
+ * Instrumented methods follow the pattern
+ * <pre>{@code
+ * long start = Metrics.start();
+ * ...
+ * METRICS.stop(start);
+ * }</pre>
+ * which compiles away entirely when {@link Metrics#ENABLED} is false.
+ */
+public class MethodMetrics implements MethodMetricsMXBean {
+    private String className;
+    private String methodName;
+    // Power of two of at least twice the number of processors, so that busy threads seldom share a stripe
+    private static final int STRIPES = Integer.highestOneBit(Math.max(1, 4 * Runtime.getRuntime().availableProcessors() - 1));
+
+    private AtomicReferenceArray<LatencyHistogram> recorders = new AtomicReferenceArray<>(STRIPES);
+    private LatencyHistogram baseline = new LatencyHistogram();
+    private long resetTime = System.nanoTime();
+
+    MethodMetrics(String className, String methodName) {
+        this.className = className;
+        this.methodName = methodName;
+    }
+
+    // Accessor methods
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * Record a completed call.
+     * @param start Value returned by {@link Metrics#start()} when the call began.
+     */
+    public void stop(long start) {
+        if (Metrics.ENABLED) {
+            long nanos = System.nanoTime() - start;
+            LatencyHistogram histogram = recorder();
+            synchronized (histogram) {
+                histogram.record(nanos);
+            }
+        }
+    }
+
+    /**
+     * Merge the histograms of all threads into one.
+     * @return Histogram of the calls recorded since the last reset.
+     */
+    public synchronized LatencyHistogram getHistogram() {
+        LatencyHistogram merged = merge();
+        merged.subtract(baseline);
+        return merged;
+    }
+
+    @Override
+    public long getCount() {
+        return getHistogram().getCount();
+    }
+
+    @Override
+    public double getCallsPerSecond() {
+        long elapsed;
+        synchronized (this) {
+            elapsed = System.nanoTime() - resetTime;
+        }
+        return elapsed == 0 ? 0 : getCount() * 1e9 / elapsed;
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return getHistogram().getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return getHistogram().getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return getHistogram().getValueAtQuantile(0.9);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return getHistogram().getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return getHistogram().getValueAtQuantile(0.999);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return getHistogram().getMax();
+    }
+
+    /**
+     * Start counting from zero again. Recording threads are not interrupted: the current counts are kept as a
+     * baseline that later reads subtract.
+     */
+    @Override
+    public synchronized void reset() {
+        baseline = merge();
+        resetTime = System.nanoTime();
+    }
+
+    private LatencyHistogram merge() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (int i = 0; i < STRIPES; i++) {
+            LatencyHistogram histogram = recorders.get(i);
+            if (histogram != null) {
+                synchronized (histogram) {
+                    merged.add(histogram);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Get the stripe of the current thread, creating it if no thread has used it yet.
+     */
+    private LatencyHistogram recorder() {
+        long id = Thread.currentThread().getId();
+        int stripe = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+        LatencyHistogram histogram = recorders.get(stripe);
+        if (histogram == null) {
+            recorders.compareAndSet(stripe, null, new LatencyHistogram());
+            histogram = recorders.get(stripe);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,25 @@
+package U1.metrics;
+
+/**
+ * Management interface through which the metrics of an instrumented method are exposed over JMX.
+ * Latencies are in nanoseconds and cover the calls recorded since the last reset.
+ */
+public interface MethodMetricsMXBean {
+    long getCount();
+
+    double getCallsPerSecond();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP90Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+
+    void reset();
+}
@@ -0,0 +1,82 @@
+package U1.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the metrics recorded by the instrumented model classes.
+ * Instrumentation is off unless the JVM is started with {@code -Du1.metrics=true}. Since {@link #ENABLED} is a
+ * constant, the JIT compiler removes the instrumentation from every method when it is off, so uninstrumented
+ * runs pay nothing for it. When it is on, the metrics of each method are registered as an MBean named
+ * {@code U1.metrics:type=<class>,name=<method>}.
+ */
+public class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("u1.metrics");
+    public static final String DOMAIN = "U1.metrics";
+
+    private static final Map<String, MethodMetrics> METHODS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Get the start time of an instrumented call.
+     * @return Current time in nanoseconds, or 0 if instrumentation is off.
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Get the metrics of a method, creating and registering them on first use.
+     * @param className Simple name of the instrumented class.
+     * @param methodName Name of the instrumented method.
+     * @return Metrics of the method.
+     */
+    public static MethodMetrics method(String className, String methodName) {
+        return METHODS.computeIfAbsent(className + "." + methodName, key -> {
+            MethodMetrics metrics = new MethodMetrics(className, methodName);
+            if (ENABLED) {
+                register(metrics);
+            }
+            return metrics;
+        });
+    }
+
+    /**
+     * Get the metrics of every method that has been instrumented so far.
+     * @return Unmodifiable view of the metrics.
+     */
+    public static Collection<MethodMetrics> methods() {
+        return Collections.unmodifiableCollection(METHODS.values());
+    }
+
+    /**
+     * Reset the metrics of every method.
+     */
+    public static void resetAll() {
+        for (MethodMetrics metrics : METHODS.values()) {
+            metrics.reset();
+        }
+    }
+
+    private static void register(MethodMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":type=" + metrics.getClassName() + ",name=" + metrics.getMethodName());
+            if (!server.isRegistered(name)) {
+                server.registerMBean(metrics, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register metrics for " + metrics.getClassName() + "."
+                    + metrics.getMethodName() + ".", e);
+        }
+    }
+}
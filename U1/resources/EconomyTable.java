@@ -0,0 +1,221 @@
+package U1.resources;
+
+/**
+ * Columnar table storing the CELL resources of many economies in primitive arrays.
+ * Each row holds the land, labor, capital and entrepreneurship of one economy, and rows can be
+ * read and modified through {@link Row} views that behave like regular {@link Resources} objects.
+ */
+public class EconomyTable {
+    private double[] land;
+    private int[] labor;
+    private double[] capital;
+    private double[] entrepreneurship;
+    private long version;
+
+    /**
+     * Create a new table with all resources set to zero.
+     * @param size Number of economies in the table.
+     */
+    public EconomyTable(int size) {
+        this.land = new double[size];
+        this.labor = new int[size];
+        this.capital = new double[size];
+        this.entrepreneurship = new double[size];
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return land.length;
+    }
+
+    public double land(int index) {
+        return land[index];
+    }
+
+    public int labor(int index) {
+        return labor[index];
+    }
+
+    public double capital(int index) {
+        return capital[index];
+    }
+
+    public double entrepreneurship(int index) {
+        return entrepreneurship[index];
+    }
+
+    /**
+     * Version of the table, incremented every time any row is modified.
+     * @return Current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the total amount of resources of a single economy, using the same formula as {@link Resources#totalAmount()}.
+     * @param index Row of the economy.
+     * @return Total amount of resources.
+     */
+    public double totalAmount(int index) {
+        return (land[index] + capital[index] + labor[index]) * entrepreneurship[index];
+    }
+
+    /**
+     * Compute the total amount of resources of a range of economies.
+     * @param from First row (inclusive).
+     * @param to Last row (exclusive).
+     * @param out Column receiving the totals, indexed by row.
+     */
+    public void totalAmount(int from, int to, double[] out) {
+        checkRange(from, to);
+        for (int i = from; i < to; i++) {
+            out[i] = (land[i] + capital[i] + labor[i]) * entrepreneurship[i];
+        }
+    }
+
+    /**
+     * Set all resources of a single economy.
+     * @param index Row of the economy.
+     */
+    public void set(int index, double land, int labor, double capital, double entrepreneurship) {
+        this.land[index] = land;
+        this.labor[index] = labor;
+        this.capital[index] = capital;
+        this.entrepreneurship[index] = entrepreneurship;
+        version++;
+    }
+
+    // Methods for modifying the resources of a range of economies (from inclusive, to exclusive)
+
+    public void addLand(int from, int to, double amount) {
+        checkRange(from, to);
+        for (int i = from; i < to; i++) {
+            land[i] += amount;
+        }
+        version++;
+    }
+
+    public void addLabor(int from, int to, int numberOfWorkers) {
+        checkRange(from, to);
+        for (int i = from; i < to; i++) {
+            labor[i] += numberOfWorkers;
+        }
+        version++;
+    }
+
+    public void addCapital(int from, int to, double amount) {
+        checkRange(from, to);
+        for (int i = from; i < to; i++) {
+            capital[i] += amount;
+        }
+        version++;
+    }
+
+    public void improveEntrepreneurship(int from, int to, double additionalAbility) {
+        checkRange(from, to);
+        for (int i = from; i < to; i++) {
+            entrepreneurship[i] += additionalAbility;
+        }
+        version++;
+    }
+
+    /**
+     * Create a view of a row of the table.
+     * The view can be moved to other rows with {@link Row#moveTo(int)} to avoid creating one object per row.
+     * @param index Row to view.
+     * @return View of the row.
+     */
+    public Row row(int index) {
+        return new Row().moveTo(index);
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Invalid row range [" + from + ", " + to + ") for table of size " + size() + ".");
+        }
+    }
+
+    /**
+     * View of a single row of an economy table.
+     * Reads and modifications go directly to the columns of the table.
+     */
+    public class Row extends Resources {
+        private int index;
+
+        private Row() {
+        }
+
+        /**
+         * Move the view to another row of the table.
+         * @param index Row to view.
+         * @return This view.
+         */
+        public Row moveTo(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Invalid row " + index + " for table of size " + size() + ".");
+            }
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public double totalLand() {
+            return land[index];
+        }
+
+        @Override
+        public int totalLabor() {
+            return labor[index];
+        }
+
+        @Override
+        public double totalCapital() {
+            return capital[index];
+        }
+
+        @Override
+        public double totalEntrepreneurship() {
+            return entrepreneurship[index];
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public double totalAmount() {
+            return EconomyTable.this.totalAmount(index);
+        }
+
+        @Override
+        public void addLand(double amount) {
+            land[index] += amount;
+            version++;
+        }
+
+        @Override
+        public void addLabor(int numberOfWorkers) {
+            labor[index] += numberOfWorkers;
+            version++;
+        }
+
+        @Override
+        public void addCapital(double amount) {
+            capital[index] += amount;
+            version++;
+        }
+
+        @Override
+        public void improveEntrepreneurship(double additionalAbility) {
+            entrepreneurship[index] += additionalAbility;
+            version++;
+        }
+    }
+}
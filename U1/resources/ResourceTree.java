@@ -0,0 +1,518 @@
+package U1.resources;
+
+/**
+ * Resources of many nested economies, such as the districts of the regions of a country, kept so that the sums over
+ * any contiguous range of leaves stay up to date as individual leaves change.
+ * <p>
+ * Leaves are numbered so that each region covers a contiguous range of them. The land, labor, capital and
+ * entrepreneurship of the leaves are kept in Fenwick trees, so modifying a leaf and summing a range both cost
+ * O(log n). {@link #leaf(int)} and {@link #range(int, int)} return views that behave like regular {@link Resources}
+ * objects and can be given to a PPC model or to {@link Scarcity#isScarce(Resources)}. The total amount of a range
+ * is the sum of the total amounts of its leaves, each (land + labor + capital) * entrepreneurship as in
+ * {@link Resources#totalAmount()}, and is kept in a fifth Fenwick tree since it cannot be derived from the other sums.
+ * <p>
+ * Ranges are read-only, and so are their copies, which keep the total amount of the range. A PPC model whose
+ * resources are a range can be queried, copied and snapshotted, but its resources cannot be changed, so
+ * {@code changeAvailableResources} and everything built on it throw {@link UnsupportedOperationException}.
+ */
+public class ResourceTree {
+    private double[] land;
+    private int[] labor;
+    private double[] capital;
+    private double[] entrepreneurship;
+
+    // Fenwick trees, where element i (from 1) holds the sum of the (i & -i) leaves ending at leaf i - 1
+    private double[] landSums;
+    private long[] laborSums;
+    private double[] capitalSums;
+    private double[] entrepreneurshipSums;
+    private double[] amountSums;
+    private long version;
+
+    /**
+     * Create a new tree with all resources set to zero.
+     * @param leaves Number of leaf economies.
+     */
+    public ResourceTree(int leaves) {
+        this.land = new double[leaves];
+        this.labor = new int[leaves];
+        this.capital = new double[leaves];
+        this.entrepreneurship = new double[leaves];
+        this.landSums = new double[leaves + 1];
+        this.laborSums = new long[leaves + 1];
+        this.capitalSums = new double[leaves + 1];
+        this.entrepreneurshipSums = new double[leaves + 1];
+        this.amountSums = new double[leaves + 1];
+    }
+
+    /**
+     * Create a tree whose leaves are the rows of an economy table, building the sums in O(n).
+     * @param table Table of the leaf economies.
+     * @return New tree, independent of the table.
+     */
+    public static ResourceTree of(EconomyTable table) {
+        int leaves = table.size();
+        ResourceTree tree = new ResourceTree(leaves);
+        for (int i = 0; i < leaves; i++) {
+            tree.land[i] = table.land(i);
+            tree.labor[i] = table.labor(i);
+            tree.capital[i] = table.capital(i);
+            tree.entrepreneurship[i] = table.entrepreneurship(i);
+            tree.landSums[i + 1] += tree.land[i];
+            tree.laborSums[i + 1] += tree.labor[i];
+            tree.capitalSums[i + 1] += tree.capital[i];
+            tree.entrepreneurshipSums[i + 1] += tree.entrepreneurship[i];
+            tree.amountSums[i + 1] += tree.amount(i);
+            // Push each completed node into its parent
+            int parent = (i + 1) + ((i + 1) & -(i + 1));
+            if (parent <= leaves) {
+                tree.landSums[parent] += tree.landSums[i + 1];
+                tree.laborSums[parent] += tree.laborSums[i + 1];
+                tree.capitalSums[parent] += tree.capitalSums[i + 1];
+                tree.entrepreneurshipSums[parent] += tree.entrepreneurshipSums[i + 1];
+                tree.amountSums[parent] += tree.amountSums[i + 1];
+            }
+        }
+        return tree;
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return land.length;
+    }
+
+    public double land(int index) {
+        return land[index];
+    }
+
+    public int labor(int index) {
+        return labor[index];
+    }
+
+    public double capital(int index) {
+        return capital[index];
+    }
+
+    public double entrepreneurship(int index) {
+        return entrepreneurship[index];
+    }
+
+    /**
+     * Version of the tree, incremented every time any leaf is modified.
+     * @return Current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    // Sums over a range of leaves (from inclusive, to exclusive)
+
+    public double land(int from, int to) {
+        checkRange(from, to);
+        return prefixSum(landSums, to) - prefixSum(landSums, from);
+    }
+
+    public long labor(int from, int to) {
+        checkRange(from, to);
+        return prefixSum(laborSums, to) - prefixSum(laborSums, from);
+    }
+
+    public double capital(int from, int to) {
+        checkRange(from, to);
+        return prefixSum(capitalSums, to) - prefixSum(capitalSums, from);
+    }
+
+    public double entrepreneurship(int from, int to) {
+        checkRange(from, to);
+        return prefixSum(entrepreneurshipSums, to) - prefixSum(entrepreneurshipSums, from);
+    }
+
+    /**
+     * Get the total amount of resources of a range of leaves, the sum of {@link Resources#totalAmount()} over
+     * the leaves.
+     * @param from First leaf (inclusive).
+     * @param to Last leaf (exclusive).
+     * @return Total amount of resources.
+     */
+    public double totalAmount(int from, int to) {
+        checkRange(from, to);
+        return prefixSum(amountSums, to) - prefixSum(amountSums, from);
+    }
+
+    /**
+     * Set all resources of a single leaf.
+     * @param index Leaf to set.
+     */
+    public void set(int index, double land, int labor, double capital, double entrepreneurship) {
+        addLand(index, land - this.land[index]);
+        addLabor(index, labor - this.labor[index]);
+        addCapital(index, capital - this.capital[index]);
+        improveEntrepreneurship(index, entrepreneurship - this.entrepreneurship[index]);
+    }
+
+    // Methods for modifying the resources of a single leaf, updating every sum containing it
+
+    public void addLand(int index, double amount) {
+        double previousAmount = amount(index);
+        land[index] += amount;
+        for (int i = index + 1; i < landSums.length; i += i & -i) {
+            landSums[i] += amount;
+        }
+        amountChanged(index, previousAmount);
+    }
+
+    public void addLabor(int index, int numberOfWorkers) {
+        double previousAmount = amount(index);
+        labor[index] += numberOfWorkers;
+        for (int i = index + 1; i < laborSums.length; i += i & -i) {
+            laborSums[i] += numberOfWorkers;
+        }
+        amountChanged(index, previousAmount);
+    }
+
+    public void addCapital(int index, double amount) {
+        double previousAmount = amount(index);
+        capital[index] += amount;
+        for (int i = index + 1; i < capitalSums.length; i += i & -i) {
+            capitalSums[i] += amount;
+        }
+        amountChanged(index, previousAmount);
+    }
+
+    public void improveEntrepreneurship(int index, double additionalAbility) {
+        double previousAmount = amount(index);
+        entrepreneurship[index] += additionalAbility;
+        for (int i = index + 1; i < entrepreneurshipSums.length; i += i & -i) {
+            entrepreneurshipSums[i] += additionalAbility;
+        }
+        amountChanged(index, previousAmount);
+    }
+
+    private double amount(int index) {
+        return (land[index] + capital[index] + labor[index]) * entrepreneurship[index];
+    }
+
+    private void amountChanged(int index, double previousAmount) {
+        double change = amount(index) - previousAmount;
+        for (int i = index + 1; i < amountSums.length; i += i & -i) {
+            amountSums[i] += change;
+        }
+        version++;
+    }
+
+    /**
+     * Create a view of a single leaf. Modifications made through the view update every sum containing the leaf.
+     * @param index Leaf to view.
+     * @return View of the leaf.
+     */
+    public Leaf leaf(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Invalid leaf " + index + " for tree of size " + size() + ".");
+        }
+        return new Leaf(index);
+    }
+
+    /**
+     * Create a read-only view of the summed resources of a range of leaves, such as a region.
+     * @param from First leaf (inclusive).
+     * @param to Last leaf (exclusive).
+     * @return View of the range.
+     */
+    public Range range(int from, int to) {
+        checkRange(from, to);
+        return new Range(from, to);
+    }
+
+    /**
+     * Create a read-only view of the summed resources of every leaf.
+     * @return View of the whole tree.
+     */
+    public Range total() {
+        return range(0, size());
+    }
+
+    private static double prefixSum(double[] sums, int end) {
+        double sum = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += sums[i];
+        }
+        return sum;
+    }
+
+    private static long prefixSum(long[] sums, int end) {
+        long sum = 0;
+        for (int i = end; i > 0; i -= i & -i) {
+            sum += sums[i];
+        }
+        return sum;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Invalid leaf range [" + from + ", " + to + ") for tree of size " + size() + ".");
+        }
+    }
+
+    /**
+     * View of a single leaf of a resource tree.
+     */
+    public class Leaf extends Resources {
+        private int index;
+
+        private Leaf(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public double totalLand() {
+            return land[index];
+        }
+
+        @Override
+        public int totalLabor() {
+            return labor[index];
+        }
+
+        @Override
+        public double totalCapital() {
+            return capital[index];
+        }
+
+        @Override
+        public double totalEntrepreneurship() {
+            return entrepreneurship[index];
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public double totalAmount() {
+            return amount(index);
+        }
+
+        /**
+         * Create an independent copy of the resources of the leaf, no longer part of the tree. A single leaf follows
+         * the formula of {@link Resources#totalAmount()}, so the copy is a regular modifiable {@link Resources}.
+         * @return New resources object with the same amounts and total amount.
+         */
+        @Override
+        public Resources copy() {
+            return new Resources(new R_Land(land[index]), new R_Labor(labor[index]), new R_Capital(capital[index]),
+                    new R_Entrepreneurship(entrepreneurship[index]));
+        }
+
+        @Override
+        public void addLand(double amount) {
+            ResourceTree.this.addLand(index, amount);
+        }
+
+        @Override
+        public void addLabor(int numberOfWorkers) {
+            ResourceTree.this.addLabor(index, numberOfWorkers);
+        }
+
+        @Override
+        public void addCapital(double amount) {
+            ResourceTree.this.addCapital(index, amount);
+        }
+
+        @Override
+        public void improveEntrepreneurship(double additionalAbility) {
+            ResourceTree.this.improveEntrepreneurship(index, additionalAbility);
+        }
+    }
+
+    /**
+     * Read-only view of the summed resources of a range of leaves. The sums are cached until the tree changes.
+     * Resources cannot be added to a range, since it is not known which leaves they would belong to.
+     */
+    public class Range extends Resources {
+        private int from;
+        private int to;
+        private long cachedVersion = -1;
+        private double cachedLand;
+        private long cachedLabor;
+        private double cachedCapital;
+        private double cachedEntrepreneurship;
+        private double cachedAmount;
+
+        private Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        private void update() {
+            if (cachedVersion != version) {
+                cachedLand = land(from, to);
+                cachedLabor = labor(from, to);
+                cachedCapital = capital(from, to);
+                cachedEntrepreneurship = entrepreneurship(from, to);
+                cachedAmount = ResourceTree.this.totalAmount(from, to);
+                cachedVersion = version;
+            }
+        }
+
+        @Override
+        public double totalLand() {
+            update();
+            return cachedLand;
+        }
+
+        /**
+         * @throws ArithmeticException If the summed labor does not fit in an int; use {@link ResourceTree#labor(int, int)}.
+         */
+        @Override
+        public int totalLabor() {
+            update();
+            return Math.toIntExact(cachedLabor);
+        }
+
+        @Override
+        public double totalCapital() {
+            update();
+            return cachedCapital;
+        }
+
+        @Override
+        public double totalEntrepreneurship() {
+            update();
+            return cachedEntrepreneurship;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public double totalAmount() {
+            update();
+            return cachedAmount;
+        }
+
+        /**
+         * Create a read-only copy of the current sums of the range, unaffected by later changes to the tree.
+         * The copy keeps the total amount of the range rather than applying the formula of
+         * {@link Resources#totalAmount()} to the sums.
+         * @return Frozen copy of the range.
+         */
+        @Override
+        public Resources copy() {
+            update();
+            return new RangeCopy(cachedLand, cachedLabor, cachedCapital, cachedEntrepreneurship, cachedAmount);
+        }
+
+        @Override
+        public void addLand(double amount) {
+            throw new UnsupportedOperationException("Attempted to add land to a range of a resource tree.");
+        }
+
+        @Override
+        public void addLabor(int numberOfWorkers) {
+            throw new UnsupportedOperationException("Attempted to add labor to a range of a resource tree.");
+        }
+
+        @Override
+        public void addCapital(double amount) {
+            throw new UnsupportedOperationException("Attempted to add capital to a range of a resource tree.");
+        }
+
+        @Override
+        public void improveEntrepreneurship(double additionalAbility) {
+            throw new UnsupportedOperationException("Attempted to improve entrepreneurship of a range of a resource tree.");
+        }
+    }
+
+    /**
+     * Frozen sums of a range of leaves, as returned by {@link Range#copy()}.
+     */
+    private static class RangeCopy extends Resources {
+        private double land;
+        private long labor;
+        private double capital;
+        private double entrepreneurship;
+        private double amount;
+
+        private RangeCopy(double land, long labor, double capital, double entrepreneurship, double amount) {
+            this.land = land;
+            this.labor = labor;
+            this.capital = capital;
+            this.entrepreneurship = entrepreneurship;
+            this.amount = amount;
+        }
+
+        @Override
+        public double totalLand() {
+            return land;
+        }
+
+        /**
+         * @throws ArithmeticException If the summed labor does not fit in an int.
+         */
+        @Override
+        public int totalLabor() {
+            return Math.toIntExact(labor);
+        }
+
+        @Override
+        public double totalCapital() {
+            return capital;
+        }
+
+        @Override
+        public double totalEntrepreneurship() {
+            return entrepreneurship;
+        }
+
+        @Override
+        public long getVersion() {
+            return 0;
+        }
+
+        @Override
+        public Resources copy() {
+            return this;
+        }
+
+        @Override
+        public double totalAmount() {
+            return amount;
+        }
+
+        @Override
+        public void addLand(double amount) {
+            throw new UnsupportedOperationException("Attempted to add land to a copy of a range of a resource tree.");
+        }
+
+        @Override
+        public void addLabor(int numberOfWorkers) {
+            throw new UnsupportedOperationException("Attempted to add labor to a copy of a range of a resource tree.");
+        }
+
+        @Override
+        public void addCapital(double amount) {
+            throw new UnsupportedOperationException("Attempted to add capital to a copy of a range of a resource tree.");
+        }
+
+        @Override
+        public void improveEntrepreneurship(double additionalAbility) {
+            throw new UnsupportedOperationException("Attempted to improve entrepreneurship of a copy of a range of a resource tree.");
+        }
+    }
+}
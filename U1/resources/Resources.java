@@ -2,13 +2,17 @@ package U1.resources;
 
 /**
  * Class to store total amount of resources available in an economy using
- * CELL (land, labor, capital, entrepreneurship) model
+ * CELL (land, labor, capital, entrepreneurship) model.
+ * The total amount is cached and only recomputed after one of the modifier methods changes the version.
  */
 public class Resources {
     private R_Land land;
     private R_Labor labor;
     private R_Capital capital;
     private R_Entrepreneurship entrepreneurship;
+    private long version;
+    private long cachedTotalVersion = -1;
+    private double cachedTotal;
 
     public Resources(R_Land land, R_Labor labor, R_Capital capital, R_Entrepreneurship entrepreneurship) {
         this.land = land;
@@ -17,6 +21,12 @@ public class Resources {
         this.entrepreneurship = entrepreneurship;
     }
 
+    /**
+     * Constructor for views that store their resources elsewhere and override every accessor and modifier.
+     */
+    Resources() {
+    }
+
     // Accessor methods for various resource types
 
     public double totalLand() {
@@ -35,26 +45,51 @@ public class Resources {
         return entrepreneurship.getAbility();
     }
 
+    /**
+     * Version of the resources, incremented every time the amount of resources is modified.
+     * @return Current version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Create an independent copy of the resources currently available.
+     * @return New resources object with the same amounts.
+     */
+    public Resources copy() {
+        return new Resources(new R_Land(totalLand()), new R_Labor(totalLabor()), new R_Capital(totalCapital()),
+                new R_Entrepreneurship(totalEntrepreneurship()));
+    }
+
     // Arbitrary calculation - probably not accurate
     public double totalAmount() {
-        return (totalLand() + totalCapital() + totalLabor()) * totalEntrepreneurship(); 
+        if (cachedTotalVersion != version) {
+            cachedTotal = (totalLand() + totalCapital() + totalLabor()) * totalEntrepreneurship();
+            cachedTotalVersion = version;
+        }
+        return cachedTotal;
     }
 
     // Methods for modifying the amount of resources available
 
     public void addLand(double amount) {
         land.addAmount(amount);
+        version++;
     }
 
     public void addLabor(int numberOfWorkers) {
         labor.addWorkers(numberOfWorkers);
+        version++;
     }
 
     public void addCapital(double amount) {
         capital.addAmount(amount);
+        version++;
     }
 
     public void improveEntrepreneurship(double additionalAbility) {
         entrepreneurship.increaseAbility(additionalAbility);
+        version++;
     }
 }
@@ -0,0 +1,72 @@
+package U1.supplyDemand;
+
+import U1.PPC.Product;
+
+/**
+ * Curve with the same price elasticity at every point, quantity = scale * price ^ elasticity.
+ * Demand curves have a negative elasticity and supply curves a positive one. Both directions of lookup are
+ * closed-form, and shifts are kept as an offset added to every price.
+ */
+public class ConstantElasticityCurve implements Curve {
+    private Product product;
+    private double scale;
+    private double elasticity;
+    private double inverseElasticity;
+    private double offset;
+
+    /**
+     * Create a constant-elasticity curve.
+     * @param product Product traded.
+     * @param scale Quantity traded at a price of one (positive).
+     * @param elasticity Price elasticity (nonzero).
+     */
+    public ConstantElasticityCurve(Product product, double scale, double elasticity) {
+        if (!(scale > 0) || elasticity == 0 || Double.isNaN(elasticity)) {
+            throw new IllegalArgumentException("A constant-elasticity curve needs a positive scale and a nonzero elasticity.");
+        }
+        this.product = product;
+        this.scale = scale;
+        this.elasticity = elasticity;
+        this.inverseElasticity = 1 / elasticity;
+    }
+
+    // Accessor methods
+
+    @Override
+    public Product getProduct() {
+        return product;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getElasticity() {
+        return elasticity;
+    }
+
+    public double getOffset() {
+        return offset;
+    }
+
+    @Override
+    public double getPriceGivenQuantity(int quantity) {
+        return Math.pow(quantity / scale, inverseElasticity) + offset;
+    }
+
+    /**
+     * Get the quantity traded at a certain price. At or below the shifted zero price, demand is unbounded
+     * (reported as Integer.MAX_VALUE) and supply is zero.
+     * @param price Price of good.
+     * @return Quantity at the given price.
+     */
+    @Override
+    public int invertPrice(double price) {
+        return (int) (scale * Math.pow(Math.max(0, price - offset), elasticity));
+    }
+
+    @Override
+    public void shift(double shiftAmount) {
+        offset += shiftAmount;
+    }
+}
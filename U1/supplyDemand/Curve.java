@@ -0,0 +1,35 @@
+package U1.supplyDemand;
+
+import U1.PPC.Product;
+
+/**
+ * Supply or demand curve relating the price of a product to the quantity traded.
+ * Implemented by the linear {@link SupplyCurve} and {@link DemandCurve} as well as by
+ * {@link PiecewiseLinearCurve} and {@link ConstantElasticityCurve}.
+ */
+public interface Curve {
+    Product getProduct();
+
+    /**
+     * Get the price of the product at a certain quantity.
+     * @param quantity Quantity traded.
+     * @return Price at the given quantity.
+     */
+    double getPriceGivenQuantity(int quantity);
+
+    /**
+     * Invert {@link #getPriceGivenQuantity(int)}: get the quantity at which the curve reaches a certain price,
+     * truncated to whole units and never negative. This is the one convention every implementation follows.
+     * The linear curves' older {@link SupplyCurve#getQsGivenP(double)} and {@link DemandCurve#getQdGivenP(double)}
+     * compute (intercept - price) / slope instead and are not this inverse.
+     * @param price Price of good.
+     * @return Quantity at the given price.
+     */
+    int invertPrice(double price);
+
+    /**
+     * Shift the curve by a certain amount, moving every price by that amount.
+     * @param shiftAmount Amount by which to shift curve. Increase shifts curve rightward.
+     */
+    void shift(double shiftAmount);
+}
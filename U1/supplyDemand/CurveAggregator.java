@@ -0,0 +1,387 @@
+package U1.supplyDemand;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Horizontal sum of many linear supply and demand curves, such as household demand curves summed into market demand.
+ * <p>
+ * Each curve contributes {@link Curve#invertPrice(double)} before truncation, (price - intercept) / slope, until that
+ * reaches zero at its choke price (the intercept), after which it contributes nothing. The choke prices are kept
+ * sorted together with prefix sums of intercept / slope and 1 / slope, so the total quantity at any price is a
+ * binary search followed by one multiply-add. Curves with a positive slope (supply) contribute above their choke
+ * price and curves with a negative slope (demand) below it, so the two are kept apart.
+ * <p>
+ * Added and removed curves are held in a small pending buffer that every lookup also scans, and are merged into the
+ * sorted arrays once the buffer grows past about the square root of the number of curves. The intercept and slope
+ * of each curve are read when it is added; use {@link #update(SupplyCurve)} or {@link #update(DemandCurve)} after
+ * shifting a curve.
+ */
+public class CurveAggregator {
+    private static final int MIN_PENDING = 64;
+
+    private IdentityHashMap<Curve, double[]> terms = new IdentityHashMap<>();
+    private Side positiveSlopes = new Side(false);
+    private Side negativeSlopes = new Side(true);
+
+    /**
+     * Add a supply curve to the sum.
+     * @param curve Curve to add, not already in the sum.
+     */
+    public void add(SupplyCurve curve) {
+        add(curve, curve.getIntercept(), curve.getSlope());
+    }
+
+    /**
+     * Add a demand curve to the sum.
+     * @param curve Curve to add, not already in the sum.
+     */
+    public void add(DemandCurve curve) {
+        add(curve, curve.getIntercept(), curve.getSlope());
+    }
+
+    /**
+     * Remove a curve from the sum.
+     * @param curve Curve previously added.
+     */
+    public void remove(Curve curve) {
+        double[] removed = terms.remove(curve);
+        if (removed == null) {
+            throw new IllegalArgumentException("Attempted to remove a curve that is not part of the sum.");
+        }
+        side(removed[1]).remove(curve, removed[0], removed[1]);
+    }
+
+    /**
+     * Re-read the intercept and slope of a supply curve in the sum, after it has been shifted.
+     * @param curve Curve previously added.
+     */
+    public void update(SupplyCurve curve) {
+        remove(curve);
+        add(curve);
+    }
+
+    /**
+     * Re-read the intercept and slope of a demand curve in the sum, after it has been shifted.
+     * @param curve Curve previously added.
+     */
+    public void update(DemandCurve curve) {
+        remove(curve);
+        add(curve);
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * Get the total quantity of all curves at a certain price, the sum of {@link Curve#invertPrice(double)} over the
+     * curves. Quantities are summed before truncation, so the result can exceed that sum by less than one per curve.
+     * @param price Price of good.
+     * @return Total quantity at the given price.
+     */
+    public double invertPrice(double price) {
+        return positiveSlopes.quantity(price) + negativeSlopes.quantity(price);
+    }
+
+    private void add(Curve curve, double intercept, double slope) {
+        if (slope == 0 || Double.isNaN(slope)) {
+            throw new IllegalArgumentException("Attempted to add a curve with a slope of zero.");
+        }
+        if (terms.containsKey(curve)) {
+            throw new IllegalArgumentException("Attempted to add a curve that is already part of the sum.");
+        }
+        terms.put(curve, new double[] {intercept, slope});
+        side(slope).add(curve, intercept, slope);
+    }
+
+    private Side side(double slope) {
+        return slope > 0 ? positiveSlopes : negativeSlopes;
+    }
+
+    /**
+     * Curves whose slopes share a sign, sorted by choke price, with a buffer of unmerged additions and removals.
+     */
+    private static class Side {
+        private boolean activeBelowChoke;
+
+        private int size;
+        private Entries entries = new Entries(0);
+        // Spare arrays that the next merge writes into, so that merging does not allocate once the sum stops growing
+        private Entries spare = new Entries(0);
+
+        private int pendingCount;
+        private Curve[] pendingCurves = new Curve[MIN_PENDING];
+        private double[] pendingChokes = new double[MIN_PENDING];
+        private double[] pendingInterceptTerms = new double[MIN_PENDING];
+        private double[] pendingSlopeTerms = new double[MIN_PENDING];
+        private boolean[] pendingRemovals = new boolean[MIN_PENDING];
+        // Pending entries left after additions and removals of the same curve cancel, filled in by each merge
+        private int[] additions = new int[MIN_PENDING];
+        private int[] removals = new int[MIN_PENDING];
+
+        Side(boolean activeBelowChoke) {
+            this.activeBelowChoke = activeBelowChoke;
+        }
+
+        void add(Curve curve, double intercept, double slope) {
+            addPending(curve, intercept, intercept / slope, 1 / slope, false);
+        }
+
+        void remove(Curve curve, double intercept, double slope) {
+            // A removal is a pending entry that cancels the curve's contribution until the next merge
+            addPending(curve, intercept, -(intercept / slope), -(1 / slope), true);
+        }
+
+        double quantity(double price) {
+            Entries entries = this.entries;
+            double interceptTerms;
+            double slopeTerms;
+            if (activeBelowChoke) {
+                int first = upperBound(price);
+                interceptTerms = entries.prefixInterceptTerms[size] - entries.prefixInterceptTerms[first];
+                slopeTerms = entries.prefixSlopeTerms[size] - entries.prefixSlopeTerms[first];
+            } else {
+                int end = lowerBound(price);
+                interceptTerms = entries.prefixInterceptTerms[end];
+                slopeTerms = entries.prefixSlopeTerms[end];
+            }
+            for (int i = 0; i < pendingCount; i++) {
+                if (activeBelowChoke ? price < pendingChokes[i] : price > pendingChokes[i]) {
+                    interceptTerms += pendingInterceptTerms[i];
+                    slopeTerms += pendingSlopeTerms[i];
+                }
+            }
+            return Math.max(0, price * slopeTerms - interceptTerms);
+        }
+
+        /**
+         * @return Index of the first choke price greater than the given price.
+         */
+        private int upperBound(double price) {
+            double[] chokes = entries.chokes;
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (chokes[mid] <= price) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return Index of the first choke price greater than or equal to the given price.
+         */
+        private int lowerBound(double price) {
+            double[] chokes = entries.chokes;
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (chokes[mid] < price) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void addPending(Curve curve, double choke, double interceptTerm, double slopeTerm,
+                boolean removal) {
+            if (pendingCount == pendingCurves.length) {
+                merge();
+            }
+            pendingCurves[pendingCount] = curve;
+            pendingChokes[pendingCount] = choke;
+            pendingInterceptTerms[pendingCount] = interceptTerm;
+            pendingSlopeTerms[pendingCount] = slopeTerm;
+            pendingRemovals[pendingCount] = removal;
+            pendingCount++;
+        }
+
+        /**
+         * Merge the pending buffer into the sorted arrays, dropping removed curves, and resize the buffer to about
+         * the square root of the number of curves.
+         */
+        private void merge() {
+            // Net effect of the buffer per curve: an addition, a removal, or nothing if they cancel. A curve's entries
+            // alternate between additions and removals, so an addition is cancelled by any later removal of the
+            // curve and a removal by any earlier addition. The buffer holds about the square root of the number of
+            // curves, so these quadratic scans cost about as much as the copy below.
+            int additionCount = 0;
+            int removalCount = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                if (pendingRemovals[i]) {
+                    if (!pendingEarlier(i, false)) {
+                        removals[removalCount++] = i;
+                    }
+                } else if (!pendingLater(i, true)) {
+                    additions[additionCount++] = i;
+                }
+            }
+            sortByChoke(additions, additionCount);
+            // Removed curves are found by their choke price, and only compared by identity among equal chokes
+            for (int i = 0; i < removalCount; i++) {
+                Curve curve = pendingCurves[removals[i]];
+                int index = lowerBound(pendingChokes[removals[i]]);
+                while (entries.curves[index] != curve) {
+                    index++;
+                }
+                removals[i] = index;
+            }
+            sortAscending(removals, removalCount);
+
+            // Copy the runs between removals and insertions in bulk, then sum the terms again
+            int merged = size - removalCount + additionCount;
+            Entries from = entries;
+            Entries to = spare.capacity() >= merged ? spare : new Entries(merged + (merged >> 3));
+            int existing = 0;
+            int next = 0;
+            int addition = 0;
+            int removal = 0;
+            while (true) {
+                int nextRemoval = removal < removalCount ? removals[removal] : size;
+                int nextAddition = addition < additionCount ? upperBound(pendingChokes[additions[addition]]) : size;
+                int end = Math.min(nextRemoval, nextAddition);
+                to.copy(next, from, existing, end - existing);
+                next += end - existing;
+                existing = end;
+                if (addition < additionCount && nextAddition <= nextRemoval) {
+                    int pending = additions[addition++];
+                    to.set(next++, pendingChokes[pending], pendingCurves[pending],
+                            pendingInterceptTerms[pending], pendingSlopeTerms[pending]);
+                } else if (removal < removalCount) {
+                    existing++;
+                    removal++;
+                } else {
+                    break;
+                }
+            }
+            to.sumTerms(merged);
+            // The old arrays become the spare, without holding on to removed curves
+            Arrays.fill(from.curves, 0, size, null);
+            size = merged;
+            entries = to;
+            spare = from;
+
+            int capacity = Math.max(MIN_PENDING, (int) Math.sqrt(size));
+            pendingCount = 0;
+            if (capacity > pendingCurves.length) {
+                pendingCurves = new Curve[capacity];
+                pendingChokes = new double[capacity];
+                pendingInterceptTerms = new double[capacity];
+                pendingSlopeTerms = new double[capacity];
+                pendingRemovals = new boolean[capacity];
+                additions = new int[capacity];
+                removals = new int[capacity];
+            } else {
+                Arrays.fill(pendingCurves, null);
+            }
+        }
+
+        /**
+         * @return Whether a pending entry after the given one is for the same curve and of the given kind.
+         */
+        private boolean pendingLater(int pending, boolean removal) {
+            for (int i = pending + 1; i < pendingCount; i++) {
+                if (pendingCurves[i] == pendingCurves[pending] && pendingRemovals[i] == removal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return Whether a pending entry before the given one is for the same curve and of the given kind.
+         */
+        private boolean pendingEarlier(int pending, boolean removal) {
+            for (int i = 0; i < pending; i++) {
+                if (pendingCurves[i] == pendingCurves[pending] && pendingRemovals[i] == removal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Insertion sort of pending entries by choke price, which is quadratic like the scans in {@link #merge()}
+         * but needs no boxing or comparator.
+         */
+        private void sortByChoke(int[] pending, int count) {
+            for (int i = 1; i < count; i++) {
+                int value = pending[i];
+                int j = i - 1;
+                while (j >= 0 && pendingChokes[pending[j]] > pendingChokes[value]) {
+                    pending[j + 1] = pending[j];
+                    j--;
+                }
+                pending[j + 1] = value;
+            }
+        }
+
+        private static void sortAscending(int[] values, int count) {
+            for (int i = 1; i < count; i++) {
+                int value = values[i];
+                int j = i - 1;
+                while (j >= 0 && values[j] > value) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Sorted curves with their terms and the prefix sums of those terms, where prefixInterceptTerms[i] is the sum of
+     * intercept / slope over the first i curves. Terms are kept per curve so that merges never recover them from
+     * differences of prefix sums.
+     */
+    private static class Entries {
+        private double[] chokes;
+        private Curve[] curves;
+        private double[] interceptTerms;
+        private double[] slopeTerms;
+        private double[] prefixInterceptTerms;
+        private double[] prefixSlopeTerms;
+
+        Entries(int capacity) {
+            this.chokes = new double[capacity];
+            this.curves = new Curve[capacity];
+            this.interceptTerms = new double[capacity];
+            this.slopeTerms = new double[capacity];
+            this.prefixInterceptTerms = new double[capacity + 1];
+            this.prefixSlopeTerms = new double[capacity + 1];
+        }
+
+        int capacity() {
+            return chokes.length;
+        }
+
+        void set(int i, double choke, Curve curve, double interceptTerm, double slopeTerm) {
+            chokes[i] = choke;
+            curves[i] = curve;
+            interceptTerms[i] = interceptTerm;
+            slopeTerms[i] = slopeTerm;
+        }
+
+        void copy(int i, Entries from, int fromIndex, int length) {
+            System.arraycopy(from.chokes, fromIndex, chokes, i, length);
+            System.arraycopy(from.curves, fromIndex, curves, i, length);
+            System.arraycopy(from.interceptTerms, fromIndex, interceptTerms, i, length);
+            System.arraycopy(from.slopeTerms, fromIndex, slopeTerms, i, length);
+        }
+
+        void sumTerms(int size) {
+            for (int i = 0; i < size; i++) {
+                prefixInterceptTerms[i + 1] = prefixInterceptTerms[i] + interceptTerms[i];
+                prefixSlopeTerms[i + 1] = prefixSlopeTerms[i] + slopeTerms[i];
+            }
+        }
+    }
+}
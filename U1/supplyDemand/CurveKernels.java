@@ -0,0 +1,115 @@
+package U1.supplyDemand;
+
+/**
+ * Bulk versions of the lookups of {@link SupplyCurve}, {@link DemandCurve} and
+ * {@link SupplyDemandModel#getEconomicStateGivenP(double)} over arrays of quantities or prices, using the same
+ * intercept and slope conventions. Element i of each output matches the single-value method applied to element i
+ * of the input, including the truncation and clamping of quantities.
+ * <p>
+ * When the incubating jdk.incubator.vector module is present (run with --add-modules jdk.incubator.vector), the
+ * loops use SIMD kernels; otherwise, or with -Du1.kernels.scalar=true, they are plain loops.
+ */
+public class CurveKernels {
+    static final boolean VECTORIZED = !Boolean.getBoolean("u1.kernels.scalar")
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private CurveKernels() {
+    }
+
+    /**
+     * Get the price at each of a set of quantities, as {@link SupplyCurve#getPgivenQs(int)} and
+     * {@link DemandCurve#getPGivenQd(int)} do.
+     * @param intercept Intercept of the curve.
+     * @param slope Slope of the curve.
+     * @param quantities Quantities to look up.
+     * @param priceOut Array receiving the prices.
+     */
+    public static void pricesGivenQuantities(double intercept, double slope, int[] quantities, double[] priceOut) {
+        checkLengths(quantities.length, priceOut.length);
+        int from = VECTORIZED ? VectorCurveKernels.pricesGivenQuantities(intercept, slope, quantities, priceOut) : 0;
+        for (int i = from; i < quantities.length; i++) {
+            priceOut[i] = intercept + (slope * quantities[i]);
+        }
+    }
+
+    /**
+     * Get the quantity at each of a set of prices, as {@link SupplyCurve#getQsGivenP(double)} and
+     * {@link DemandCurve#getQdGivenP(double)} do.
+     * @param intercept Intercept of the curve.
+     * @param slope Slope of the curve.
+     * @param prices Prices to look up.
+     * @param quantityOut Array receiving the quantities.
+     */
+    public static void quantitiesGivenPrices(double intercept, double slope, double[] prices, int[] quantityOut) {
+        checkLengths(prices.length, quantityOut.length);
+        int from = VECTORIZED ? VectorCurveKernels.quantitiesGivenPrices(intercept, slope, prices, quantityOut) : 0;
+        for (int i = from; i < prices.length; i++) {
+            quantityOut[i] = quantity(intercept, slope, prices[i]);
+        }
+    }
+
+    /**
+     * Get the state of a market at each of a set of prices, as {@link SupplyDemandModel#getEconomicStateGivenP(double)}
+     * does. States are written as the ordinal of {@link SupplyDemandModel.SupplyDemandState}.
+     * @param supplyIntercept Intercept of the supply curve.
+     * @param supplySlope Slope of the supply curve.
+     * @param demandIntercept Intercept of the demand curve.
+     * @param demandSlope Slope of the demand curve.
+     * @param prices Prices to look up.
+     * @param stateOut Array receiving the ordinals of the states.
+     */
+    public static void statesGivenPrices(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope,
+            double[] prices, byte[] stateOut) {
+        checkLengths(prices.length, stateOut.length);
+        statesGivenPrices(supplyIntercept, supplySlope, demandIntercept, demandSlope, prices, 0, stateOut, 0, prices.length);
+    }
+
+    /**
+     * Get the state of a market at each of a run of prices in an array, as
+     * {@link #statesGivenPrices(double, double, double, double, double[], byte[])} does, so that a large array can
+     * be evaluated piece by piece without copying it.
+     * @param supplyIntercept Intercept of the supply curve.
+     * @param supplySlope Slope of the supply curve.
+     * @param demandIntercept Intercept of the demand curve.
+     * @param demandSlope Slope of the demand curve.
+     * @param prices Array holding the prices to look up.
+     * @param priceOffset Index of the first price to look up.
+     * @param stateOut Array receiving the ordinals of the states.
+     * @param stateOffset Index at which the state of the first price is written.
+     * @param length Number of prices to look up.
+     */
+    public static void statesGivenPrices(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope,
+            double[] prices, int priceOffset, byte[] stateOut, int stateOffset, int length) {
+        checkRange(prices.length, priceOffset, length);
+        checkRange(stateOut.length, stateOffset, length);
+        int done = VECTORIZED
+                ? VectorCurveKernels.statesGivenPrices(supplyIntercept, supplySlope, demandIntercept, demandSlope,
+                        prices, priceOffset, stateOut, stateOffset, length)
+                : 0;
+        byte surplus = (byte) SupplyDemandModel.SupplyDemandState.SURPLUS.ordinal();
+        byte shortage = (byte) SupplyDemandModel.SupplyDemandState.SHORTAGE.ordinal();
+        byte equilibrium = (byte) SupplyDemandModel.SupplyDemandState.EQUILIBRIUM.ordinal();
+        for (int i = done; i < length; i++) {
+            double price = prices[priceOffset + i];
+            int supplied = quantity(supplyIntercept, supplySlope, price);
+            int demanded = quantity(demandIntercept, demandSlope, price);
+            stateOut[stateOffset + i] = supplied > demanded ? surplus : supplied < demanded ? shortage : equilibrium;
+        }
+    }
+
+    private static int quantity(double intercept, double slope, double price) {
+        return (int) Math.max(0, (intercept - price) / slope);
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IllegalArgumentException("Attempted to evaluate a curve over a range outside of an array.");
+        }
+    }
+
+    private static void checkLengths(int inputLength, int outputLength) {
+        if (inputLength != outputLength) {
+            throw new IllegalArgumentException("Attempted to evaluate a curve into an output array of mismatched length.");
+        }
+    }
+}
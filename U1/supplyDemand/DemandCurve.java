@@ -1,14 +1,21 @@
 package U1.supplyDemand;
 
+import java.util.Arrays;
+
 import U1.PPC.Product;
+import U1.metrics.MethodMetrics;
+import U1.metrics.Metrics;
 
 /**
  * Model for a linear demand curve in an economy.
  */
-public class DemandCurve {
+public class DemandCurve implements Curve {
+    private static final MethodMetrics SHIFT_DEMAND_CURVE = Metrics.method("DemandCurve", "shiftDemandCurve");
+
     private Product product;
     private double intercept; 
     private double slope; 
+    private SupplyDemandModel[] models = new SupplyDemandModel[0];
     private boolean isInferiorGood; 
 
     /**
@@ -26,6 +33,7 @@ public class DemandCurve {
 
     // Accessor methods
 
+    @Override
     public Product getProduct() {
         return product;
     }
@@ -60,12 +68,109 @@ public class DemandCurve {
         return (int) Math.max(0, (intercept - price) / slope); 
     }
 
+    /**
+     * Get the price of the product at each of a set of quantities, as {@link #getPGivenQd(int)} does.
+     * @param quantities Quantities demanded.
+     * @param priceOut Array receiving the prices.
+     */
+    public void getPGivenQd(int[] quantities, double[] priceOut) {
+        CurveKernels.pricesGivenQuantities(intercept, slope, quantities, priceOut);
+    }
+
+    /**
+     * Get the quantity of the product demanded at each of a set of prices, as {@link #getQdGivenP(double)} does.
+     * @param prices Prices of good.
+     * @param quantityOut Array receiving the quantities.
+     */
+    public void getQdGivenP(double[] prices, int[] quantityOut) {
+        CurveKernels.quantitiesGivenPrices(intercept, slope, prices, quantityOut);
+    }
+
+    @Override
+    public double getPriceGivenQuantity(int quantity) {
+        return getPGivenQd(quantity);
+    }
+
+    /**
+     * Get the quantity at a certain price by inverting {@link #getPriceGivenQuantity(int)}, as the other
+     * {@link Curve} implementations do. Unlike {@link #getQdGivenP(double)}, which keeps the original
+     * (intercept - price) / slope form, this returns (price - intercept) / slope, truncated and never negative.
+     * @param price Price of good.
+     * @return Quantity at the given price.
+     */
+    @Override
+    public int invertPrice(double price) {
+        return (int) Math.max(0, (price - intercept) / slope);
+    }
+
+    @Override
+    public void shift(double shiftAmount) {
+        shiftDemandCurve(shiftAmount);
+    }
+
+    /**
+     * Set the intercept directly, used to restore a curve from a checkpoint.
+     * @param intercept New intercept.
+     */
+    void setIntercept(double intercept) {
+        this.intercept = intercept;
+        interceptChanged();
+    }
+
+    /**
+     * Replace every parameter of the curve, used to point a reusable curve at another market.
+     * @param product Product traded.
+     * @param intercept New intercept.
+     * @param slope New slope.
+     * @param isInferiorGood Whether the demanded good is an inferior good.
+     */
+    void set(Product product, double intercept, double slope, boolean isInferiorGood) {
+        this.product = product;
+        this.slope = slope;
+        this.isInferiorGood = isInferiorGood;
+        setIntercept(intercept);
+    }
+
+    /**
+     * Start notifying a model whenever the intercept changes, used by models that keep their equilibrium up to date.
+     * @param model Model to notify.
+     */
+    void addModel(SupplyDemandModel model) {
+        models = Arrays.copyOf(models, models.length + 1);
+        models[models.length - 1] = model;
+    }
+
+    /**
+     * Stop notifying a model when the intercept changes.
+     * @param model Model to stop notifying.
+     */
+    void removeModel(SupplyDemandModel model) {
+        for (int i = 0; i < models.length; i++) {
+            if (models[i] == model) {
+                SupplyDemandModel[] remaining = new SupplyDemandModel[models.length - 1];
+                System.arraycopy(models, 0, remaining, 0, i);
+                System.arraycopy(models, i + 1, remaining, i, remaining.length - i);
+                models = remaining;
+                return;
+            }
+        }
+    }
+
+    private void interceptChanged() {
+        for (SupplyDemandModel model : models) {
+            model.curveShifted();
+        }
+    }
+
     /**
      * Shift demand curve by a certain amount. 
      * @param shiftAmount Amount by which to shift curve. Increase shifts curve rightward.
      */
     public void shiftDemandCurve(double shiftAmount) {
+        long start = Metrics.start();
         intercept += shiftAmount; 
+        interceptChanged();
+        SHIFT_DEMAND_CURVE.stop(start);
     }
 
     /**
@@ -0,0 +1,75 @@
+package U1.supplyDemand;
+
+/**
+ * Accumulates shifts of a demand curve from many producer threads without contention.
+ * The shift methods mirror those of {@link DemandCurve}, including the reversed effect of consumer income
+ * on inferior goods. The curve should only be read through this accumulator, or after calling {@link #flush()}
+ * from the reading thread.
+ */
+public class DemandShockAccumulator extends ShockAccumulator {
+    private DemandCurve curve;
+
+    /**
+     * Create a new accumulator for a demand curve.
+     * @param curve Curve to which the shifts are applied.
+     */
+    public DemandShockAccumulator(DemandCurve curve) {
+        this.curve = curve;
+    }
+
+    @Override
+    protected void apply(double shiftAmount) {
+        curve.shiftDemandCurve(shiftAmount);
+    }
+
+    // Methods for reading the curve once pending shifts are applied
+
+    public synchronized double getIntercept() {
+        flush();
+        return curve.getIntercept();
+    }
+
+    public synchronized double getPGivenQd(int quantity) {
+        flush();
+        return curve.getPGivenQd(quantity);
+    }
+
+    public synchronized int getQdGivenP(double price) {
+        flush();
+        return curve.getQdGivenP(price);
+    }
+
+    // Methods for recording shifts, with the same effect as the corresponding methods of DemandCurve
+
+    public void shiftDemandCurve(double shiftAmount) {
+        shift(shiftAmount);
+    }
+
+    public void increasePreferenceForProduct(double change) {
+        shift(change);
+    }
+
+    public void increaseMarketSize(int change) {
+        shift((double) change);
+    }
+
+    public void increaseComplementaryGoodPrice(double change) {
+        shift(-change);
+    }
+
+    public void increaseSubstituteGoodPrice(double change) {
+        shift(change);
+    }
+
+    public void increaseConsumerIncome(double change) {
+        if (curve.isInferiorGood()) {
+            shift(-change);
+        } else {
+            shift(change);
+        }
+    }
+
+    public void increaseExpectationsForProduct(double change) {
+        shift(change);
+    }
+}
@@ -0,0 +1,19 @@
+package U1.supplyDemand;
+
+/**
+ * Listener notified when the equilibrium of a supply-demand model changes.
+ * Registered with {@link SupplyDemandModel#addEquilibriumListener(EquilibriumListener)}.
+ */
+@FunctionalInterface
+public interface EquilibriumListener {
+    /**
+     * Called after the curves of a model have shifted enough to change its equilibrium type, or to move
+     * its equilibrium price or quantity by more than the notification threshold of the model.
+     * @param model Model whose equilibrium changed. Its getters return the new equilibrium.
+     * @param previousType Equilibrium type at the last notification.
+     * @param previousPrice Equilibrium price at the last notification, or NaN if there was no unique equilibrium.
+     * @param previousQuantity Equilibrium quantity at the last notification, or NaN if there was no unique equilibrium.
+     */
+    void equilibriumChanged(SupplyDemandModel model, SupplyDemandModel.EquilibriumType previousType,
+            double previousPrice, double previousQuantity);
+}
@@ -0,0 +1,161 @@
+package U1.supplyDemand;
+
+/**
+ * Analytic sensitivities (partial derivatives) of the equilibrium price and quantity of many markets with respect to
+ * the intercepts and slopes of their curves, computed in one pass over the markets.
+ * <p>
+ * With both curves of the form intercept + slope * quantity, the equilibrium quantity is
+ * Q = (demandIntercept - supplyIntercept) / D and the price is P = supplyIntercept + supplySlope * Q,
+ * where D = supplySlope - demandSlope. Every curve modifier only moves an intercept, so the sensitivity to a
+ * modifier is the intercept sensitivity times {@link ShiftKind#interceptChange(boolean)}.
+ * Markets without a unique equilibrium have NaN sensitivities.
+ */
+public class EquilibriumSensitivity {
+    private double[] prices;
+    private double[] quantities;
+    private boolean[] inferiorGoods;
+    private double[] priceBySupplyIntercept;
+    private double[] priceByDemandIntercept;
+    private double[] priceBySupplySlope;
+    private double[] priceByDemandSlope;
+    private double[] quantityBySupplyIntercept;
+    private double[] quantityByDemandIntercept;
+    private double[] quantityBySupplySlope;
+    private double[] quantityByDemandSlope;
+
+    /**
+     * Compute the sensitivities of a set of markets.
+     * @param models Supply-demand models of the markets.
+     * @return Sensitivities, with market i being models[i].
+     */
+    public static EquilibriumSensitivity of(SupplyDemandModel[] models) {
+        int markets = models.length;
+        double[] supplyIntercepts = new double[markets];
+        double[] supplySlopes = new double[markets];
+        double[] demandIntercepts = new double[markets];
+        double[] demandSlopes = new double[markets];
+        boolean[] inferiorGoods = new boolean[markets];
+        for (int i = 0; i < markets; i++) {
+            supplyIntercepts[i] = models[i].getSupplyCurve().getIntercept();
+            supplySlopes[i] = models[i].getSupplyCurve().getSlope();
+            demandIntercepts[i] = models[i].getDemandCurve().getIntercept();
+            demandSlopes[i] = models[i].getDemandCurve().getSlope();
+            inferiorGoods[i] = models[i].getDemandCurve().isInferiorGood();
+        }
+        return new EquilibriumSensitivity(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, inferiorGoods);
+    }
+
+    /**
+     * Compute the sensitivities of a set of markets described by the parameters of their curves.
+     * Market i is described by element i of each array.
+     * @param supplyIntercepts Intercepts of the supply curves.
+     * @param supplySlopes Slopes of the supply curves.
+     * @param demandIntercepts Intercepts of the demand curves.
+     * @param demandSlopes Slopes of the demand curves.
+     * @param inferiorGoods Whether the good of each market is an inferior good.
+     */
+    public EquilibriumSensitivity(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts,
+            double[] demandSlopes, boolean[] inferiorGoods) {
+        int markets = supplyIntercepts.length;
+        if (supplySlopes.length != markets || demandIntercepts.length != markets || demandSlopes.length != markets
+                || inferiorGoods.length != markets) {
+            throw new IllegalArgumentException("Attempted to compute sensitivities using arrays of mismatched lengths.");
+        }
+        this.prices = new double[markets];
+        this.quantities = new double[markets];
+        this.inferiorGoods = inferiorGoods.clone();
+        this.priceBySupplyIntercept = new double[markets];
+        this.priceByDemandIntercept = new double[markets];
+        this.priceBySupplySlope = new double[markets];
+        this.priceByDemandSlope = new double[markets];
+        this.quantityBySupplyIntercept = new double[markets];
+        this.quantityByDemandIntercept = new double[markets];
+        this.quantityBySupplySlope = new double[markets];
+        this.quantityByDemandSlope = new double[markets];
+
+        for (int i = 0; i < markets; i++) {
+            double supplySlope = supplySlopes[i];
+            double demandSlope = demandSlopes[i];
+            double quantity = SupplyDemandModel.equilibriumQuantity(supplyIntercepts[i], supplySlope, demandIntercepts[i], demandSlope);
+            double inverseGap = Double.isNaN(quantity) ? Double.NaN : 1 / (supplySlope - demandSlope);
+            prices[i] = supplyIntercepts[i] + supplySlope * quantity;
+            quantities[i] = quantity;
+            quantityBySupplyIntercept[i] = -inverseGap;
+            quantityByDemandIntercept[i] = inverseGap;
+            quantityBySupplySlope[i] = -quantity * inverseGap;
+            quantityByDemandSlope[i] = quantity * inverseGap;
+            priceBySupplyIntercept[i] = -demandSlope * inverseGap;
+            priceByDemandIntercept[i] = supplySlope * inverseGap;
+            priceBySupplySlope[i] = -demandSlope * quantity * inverseGap;
+            priceByDemandSlope[i] = supplySlope * quantity * inverseGap;
+        }
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return prices.length;
+    }
+
+    public double getPrice(int market) {
+        return prices[market];
+    }
+
+    public double getQuantity(int market) {
+        return quantities[market];
+    }
+
+    public double getPriceBySupplyIntercept(int market) {
+        return priceBySupplyIntercept[market];
+    }
+
+    public double getPriceByDemandIntercept(int market) {
+        return priceByDemandIntercept[market];
+    }
+
+    public double getPriceBySupplySlope(int market) {
+        return priceBySupplySlope[market];
+    }
+
+    public double getPriceByDemandSlope(int market) {
+        return priceByDemandSlope[market];
+    }
+
+    public double getQuantityBySupplyIntercept(int market) {
+        return quantityBySupplyIntercept[market];
+    }
+
+    public double getQuantityByDemandIntercept(int market) {
+        return quantityByDemandIntercept[market];
+    }
+
+    public double getQuantityBySupplySlope(int market) {
+        return quantityBySupplySlope[market];
+    }
+
+    public double getQuantityByDemandSlope(int market) {
+        return quantityByDemandSlope[market];
+    }
+
+    /**
+     * Get the change in equilibrium price per unit of the argument of a curve modifier method.
+     * @param market Index of the market.
+     * @param lever Modifier method.
+     * @return Partial derivative of the equilibrium price.
+     */
+    public double getPriceSensitivity(int market, ShiftKind lever) {
+        double interceptChange = lever.interceptChange(inferiorGoods[market]);
+        return interceptChange * (lever.isSupply() ? priceBySupplyIntercept[market] : priceByDemandIntercept[market]);
+    }
+
+    /**
+     * Get the change in equilibrium quantity per unit of the argument of a curve modifier method.
+     * @param market Index of the market.
+     * @param lever Modifier method.
+     * @return Partial derivative of the equilibrium quantity.
+     */
+    public double getQuantitySensitivity(int market, ShiftKind lever) {
+        double interceptChange = lever.interceptChange(inferiorGoods[market]);
+        return interceptChange * (lever.isSupply() ? quantityBySupplyIntercept[market] : quantityByDemandIntercept[market]);
+    }
+}
@@ -0,0 +1,97 @@
+package U1.supplyDemand;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch solver for the equilibria of many linear supply-demand markets.
+ * Market i is described by element i of each parameter array, using the same intercept and slope
+ * conventions as {@link SupplyCurve} and {@link DemandCurve}. Markets without a unique equilibrium
+ * (see {@link SupplyDemandModel#getEquilibriumType()}) receive NaN as price and quantity.
+ */
+public class MarketClearing {
+    private static final int MARKETS_PER_TASK = 1 << 16;
+
+    private MarketClearing() {
+    }
+
+    /**
+     * Solve the equilibrium of every market on the calling thread.
+     * @param supplyIntercepts Intercepts of the supply curves.
+     * @param supplySlopes Slopes of the supply curves.
+     * @param demandIntercepts Intercepts of the demand curves.
+     * @param demandSlopes Slopes of the demand curves.
+     * @param priceOut Array receiving the equilibrium prices.
+     * @param quantityOut Array receiving the equilibrium quantities.
+     */
+    public static void clear(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts, double[] demandSlopes,
+            double[] priceOut, double[] quantityOut) {
+        int markets = checkLengths(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut);
+        clearRange(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut, 0, markets);
+    }
+
+    /**
+     * Solve the equilibrium of every market, splitting the markets across the common fork/join pool.
+     * Results are identical to {@link #clear}.
+     */
+    public static void clearParallel(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts, double[] demandSlopes,
+            double[] priceOut, double[] quantityOut) {
+        int markets = checkLengths(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut);
+        ForkJoinPool.commonPool().invoke(new ClearingTask(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes,
+                priceOut, quantityOut, 0, markets));
+    }
+
+    private static void clearRange(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts, double[] demandSlopes,
+            double[] priceOut, double[] quantityOut, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double quantity = SupplyDemandModel.equilibriumQuantity(supplyIntercepts[i], supplySlopes[i], demandIntercepts[i], demandSlopes[i]);
+            quantityOut[i] = quantity;
+            priceOut[i] = supplyIntercepts[i] + supplySlopes[i] * quantity;
+        }
+    }
+
+    private static int checkLengths(double[]... arrays) {
+        int markets = arrays[0].length;
+        for (double[] array : arrays) {
+            if (array.length != markets) {
+                throw new IllegalArgumentException("Attempted to clear markets using arrays of mismatched lengths.");
+            }
+        }
+        return markets;
+    }
+
+    @SuppressWarnings("serial")
+    private static class ClearingTask extends RecursiveAction {
+        private double[] supplyIntercepts;
+        private double[] supplySlopes;
+        private double[] demandIntercepts;
+        private double[] demandSlopes;
+        private double[] priceOut;
+        private double[] quantityOut;
+        private int from;
+        private int to;
+
+        ClearingTask(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts, double[] demandSlopes,
+                double[] priceOut, double[] quantityOut, int from, int to) {
+            this.supplyIntercepts = supplyIntercepts;
+            this.supplySlopes = supplySlopes;
+            this.demandIntercepts = demandIntercepts;
+            this.demandSlopes = demandSlopes;
+            this.priceOut = priceOut;
+            this.quantityOut = quantityOut;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MARKETS_PER_TASK) {
+                clearRange(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ClearingTask(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut, from, mid),
+                    new ClearingTask(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut, mid, to));
+        }
+    }
+}
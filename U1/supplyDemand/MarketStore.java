@@ -0,0 +1,462 @@
+package U1.supplyDemand;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import U1.PPC.Product;
+import U1.PPC.ProductCatalog;
+
+/**
+ * Off-heap store of the parameters of a very large number of linear supply-demand markets, without any objects
+ * per market. Each parameter is a column of direct or memory-mapped buffers, split into chunks of
+ * {@value #CHUNK_MARKETS} markets since a single buffer is limited to 2 GB. Products are stored as their ID in a
+ * {@link ProductCatalog}.
+ * <p>
+ * File layout (little-endian): a {@value #HEADER_SIZE} byte header with the magic number, format version and number
+ * of markets, followed by the supply intercept, supply slope, demand intercept and demand slope columns (doubles),
+ * the product ID column (ints) and the inferior good column (one byte per market). Product names are not stored,
+ * so a file must be opened with the catalog it was written with.
+ * <p>
+ * Markets are read and shifted by index, in bulk, or through a {@link View}, which reuses one
+ * {@link SupplyDemandModel} for any number of markets. A store is not thread-safe.
+ */
+public class MarketStore {
+    public static final int MAGIC = 0x5531534D;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int CHUNK_MARKETS = 1 << 24;
+
+    // Bytes of every column for one market
+    private static final int MARKET_BYTES = 4 * Double.BYTES + Integer.BYTES + Byte.BYTES;
+
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int CHUNK_SHIFT = Integer.numberOfTrailingZeros(CHUNK_MARKETS);
+    private static final int CHUNK_MASK = CHUNK_MARKETS - 1;
+
+    private ProductCatalog catalog;
+    private long size;
+    private ByteBuffer[] supplyIntercepts;
+    private ByteBuffer[] supplySlopes;
+    private ByteBuffer[] demandIntercepts;
+    private ByteBuffer[] demandSlopes;
+    private ByteBuffer[] productIds;
+    private ByteBuffer[] inferiorGoods;
+
+    private MarketStore(ProductCatalog catalog, long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Attempted to create a market store with a negative number of markets.");
+        }
+        this.catalog = catalog;
+        this.size = size;
+    }
+
+    /**
+     * Create a store in direct memory, outside of the heap. Every market starts with all parameters zero and the
+     * product with ID 0.
+     * @param markets Number of markets.
+     * @param catalog Catalog of the products of the markets.
+     * @return The new store.
+     */
+    public static MarketStore allocate(long markets, ProductCatalog catalog) {
+        MarketStore store = new MarketStore(catalog, markets);
+        store.supplyIntercepts = store.allocateColumn(Double.BYTES);
+        store.supplySlopes = store.allocateColumn(Double.BYTES);
+        store.demandIntercepts = store.allocateColumn(Double.BYTES);
+        store.demandSlopes = store.allocateColumn(Double.BYTES);
+        store.productIds = store.allocateColumn(Integer.BYTES);
+        store.inferiorGoods = store.allocateColumn(Byte.BYTES);
+        return store;
+    }
+
+    /**
+     * Create a store backed by a memory-mapped file, replacing any existing file. Every market starts with all
+     * parameters zero and the product with ID 0.
+     * @param path Path of the file.
+     * @param markets Number of markets.
+     * @param catalog Catalog of the products of the markets.
+     * @return The new store.
+     * @throws IOException If the file cannot be created.
+     */
+    public static MarketStore create(Path path, long markets, ProductCatalog catalog) throws IOException {
+        MarketStore store = new MarketStore(catalog, markets);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putLong(markets).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            store.mapColumns(channel);
+        }
+        return store;
+    }
+
+    /**
+     * Open a store backed by an existing file, created by {@link #create}. Changes are written to the file.
+     * @param path Path of the file.
+     * @param catalog Catalog the file was written with.
+     * @return The opened store.
+     * @throws IOException If the file cannot be read or is not a market store.
+     */
+    public static MarketStore open(Path path, ProductCatalog catalog) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException("File is not a market store.");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported market store version " + header.getInt(4) + ".");
+            }
+            long markets = header.getLong(8);
+            if (markets < 0) {
+                throw new IOException("Market store holds a negative number of markets (" + markets + ").");
+            }
+            long fileSize;
+            try {
+                fileSize = Math.addExact(HEADER_SIZE, Math.multiplyExact(markets, MARKET_BYTES));
+            } catch (ArithmeticException e) {
+                throw new IOException("Market store holds too many markets (" + markets + ").", e);
+            }
+            if (channel.size() < fileSize) {
+                throw new IOException("Market store file is truncated.");
+            }
+            MarketStore store = new MarketStore(catalog, markets);
+            store.mapColumns(channel);
+            return store;
+        }
+    }
+
+    private ByteBuffer[] allocateColumn(int bytes) {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount()];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            chunks[chunk] = ByteBuffer.allocateDirect(chunkSize(chunk) * bytes).order(BYTE_ORDER);
+        }
+        return chunks;
+    }
+
+    private void mapColumns(FileChannel channel) throws IOException {
+        long offset = HEADER_SIZE;
+        supplyIntercepts = mapColumn(channel, offset, Double.BYTES);
+        offset += size * Double.BYTES;
+        supplySlopes = mapColumn(channel, offset, Double.BYTES);
+        offset += size * Double.BYTES;
+        demandIntercepts = mapColumn(channel, offset, Double.BYTES);
+        offset += size * Double.BYTES;
+        demandSlopes = mapColumn(channel, offset, Double.BYTES);
+        offset += size * Double.BYTES;
+        productIds = mapColumn(channel, offset, Integer.BYTES);
+        offset += size * Integer.BYTES;
+        inferiorGoods = mapColumn(channel, offset, Byte.BYTES);
+    }
+
+    private ByteBuffer[] mapColumn(FileChannel channel, long offset, int bytes) throws IOException {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount()];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            long position = offset + ((long) chunk << CHUNK_SHIFT) * bytes;
+            // Mapping past the end of the file grows it, with the new bytes zero
+            chunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) chunkSize(chunk) * bytes).order(BYTE_ORDER);
+        }
+        return chunks;
+    }
+
+    private int chunkCount() {
+        return (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    private int chunkSize(int chunk) {
+        return (int) Math.min(CHUNK_MARKETS, size - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    /**
+     * Write any changes to a file-backed store to the storage device. Does nothing for a store in direct memory.
+     */
+    public void force() {
+        for (ByteBuffer[] column : new ByteBuffer[][] {supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes,
+                productIds, inferiorGoods}) {
+            for (ByteBuffer chunk : column) {
+                if (chunk instanceof MappedByteBuffer) {
+                    ((MappedByteBuffer) chunk).force();
+                }
+            }
+        }
+    }
+
+    // Accessor methods
+
+    public long size() {
+        return size;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Product getProduct(long market) {
+        return catalog.get(productIds[chunk(market)].getInt(offset(market) * Integer.BYTES));
+    }
+
+    public double getSupplyIntercept(long market) {
+        return getDouble(supplyIntercepts, market);
+    }
+
+    public double getSupplySlope(long market) {
+        return getDouble(supplySlopes, market);
+    }
+
+    public double getDemandIntercept(long market) {
+        return getDouble(demandIntercepts, market);
+    }
+
+    public double getDemandSlope(long market) {
+        return getDouble(demandSlopes, market);
+    }
+
+    public boolean isInferiorGood(long market) {
+        return inferiorGoods[chunk(market)].get(offset(market)) != 0;
+    }
+
+    /**
+     * Set every parameter of a market.
+     * @param market Index of the market.
+     * @param product Product of the market, which must be in the catalog of the store.
+     * @param supplyIntercept Intercept of the supply curve.
+     * @param supplySlope Slope of the supply curve.
+     * @param demandIntercept Intercept of the demand curve.
+     * @param demandSlope Slope of the demand curve.
+     * @param isInferiorGood Whether the good is an inferior good.
+     */
+    public void set(long market, Product product, double supplyIntercept, double supplySlope, double demandIntercept,
+            double demandSlope, boolean isInferiorGood) {
+        int id = catalog.getId(product);
+        if (id < 0) {
+            throw new IllegalArgumentException("Attempted to store a market for product " + product.getName()
+                    + ", which is not in the catalog of the store.");
+        }
+        int chunk = chunk(market);
+        int offset = offset(market);
+        productIds[chunk].putInt(offset * Integer.BYTES, id);
+        inferiorGoods[chunk].put(offset, (byte) (isInferiorGood ? 1 : 0));
+        supplyIntercepts[chunk].putDouble(offset * Double.BYTES, supplyIntercept);
+        supplySlopes[chunk].putDouble(offset * Double.BYTES, supplySlope);
+        demandIntercepts[chunk].putDouble(offset * Double.BYTES, demandIntercept);
+        demandSlopes[chunk].putDouble(offset * Double.BYTES, demandSlope);
+    }
+
+    /**
+     * Set every parameter of a market to those of a supply-demand model.
+     * @param market Index of the market.
+     * @param model Model to copy, whose product must be in the catalog of the store.
+     */
+    public void set(long market, SupplyDemandModel model) {
+        SupplyCurve supplyCurve = model.getSupplyCurve();
+        DemandCurve demandCurve = model.getDemandCurve();
+        set(market, model.getProduct(), supplyCurve.getIntercept(), supplyCurve.getSlope(), demandCurve.getIntercept(),
+                demandCurve.getSlope(), demandCurve.isInferiorGood());
+    }
+
+    /**
+     * Shift one curve of a market, with the same effect as the modifier method of the given kind.
+     * @param market Index of the market.
+     * @param kind Modifier method.
+     * @param amount Argument of the modifier method (truncated for methods taking an int).
+     */
+    public void shift(long market, ShiftKind kind, double amount) {
+        double change = interceptChange(kind, amount, isInferiorGood(market));
+        ByteBuffer[] intercepts = kind.isSupply() ? supplyIntercepts : demandIntercepts;
+        putDouble(intercepts, market, getDouble(intercepts, market) + change);
+    }
+
+    /**
+     * Shift one curve of every market in a range, with the same effect as calling the modifier method of the given
+     * kind on each of them.
+     * @param from Index of the first market (inclusive).
+     * @param to Index of the last market (exclusive).
+     * @param kind Modifier method.
+     * @param amount Argument of the modifier method (truncated for methods taking an int).
+     */
+    public void shift(long from, long to, ShiftKind kind, double amount) {
+        checkRange(from, to);
+        ByteBuffer[] intercepts = kind.isSupply() ? supplyIntercepts : demandIntercepts;
+        double change = interceptChange(kind, amount, false);
+        // Only consumer income depends on the market, through the inferior good flag
+        double inferiorChange = interceptChange(kind, amount, true);
+        long market = from;
+        while (market < to) {
+            int chunk = chunk(market);
+            int start = offset(market);
+            int end = (int) Math.min(CHUNK_MARKETS, start + (to - market));
+            ByteBuffer column = intercepts[chunk];
+            ByteBuffer flags = inferiorGoods[chunk];
+            for (int i = start; i < end; i++) {
+                double shift = change == inferiorChange || flags.get(i) == 0 ? change : inferiorChange;
+                column.putDouble(i * Double.BYTES, column.getDouble(i * Double.BYTES) + shift);
+            }
+            market += end - start;
+        }
+    }
+
+    /**
+     * Solve the equilibrium of every market in a range, as {@link MarketClearing#clear} does.
+     * Markets without a unique equilibrium receive NaN as price and quantity.
+     * @param from Index of the first market (inclusive).
+     * @param priceOut Array receiving the equilibrium prices, one per market starting at from.
+     * @param quantityOut Array receiving the equilibrium quantities, one per market starting at from.
+     */
+    public void clear(long from, double[] priceOut, double[] quantityOut) {
+        if (priceOut.length != quantityOut.length) {
+            throw new IllegalArgumentException("Attempted to clear markets using arrays of mismatched lengths.");
+        }
+        long to = from + priceOut.length;
+        checkRange(from, to);
+        long market = from;
+        int out = 0;
+        while (market < to) {
+            int chunk = chunk(market);
+            int start = offset(market);
+            int end = (int) Math.min(CHUNK_MARKETS, start + (to - market));
+            ByteBuffer sI = supplyIntercepts[chunk];
+            ByteBuffer sS = supplySlopes[chunk];
+            ByteBuffer dI = demandIntercepts[chunk];
+            ByteBuffer dS = demandSlopes[chunk];
+            for (int i = start; i < end; i++) {
+                int position = i * Double.BYTES;
+                double supplyIntercept = sI.getDouble(position);
+                double supplySlope = sS.getDouble(position);
+                double quantity = SupplyDemandModel.equilibriumQuantity(supplyIntercept, supplySlope,
+                        dI.getDouble(position), dS.getDouble(position));
+                quantityOut[out] = quantity;
+                priceOut[out] = supplyIntercept + supplySlope * quantity;
+                out++;
+            }
+            market += end - start;
+        }
+    }
+
+    /**
+     * Create a view for reading and shifting markets of this store through a {@link SupplyDemandModel}.
+     * @return New view, not yet pointed at any market.
+     * @throws IllegalStateException If the catalog of the store is empty, so that no market can be viewed.
+     */
+    public View view() {
+        if (catalog.size() == 0) {
+            throw new IllegalStateException("Attempted to view a market store whose catalog holds no products.");
+        }
+        return new View();
+    }
+
+    private static double interceptChange(ShiftKind kind, double amount, boolean isInferiorGood) {
+        if (kind == ShiftKind.SUPPLY_NUMBER_OF_SELLERS || kind == ShiftKind.DEMAND_MARKET_SIZE) {
+            amount = (int) amount;
+        }
+        return kind.interceptChange(isInferiorGood) * amount;
+    }
+
+    private void checkRange(long from, long to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range of markets [" + from + ", " + to + ") for store of size " + size + ".");
+        }
+    }
+
+    private int chunk(long market) {
+        if (market < 0 || market >= size) {
+            throw new IndexOutOfBoundsException("Invalid market " + market + " for store of size " + size + ".");
+        }
+        return (int) (market >>> CHUNK_SHIFT);
+    }
+
+    private static int offset(long market) {
+        return (int) market & CHUNK_MASK;
+    }
+
+    private double getDouble(ByteBuffer[] column, long market) {
+        return column[chunk(market)].getDouble(offset(market) * Double.BYTES);
+    }
+
+    private void putDouble(ByteBuffer[] column, long market, double value) {
+        column[chunk(market)].putDouble(offset(market) * Double.BYTES, value);
+    }
+
+    /**
+     * Flyweight exposing one market at a time as a {@link SupplyDemandModel}. The same model and curves are reused
+     * for every market the view is moved to, so iterating over the store does not allocate. Shifts made through the
+     * curves of the model are written back to the store when the view moves on or is flushed. Only the change made
+     * through the view is written back, so shifts made directly to the store in the meantime are kept, though the
+     * view does not see them until it is moved to the market again.
+     */
+    public class View {
+        private SupplyCurve supplyCurve;
+        private DemandCurve demandCurve;
+        private SupplyDemandModel model;
+        private long market = -1;
+        // Intercepts of the curves as last read from or written to the store
+        private double storedSupplyIntercept;
+        private double storedDemandIntercept;
+
+        View() {
+            // Placeholder product until the first move, which the caller has checked exists
+            Product product = catalog.get(0);
+            this.supplyCurve = new SupplyCurve(product, 0, 0);
+            this.demandCurve = new DemandCurve(product, 0, 0, false);
+            this.model = new SupplyDemandModel(supplyCurve, demandCurve);
+        }
+
+        /**
+         * Point the view at another market, first writing back any shifts made to the current one. Listeners of the
+         * model are notified at most once, after both curves have moved.
+         * @param market Index of the market.
+         * @return The model of the market, which is the same object for every market.
+         */
+        public SupplyDemandModel moveTo(long market) {
+            flush();
+            Product product = getProduct(market);
+            storedSupplyIntercept = getSupplyIntercept(market);
+            storedDemandIntercept = getDemandIntercept(market);
+            model.beginBatch();
+            try {
+                supplyCurve.set(product, storedSupplyIntercept, getSupplySlope(market));
+                demandCurve.set(product, storedDemandIntercept, getDemandSlope(market), isInferiorGood(market));
+                model.setProduct(product);
+            } finally {
+                model.endBatch();
+            }
+            this.market = market;
+            return model;
+        }
+
+        /**
+         * Write the shifts made to the intercepts of the current market through the view back to the store.
+         */
+        public void flush() {
+            if (market >= 0) {
+                storedSupplyIntercept = writeBack(supplyIntercepts, storedSupplyIntercept, supplyCurve.getIntercept());
+                storedDemandIntercept = writeBack(demandIntercepts, storedDemandIntercept, demandCurve.getIntercept());
+            }
+        }
+
+        private double writeBack(ByteBuffer[] intercepts, double stored, double intercept) {
+            if (Double.compare(intercept, stored) == 0) {
+                return stored;
+            }
+            double current = getDouble(intercepts, market);
+            // Add only the change when the store was shifted since, otherwise write the exact intercept
+            putDouble(intercepts, market, Double.compare(current, stored) == 0 ? intercept : current + (intercept - stored));
+            return intercept;
+        }
+
+        public long getMarket() {
+            return market;
+        }
+
+        public SupplyDemandModel getModel() {
+            return model;
+        }
+    }
+}
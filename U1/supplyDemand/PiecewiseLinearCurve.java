@@ -0,0 +1,165 @@
+package U1.supplyDemand;
+
+import U1.PPC.Product;
+
+/**
+ * Curve made of straight segments between breakpoints, for demand or supply data that is not linear.
+ * Breakpoints are kept in sorted primitive arrays so that both directions of lookup are binary searches, and
+ * {@link #buildIndex(int)} adds a uniform grid over each array that makes lookups O(1) for evenly spread breakpoints.
+ * Prices before the first and after the last breakpoint follow the first and last segments.
+ * <p>
+ * Shifts are kept as an offset added to every price, so shifting never touches the breakpoints or their index.
+ */
+public class PiecewiseLinearCurve implements Curve {
+    private Product product;
+    private double[] quantities;
+    private double[] prices;
+    private boolean pricesIncrease;
+    private double offset;
+    private GridIndex quantityIndex;
+    private GridIndex priceIndex;
+
+    /**
+     * Create a piecewise-linear curve through a set of breakpoints.
+     * @param product Product traded.
+     * @param quantities Quantities of the breakpoints, strictly increasing.
+     * @param prices Prices of the breakpoints, strictly increasing (supply) or strictly decreasing (demand).
+     */
+    public PiecewiseLinearCurve(Product product, double[] quantities, double[] prices) {
+        if (quantities.length != prices.length || quantities.length < 2) {
+            throw new IllegalArgumentException("A piecewise-linear curve needs at least two breakpoints with a price and a quantity each.");
+        }
+        this.pricesIncrease = prices[1] > prices[0];
+        for (int i = 1; i < quantities.length; i++) {
+            if (!(quantities[i] > quantities[i - 1])) {
+                throw new IllegalArgumentException("Breakpoint quantities must be strictly increasing.");
+            }
+            if (pricesIncrease ? !(prices[i] > prices[i - 1]) : !(prices[i] < prices[i - 1])) {
+                throw new IllegalArgumentException("Breakpoint prices must be strictly increasing or strictly decreasing.");
+            }
+        }
+        this.product = product;
+        this.quantities = quantities.clone();
+        this.prices = prices.clone();
+    }
+
+    // Accessor methods
+
+    @Override
+    public Product getProduct() {
+        return product;
+    }
+
+    public int getBreakpointCount() {
+        return quantities.length;
+    }
+
+    public double getBreakpointQuantity(int breakpoint) {
+        return quantities[breakpoint];
+    }
+
+    public double getBreakpointPrice(int breakpoint) {
+        return prices[breakpoint] + offset;
+    }
+
+    /**
+     * Build uniform grids over the breakpoint quantities and prices so that each lookup starts from the right
+     * segment instead of searching for it. Shifts keep the grids valid.
+     * @param cells Number of grid cells, typically about the number of breakpoints.
+     */
+    public void buildIndex(int cells) {
+        quantityIndex = new GridIndex(quantities, cells, true);
+        priceIndex = new GridIndex(prices, cells, pricesIncrease);
+    }
+
+    @Override
+    public double getPriceGivenQuantity(int quantity) {
+        int segment = quantityIndex != null
+                ? quantityIndex.segment(quantities, quantity)
+                : segment(quantities, quantity, true);
+        return interpolate(quantities, prices, segment, quantity) + offset;
+    }
+
+    @Override
+    public int invertPrice(double price) {
+        double unshifted = price - offset;
+        int segment = priceIndex != null
+                ? priceIndex.segment(prices, unshifted)
+                : segment(prices, unshifted, pricesIncrease);
+        return (int) Math.max(0, interpolate(prices, quantities, segment, unshifted));
+    }
+
+    @Override
+    public void shift(double shiftAmount) {
+        offset += shiftAmount;
+    }
+
+    private static double interpolate(double[] from, double[] to, int segment, double value) {
+        double fraction = (value - from[segment]) / (from[segment + 1] - from[segment]);
+        return to[segment] + fraction * (to[segment + 1] - to[segment]);
+    }
+
+    /**
+     * Find the segment containing a value by binary search.
+     * @return Index of the first breakpoint of the segment, between 0 and length - 2.
+     */
+    private static int segment(double[] keys, double value, boolean increasing) {
+        int low = 0;
+        int high = keys.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (increasing ? keys[mid] <= value : keys[mid] >= value) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Uniform grid over a sorted array, giving for each cell the segment containing the start of the cell.
+     */
+    private static class GridIndex {
+        private double first;
+        private double cellsPerUnit;
+        private int[] cellSegments;
+        private boolean increasing;
+
+        GridIndex(double[] keys, int cells, boolean increasing) {
+            if (cells < 1) {
+                throw new IllegalArgumentException("Attempted to build an index without any cells.");
+            }
+            int last = keys.length - 1;
+            this.increasing = increasing;
+            this.first = keys[0];
+            this.cellsPerUnit = cells / Math.abs(keys[last] - keys[0]);
+            this.cellSegments = new int[cells];
+            int segment = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                double start = increasing ? first + cell / cellsPerUnit : first - cell / cellsPerUnit;
+                while (segment < last - 1 && (increasing ? keys[segment + 1] <= start : keys[segment + 1] >= start)) {
+                    segment++;
+                }
+                cellSegments[cell] = segment;
+            }
+        }
+
+        int segment(double[] keys, double value) {
+            double cell = (increasing ? value - first : first - value) * cellsPerUnit;
+            if (!(cell >= 0)) {
+                return 0;
+            }
+            int segment = cellSegments[(int) Math.min(cell, cellSegments.length - 1)];
+            int lastSegment = keys.length - 2;
+            // Rounding of the cell can land one cell off, on either side
+            while (segment > 0 && (increasing ? keys[segment] > value : keys[segment] < value)) {
+                segment--;
+            }
+            while (segment < lastSegment && (increasing ? keys[segment + 1] <= value : keys[segment + 1] >= value)) {
+                segment++;
+            }
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package U1.supplyDemand;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Discrete-time simulator for many supply-demand markets out of equilibrium.
+ * Every tick, the price of each market moves by the adjustment rate times the excess demand, computed with
+ * the same formulas as {@link DemandCurve#getQdGivenP(double)} and {@link SupplyCurve#getQsGivenP(double)}.
+ * A market whose excess demand is within the tolerance is marked as converged and skipped until a scheduled
+ * curve shift affects it again. Market state is kept in primitive arrays, so ticks do not allocate per market.
+ */
+public class PriceAdjustmentSimulator {
+    private static final int MARKETS_PER_TASK = 1 << 14;
+
+    private double[] supplyIntercepts;
+    private double[] supplySlopes;
+    private double[] demandIntercepts;
+    private double[] demandSlopes;
+    private double[] prices;
+    private boolean[] converged;
+    private double adjustmentRate;
+    private int tolerance;
+    private boolean parallel;
+    private long tick;
+
+    // Scheduled shifts, kept sorted by tick from nextEvent onwards
+    private long[] eventTicks = new long[16];
+    private int[] eventMarkets = new int[16];
+    private double[] eventAmounts = new double[16];
+    private boolean[] eventIsDemand = new boolean[16];
+    private int eventCount;
+    private int nextEvent;
+    private boolean eventsSorted = true;
+
+    /**
+     * Create a new simulator with all markets empty.
+     * @param markets Number of markets.
+     * @param adjustmentRate Change in price per unit of excess demand. Prices only settle if excess demand falls as the
+     *                       price rises, so with curves where it grows instead the rate must be negative.
+     * @param tolerance Largest absolute excess demand at which a market is considered converged (negative to never converge).
+     */
+    public PriceAdjustmentSimulator(int markets, double adjustmentRate, int tolerance) {
+        this.supplyIntercepts = new double[markets];
+        this.supplySlopes = new double[markets];
+        this.demandIntercepts = new double[markets];
+        this.demandSlopes = new double[markets];
+        this.prices = new double[markets];
+        this.converged = new boolean[markets];
+        this.adjustmentRate = adjustmentRate;
+        this.tolerance = tolerance;
+    }
+
+    // Accessor methods
+
+    public int size() {
+        return prices.length;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public double getPrice(int market) {
+        return prices[market];
+    }
+
+    public boolean isConverged(int market) {
+        return converged[market];
+    }
+
+    public double getSupplyIntercept(int market) {
+        return supplyIntercepts[market];
+    }
+
+    public double getDemandIntercept(int market) {
+        return demandIntercepts[market];
+    }
+
+    /**
+     * Choose whether ticks split the markets across the common fork/join pool.
+     * @param parallel true to update markets in parallel.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Set the curves and starting price of a market.
+     * @param market Index of the market.
+     * @param model Model whose curves are copied into the simulator.
+     * @param price Starting price.
+     */
+    public void setMarket(int market, SupplyDemandModel model, double price) {
+        setMarket(market, model.getSupplyCurve().getIntercept(), model.getSupplyCurve().getSlope(),
+                model.getDemandCurve().getIntercept(), model.getDemandCurve().getSlope(), price);
+    }
+
+    /**
+     * Set the curve parameters and starting price of a market.
+     * @param market Index of the market.
+     */
+    public void setMarket(int market, double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope, double price) {
+        supplyIntercepts[market] = supplyIntercept;
+        supplySlopes[market] = supplySlope;
+        demandIntercepts[market] = demandIntercept;
+        demandSlopes[market] = demandSlope;
+        prices[market] = price;
+        converged[market] = false;
+    }
+
+    /**
+     * Schedule a shift of the supply curve of a market, applied at the start of the given tick.
+     * @param tick Tick at which to shift the curve, not before the current tick.
+     * @param market Index of the market.
+     * @param shiftAmount Amount by which to shift curve. Increase shifts curve rightward.
+     */
+    public void scheduleSupplyShift(long tick, int market, double shiftAmount) {
+        schedule(tick, market, shiftAmount, false);
+    }
+
+    /**
+     * Schedule a shift of the demand curve of a market, applied at the start of the given tick.
+     * @param tick Tick at which to shift the curve, not before the current tick.
+     * @param market Index of the market.
+     * @param shiftAmount Amount by which to shift curve. Increase shifts curve rightward.
+     */
+    public void scheduleDemandShift(long tick, int market, double shiftAmount) {
+        schedule(tick, market, shiftAmount, true);
+    }
+
+    private void schedule(long tick, int market, double shiftAmount, boolean isDemand) {
+        if (tick < this.tick) {
+            throw new IllegalArgumentException("Attempted to schedule a shift before the current tick.");
+        }
+        if (market < 0 || market >= size()) {
+            throw new IndexOutOfBoundsException("Invalid market " + market + " for simulator of size " + size() + ".");
+        }
+        if (eventCount == eventTicks.length) {
+            int capacity = eventCount * 2;
+            eventTicks = Arrays.copyOf(eventTicks, capacity);
+            eventMarkets = Arrays.copyOf(eventMarkets, capacity);
+            eventAmounts = Arrays.copyOf(eventAmounts, capacity);
+            eventIsDemand = Arrays.copyOf(eventIsDemand, capacity);
+        }
+        if (eventCount > nextEvent && eventTicks[eventCount - 1] > tick) {
+            eventsSorted = false;
+        }
+        eventTicks[eventCount] = tick;
+        eventMarkets[eventCount] = market;
+        eventAmounts[eventCount] = shiftAmount;
+        eventIsDemand[eventCount] = isDemand;
+        eventCount++;
+    }
+
+    /**
+     * Advance the simulation by one tick: apply the shifts scheduled for it, then adjust the price of every
+     * market that has not converged.
+     * @return Number of markets whose price was updated or checked during the tick.
+     */
+    public int step() {
+        applyScheduledShifts();
+        int active;
+        if (parallel) {
+            active = ForkJoinPool.commonPool().invoke(new StepTask(0, size()));
+        } else {
+            active = stepRange(0, size());
+        }
+        tick++;
+        return active;
+    }
+
+    /**
+     * Advance the simulation until every market has converged and no shifts are pending, or until the
+     * maximum number of ticks has elapsed.
+     * @param maxTicks Maximum number of ticks to simulate.
+     * @return Total number of market-ticks processed.
+     */
+    public long run(long maxTicks) {
+        long marketTicks = 0;
+        for (long i = 0; i < maxTicks; i++) {
+            int active = step();
+            marketTicks += active;
+            if (active == 0 && nextEvent == eventCount) {
+                break;
+            }
+        }
+        return marketTicks;
+    }
+
+    private int stepRange(int from, int to) {
+        int active = 0;
+        for (int i = from; i < to; i++) {
+            if (converged[i]) {
+                continue;
+            }
+            active++;
+            double price = prices[i];
+            int qs = (int) Math.max(0, (supplyIntercepts[i] - price) / supplySlopes[i]);
+            int qd = (int) Math.max(0, (demandIntercepts[i] - price) / demandSlopes[i]);
+            int excessDemand = qd - qs;
+
+            if (Math.abs(excessDemand) <= tolerance) {
+                converged[i] = true;
+            } else {
+                prices[i] = price + adjustmentRate * excessDemand;
+            }
+        }
+        return active;
+    }
+
+    private void applyScheduledShifts() {
+        if (!eventsSorted) {
+            sortPendingEvents();
+        }
+        while (nextEvent < eventCount && eventTicks[nextEvent] <= tick) {
+            int market = eventMarkets[nextEvent];
+            if (eventIsDemand[nextEvent]) {
+                demandIntercepts[market] += eventAmounts[nextEvent];
+            } else {
+                supplyIntercepts[market] += eventAmounts[nextEvent];
+            }
+            converged[market] = false;
+            nextEvent++;
+        }
+        if (nextEvent == eventCount) {
+            nextEvent = 0;
+            eventCount = 0;
+        }
+    }
+
+    private void sortPendingEvents() {
+        int pending = eventCount - nextEvent;
+        Integer[] order = new Integer[pending];
+        for (int i = 0; i < pending; i++) {
+            order[i] = nextEvent + i;
+        }
+        long[] ticks = eventTicks;
+        Arrays.sort(order, (a, b) -> Long.compare(ticks[a], ticks[b]));
+
+        long[] sortedTicks = new long[eventTicks.length];
+        int[] sortedMarkets = new int[eventTicks.length];
+        double[] sortedAmounts = new double[eventTicks.length];
+        boolean[] sortedIsDemand = new boolean[eventTicks.length];
+        for (int i = 0; i < pending; i++) {
+            sortedTicks[i] = eventTicks[order[i]];
+            sortedMarkets[i] = eventMarkets[order[i]];
+            sortedAmounts[i] = eventAmounts[order[i]];
+            sortedIsDemand[i] = eventIsDemand[order[i]];
+        }
+        eventTicks = sortedTicks;
+        eventMarkets = sortedMarkets;
+        eventAmounts = sortedAmounts;
+        eventIsDemand = sortedIsDemand;
+        eventCount = pending;
+        nextEvent = 0;
+        eventsSorted = true;
+    }
+
+    @SuppressWarnings("serial")
+    private class StepTask extends RecursiveTask<Integer> {
+        private int from;
+        private int to;
+
+        StepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= MARKETS_PER_TASK) {
+                return stepRange(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            StepTask left = new StepTask(from, mid);
+            left.fork();
+            int right = new StepTask(mid, to).compute();
+            return left.join() + right;
+        }
+    }
+}
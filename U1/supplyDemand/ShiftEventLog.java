@@ -0,0 +1,78 @@
+package U1.supplyDemand;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writer for compact binary logs of curve shift events, read back with {@link ShiftEventReader}.
+ * A log starts with a {@value #HEADER_SIZE} byte header (magic number, format version, reserved), followed by
+ * fixed-size {@value #EVENT_SIZE} byte events: product ID (int), shift kind ordinal (int) and amount (double),
+ * all in little-endian byte order. Product IDs are the IDs of a {@link U1.PPC.ProductCatalog}.
+ */
+public class ShiftEventLog implements AutoCloseable {
+    public static final int MAGIC = 0x55315345;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int EVENT_SIZE = 16;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int BUFFER_SIZE = 4096 * EVENT_SIZE;
+
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(BYTE_ORDER);
+    private long eventCount;
+
+    /**
+     * Create a new, empty log, replacing any existing file.
+     * @param path Path of the log file.
+     * @throws IOException If the file cannot be created.
+     */
+    public ShiftEventLog(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(0);
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Append an event to the log.
+     * @param productId Catalog ID of the product whose curve is shifted.
+     * @param kind Kind of shift.
+     * @param amount Argument of the curve modifier method.
+     * @throws IOException If the log cannot be written.
+     */
+    public void append(int productId, ShiftKind kind, double amount) throws IOException {
+        if (productId < 0) {
+            throw new IllegalArgumentException("Attempted to log a shift for negative product ID " + productId + ".");
+        }
+        if (buffer.remaining() < EVENT_SIZE) {
+            flush();
+        }
+        buffer.putInt(productId).putInt(kind.ordinal()).putDouble(amount);
+        eventCount++;
+    }
+
+    /**
+     * Write all buffered events to the file.
+     * @throws IOException If the log cannot be written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
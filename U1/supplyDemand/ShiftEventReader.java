@@ -0,0 +1,214 @@
+package U1.supplyDemand;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader replaying a {@link ShiftEventLog} onto supply and demand curves.
+ * The log is memory-mapped in windows, and events are applied straight to the curves through their modifier
+ * methods without allocating per event. Curves are passed as arrays indexed by product ID; events for
+ * products without a curve are skipped.
+ */
+public class ShiftEventReader implements AutoCloseable {
+    private static final long WINDOW_SIZE = (1L << 30) / ShiftEventLog.EVENT_SIZE * ShiftEventLog.EVENT_SIZE;
+
+    private FileChannel channel;
+    private long eventCount;
+    private MappedByteBuffer window;
+    private long windowStart = -1;
+
+    /**
+     * Open a log for reading.
+     * @param path Path of the log file.
+     * @throws IOException If the file cannot be read or is not a shift event log.
+     */
+    public ShiftEventReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < ShiftEventLog.HEADER_SIZE) {
+            throw new IOException("File is too short to be a shift event log.");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ShiftEventLog.HEADER_SIZE);
+        header.order(ShiftEventLog.BYTE_ORDER);
+        if (header.getInt(0) != ShiftEventLog.MAGIC) {
+            throw new IOException("File is not a shift event log.");
+        }
+        if (header.getInt(4) != ShiftEventLog.VERSION) {
+            throw new IOException("Unsupported shift event log version " + header.getInt(4) + ".");
+        }
+        this.eventCount = (size - ShiftEventLog.HEADER_SIZE) / ShiftEventLog.EVENT_SIZE;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Apply a range of events to the curves.
+     * @param supplyCurves Supply curves indexed by product ID.
+     * @param demandCurves Demand curves indexed by product ID.
+     * @param from First event to apply (inclusive).
+     * @param to Last event to apply (exclusive).
+     * @throws IOException If the log cannot be read or an event has a negative product ID, in which case the events
+     * before it have been applied.
+     */
+    public void replay(SupplyCurve[] supplyCurves, DemandCurve[] demandCurves, long from, long to) throws IOException {
+        replay(supplyCurves, demandCurves, from, to, null);
+    }
+
+    /**
+     * Apply a range of events to the curves, recording checkpoints along the way.
+     * @param supplyCurves Supply curves indexed by product ID.
+     * @param demandCurves Demand curves indexed by product ID.
+     * @param from First event to apply (inclusive).
+     * @param to Last event to apply (exclusive).
+     * @param checkpoints Checkpoints to record into, or null.
+     * @throws IOException If the log cannot be read or an event has a negative product ID, in which case the events
+     * before it have been applied.
+     */
+    public void replay(SupplyCurve[] supplyCurves, DemandCurve[] demandCurves, long from, long to,
+            Checkpoints checkpoints) throws IOException {
+        if (from < 0 || to > eventCount || from > to) {
+            throw new IndexOutOfBoundsException("Invalid event range [" + from + ", " + to + ") for log of " + eventCount + " events.");
+        }
+        for (long event = from; event < to; event++) {
+            if (checkpoints != null && event % checkpoints.interval == 0) {
+                checkpoints.record(event, supplyCurves, demandCurves);
+            }
+            long offset = offset(event);
+            int productId = window.getInt((int) offset);
+            ShiftKind kind = ShiftKind.of(window.getInt((int) offset + 4));
+            double amount = window.getDouble((int) offset + 8);
+            if (productId < 0) {
+                throw new IOException("Shift event " + event + " has a negative product ID (" + productId + ").");
+            }
+
+            if (kind.isSupply()) {
+                if (productId < supplyCurves.length && supplyCurves[productId] != null) {
+                    kind.apply(supplyCurves[productId], amount);
+                }
+            } else if (productId < demandCurves.length && demandCurves[productId] != null) {
+                kind.apply(demandCurves[productId], amount);
+            }
+        }
+        if (checkpoints != null && to % checkpoints.interval == 0) {
+            checkpoints.record(to, supplyCurves, demandCurves);
+        }
+    }
+
+    /**
+     * Bring the curves to the state they had after the given number of events, starting from the nearest
+     * checkpoint at or before that event instead of from the start of the log.
+     * @param supplyCurves Supply curves indexed by product ID, as used when the checkpoints were recorded.
+     * @param demandCurves Demand curves indexed by product ID, as used when the checkpoints were recorded.
+     * @param event Number of events that should have been applied.
+     * @param checkpoints Checkpoints recorded by an earlier replay starting from the same initial curves.
+     * @throws IOException If the log cannot be read.
+     */
+    public void replayTo(SupplyCurve[] supplyCurves, DemandCurve[] demandCurves, long event, Checkpoints checkpoints) throws IOException {
+        long start = checkpoints.restore(event, supplyCurves, demandCurves);
+        replay(supplyCurves, demandCurves, start, event);
+    }
+
+    /**
+     * Get the offset of an event in the current window, mapping a new window if needed.
+     */
+    private long offset(long event) throws IOException {
+        long position = ShiftEventLog.HEADER_SIZE + event * ShiftEventLog.EVENT_SIZE;
+        if (windowStart < 0 || position < windowStart || position >= windowStart + window.capacity()) {
+            long length = Math.min(WINDOW_SIZE, ShiftEventLog.HEADER_SIZE + eventCount * ShiftEventLog.EVENT_SIZE - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            window.order(ShiftEventLog.BYTE_ORDER);
+            windowStart = position;
+        }
+        return position - windowStart;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Intercepts of every curve recorded at regular event intervals during a replay.
+     */
+    public static class Checkpoints {
+        private long interval;
+        private long[] events = new long[0];
+        private double[][] supplyIntercepts = new double[0][];
+        private double[][] demandIntercepts = new double[0][];
+        private int size;
+
+        /**
+         * Create an empty set of checkpoints.
+         * @param interval Number of events between checkpoints.
+         */
+        public Checkpoints(long interval) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("Checkpoint interval must be positive.");
+            }
+            this.interval = interval;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void record(long event, SupplyCurve[] supplyCurves, DemandCurve[] demandCurves) {
+            int index = Arrays.binarySearch(events, 0, size, event);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == events.length) {
+                int capacity = Math.max(8, size * 2);
+                events = Arrays.copyOf(events, capacity);
+                supplyIntercepts = Arrays.copyOf(supplyIntercepts, capacity);
+                demandIntercepts = Arrays.copyOf(demandIntercepts, capacity);
+            }
+            System.arraycopy(events, index, events, index + 1, size - index);
+            System.arraycopy(supplyIntercepts, index, supplyIntercepts, index + 1, size - index);
+            System.arraycopy(demandIntercepts, index, demandIntercepts, index + 1, size - index);
+
+            events[index] = event;
+            supplyIntercepts[index] = new double[supplyCurves.length];
+            for (int i = 0; i < supplyCurves.length; i++) {
+                supplyIntercepts[index][i] = supplyCurves[i] == null ? Double.NaN : supplyCurves[i].getIntercept();
+            }
+            demandIntercepts[index] = new double[demandCurves.length];
+            for (int i = 0; i < demandCurves.length; i++) {
+                demandIntercepts[index][i] = demandCurves[i] == null ? Double.NaN : demandCurves[i].getIntercept();
+            }
+            size++;
+        }
+
+        /**
+         * Restore the curves to the nearest checkpoint at or before an event.
+         * @return Event of the restored checkpoint.
+         */
+        private long restore(long event, SupplyCurve[] supplyCurves, DemandCurve[] demandCurves) {
+            int index = Arrays.binarySearch(events, 0, size, event);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index < 0) {
+                throw new IllegalStateException("No checkpoint recorded at or before event " + event + ".");
+            }
+            for (int i = 0; i < supplyCurves.length && i < supplyIntercepts[index].length; i++) {
+                if (supplyCurves[i] != null) {
+                    supplyCurves[i].setIntercept(supplyIntercepts[index][i]);
+                }
+            }
+            for (int i = 0; i < demandCurves.length && i < demandIntercepts[index].length; i++) {
+                if (demandCurves[i] != null) {
+                    demandCurves[i].setIntercept(demandIntercepts[index][i]);
+                }
+            }
+            return events[index];
+        }
+    }
+}
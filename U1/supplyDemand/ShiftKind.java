@@ -0,0 +1,125 @@
+package U1.supplyDemand;
+
+/**
+ * Enum containing every way in which a supply or demand curve can be shifted, one per curve modifier method.
+ * Used to identify events in a {@link ShiftEventLog}.
+ */
+public enum ShiftKind {
+    SUPPLY_SHIFT,
+    SUPPLY_INPUT_PRICES,
+    SUPPLY_TAX,
+    SUPPLY_SUBSIDY,
+    SUPPLY_NUMBER_OF_SELLERS,
+    SUPPLY_TECHNOLOGY,
+    SUPPLY_PRICE_OF_OTHER_GOODS,
+    DEMAND_SHIFT,
+    DEMAND_PREFERENCE,
+    DEMAND_MARKET_SIZE,
+    DEMAND_COMPLEMENTARY_GOOD_PRICE,
+    DEMAND_SUBSTITUTE_GOOD_PRICE,
+    DEMAND_CONSUMER_INCOME,
+    DEMAND_EXPECTATIONS;
+
+    private static final ShiftKind[] KINDS = values();
+
+    /**
+     * Get a shift kind from its ordinal without allocating.
+     * @param ordinal Ordinal of the shift kind.
+     * @return The shift kind.
+     */
+    public static ShiftKind of(int ordinal) {
+        if (ordinal < 0 || ordinal >= KINDS.length) {
+            throw new IllegalArgumentException("Unknown shift kind " + ordinal + ".");
+        }
+        return KINDS[ordinal];
+    }
+
+    public boolean isSupply() {
+        return ordinal() <= SUPPLY_PRICE_OF_OTHER_GOODS.ordinal();
+    }
+
+    /**
+     * Get how far the modifier method of this kind moves the intercept of its curve per unit of its argument.
+     * @param isInferiorGood Whether the demanded good is an inferior good, which reverses the effect of consumer income.
+     * @return 1 if the curve shifts rightward as the argument increases, -1 if it shifts leftward.
+     */
+    public double interceptChange(boolean isInferiorGood) {
+        switch (this) {
+            case SUPPLY_INPUT_PRICES:
+            case SUPPLY_TAX:
+            case SUPPLY_PRICE_OF_OTHER_GOODS:
+            case DEMAND_COMPLEMENTARY_GOOD_PRICE:
+                return -1;
+            case DEMAND_CONSUMER_INCOME:
+                return isInferiorGood ? -1 : 1;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Apply a shift of this kind to a supply curve, calling the corresponding modifier method.
+     * @param curve Curve to shift.
+     * @param amount Argument of the modifier method (truncated for methods taking an int).
+     */
+    public void apply(SupplyCurve curve, double amount) {
+        switch (this) {
+            case SUPPLY_SHIFT:
+                curve.shiftSupplyCurve(amount);
+                break;
+            case SUPPLY_INPUT_PRICES:
+                curve.increaseInputPrices(amount);
+                break;
+            case SUPPLY_TAX:
+                curve.adjustForGovernmentTools(amount, 0);
+                break;
+            case SUPPLY_SUBSIDY:
+                curve.adjustForGovernmentTools(0, amount);
+                break;
+            case SUPPLY_NUMBER_OF_SELLERS:
+                curve.increaseNumberOfSellers((int) amount);
+                break;
+            case SUPPLY_TECHNOLOGY:
+                curve.improveTechnology(amount);
+                break;
+            case SUPPLY_PRICE_OF_OTHER_GOODS:
+                curve.increasePriceOfOtherGoods(amount);
+                break;
+            default:
+                throw new IllegalArgumentException("Attempted to apply demand shift " + this + " to a supply curve.");
+        }
+    }
+
+    /**
+     * Apply a shift of this kind to a demand curve, calling the corresponding modifier method.
+     * @param curve Curve to shift.
+     * @param amount Argument of the modifier method (truncated for methods taking an int).
+     */
+    public void apply(DemandCurve curve, double amount) {
+        switch (this) {
+            case DEMAND_SHIFT:
+                curve.shiftDemandCurve(amount);
+                break;
+            case DEMAND_PREFERENCE:
+                curve.increasePreferenceForProduct(amount);
+                break;
+            case DEMAND_MARKET_SIZE:
+                curve.increaseMarketSize((int) amount);
+                break;
+            case DEMAND_COMPLEMENTARY_GOOD_PRICE:
+                curve.increaseComplementaryGoodPrice(amount);
+                break;
+            case DEMAND_SUBSTITUTE_GOOD_PRICE:
+                curve.increaseSubstituteGoodPrice(amount);
+                break;
+            case DEMAND_CONSUMER_INCOME:
+                curve.increaseConsumerIncome(amount);
+                break;
+            case DEMAND_EXPECTATIONS:
+                curve.increaseExpectationsForProduct(amount);
+                break;
+            default:
+                throw new IllegalArgumentException("Attempted to apply supply shift " + this + " to a demand curve.");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package U1.supplyDemand;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Base class for accumulating shifts of a curve from many threads at once.
+ * Shifts are added to a striped {@link DoubleAdder} without contention and folded into the curve
+ * by {@link #flush()}, which happens on every read through the accumulator and optionally at a fixed interval.
+ */
+public abstract class ShockAccumulator {
+    private DoubleAdder pending = new DoubleAdder();
+
+    /**
+     * Record a shift of the curve, to be applied on the next flush.
+     * @param shiftAmount Amount by which to shift curve. Increase shifts curve rightward.
+     */
+    protected void shift(double shiftAmount) {
+        pending.add(shiftAmount);
+    }
+
+    /**
+     * Apply the accumulated shift to the curve.
+     * @param shiftAmount Sum of the shifts recorded since the last flush.
+     */
+    protected abstract void apply(double shiftAmount);
+
+    /**
+     * Get the sum of the shifts recorded since the last flush. Only exact when no shifts are being recorded concurrently.
+     * @return Pending shift amount.
+     */
+    public double getPendingShift() {
+        return pending.sum();
+    }
+
+    /**
+     * Fold all pending shifts into the curve.
+     */
+    public synchronized void flush() {
+        double shiftAmount = pending.sumThenReset();
+        if (shiftAmount != 0) {
+            apply(shiftAmount);
+        }
+    }
+
+    /**
+     * Flush pending shifts at a fixed interval.
+     * @param executor Executor on which to run the flushes.
+     * @param interval Time between flushes.
+     * @param unit Unit of the interval.
+     * @return Future that can be cancelled to stop flushing.
+     */
+    public ScheduledFuture<?> flushEvery(ScheduledExecutorService executor, long interval, TimeUnit unit) {
+        return executor.scheduleAtFixedRate(this::flush, interval, interval, unit);
+    }
+}
@@ -0,0 +1,51 @@
+package U1.supplyDemand;
+
+/**
+ * Range of prices or quantities over which a supply-demand model stays in the same economic state.
+ * Both ends are inclusive. For quantity ranges the ends are whole numbers.
+ */
+public final class StateInterval {
+    private final SupplyDemandModel.SupplyDemandState state;
+    private final double start;
+    private final double end;
+
+    /**
+     * Create a new state interval.
+     * @param state Economic state throughout the interval.
+     * @param start First price or quantity of the interval.
+     * @param end Last price or quantity of the interval.
+     */
+    public StateInterval(SupplyDemandModel.SupplyDemandState state, double start, double end) {
+        this.state = state;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Accessor methods
+
+    public SupplyDemandModel.SupplyDemandState getState() {
+        return state;
+    }
+
+    public double getStart() {
+        return start;
+    }
+
+    public double getEnd() {
+        return end;
+    }
+
+    /**
+     * Check whether a price or quantity lies in the interval.
+     * @param value Price or quantity.
+     * @return true if the value is between the start and end of the interval, false otherwise.
+     */
+    public boolean contains(double value) {
+        return value >= start && value <= end;
+    }
+
+    @Override
+    public String toString() {
+        return state + " [" + start + ", " + end + "]";
+    }
+}
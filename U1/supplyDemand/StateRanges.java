@@ -0,0 +1,267 @@
+package U1.supplyDemand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import U1.supplyDemand.SupplyDemandModel.SupplyDemandState;
+
+/**
+ * Range queries returning the economic state of supply-demand markets over a whole range of prices or quantities,
+ * as the intervals {@link SupplyDemandModel#getEconomicStateGivenP(double)} and
+ * {@link SupplyDemandModel#getEconomicStateGivenQ(int)} would give point by point.
+ * Market i of the bulk queries is described by element i of each parameter array, using the same intercept and
+ * slope conventions as {@link SupplyCurve} and {@link DemandCurve}.
+ */
+public class StateRanges {
+
+    private StateRanges() {
+    }
+
+    /**
+     * Get the economic state of every market over a range of prices.
+     * @param supplyIntercepts Intercepts of the supply curves.
+     * @param supplySlopes Slopes of the supply curves.
+     * @param demandIntercepts Intercepts of the demand curves.
+     * @param demandSlopes Slopes of the demand curves.
+     * @param minPrice Lowest price of the range.
+     * @param maxPrice Highest price of the range.
+     * @return Intervals covering the price range in ascending order, for each market.
+     */
+    public static StateInterval[][] statesGivenP(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts,
+            double[] demandSlopes, double minPrice, double maxPrice) {
+        int markets = checkLengths(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes);
+        StateInterval[][] states = new StateInterval[markets][];
+        for (int i = 0; i < markets; i++) {
+            states[i] = statesGivenP(supplyIntercepts[i], supplySlopes[i], demandIntercepts[i], demandSlopes[i],
+                    minPrice, maxPrice).toArray(new StateInterval[0]);
+        }
+        return states;
+    }
+
+    /**
+     * Get the economic state of every market over a range of quantities.
+     * @param supplyIntercepts Intercepts of the supply curves.
+     * @param supplySlopes Slopes of the supply curves.
+     * @param demandIntercepts Intercepts of the demand curves.
+     * @param demandSlopes Slopes of the demand curves.
+     * @param minQuantity Lowest quantity of the range.
+     * @param maxQuantity Highest quantity of the range.
+     * @return Intervals covering the quantity range in ascending order, for each market.
+     */
+    public static StateInterval[][] statesGivenQ(double[] supplyIntercepts, double[] supplySlopes, double[] demandIntercepts,
+            double[] demandSlopes, int minQuantity, int maxQuantity) {
+        int markets = checkLengths(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes);
+        StateInterval[][] states = new StateInterval[markets][];
+        for (int i = 0; i < markets; i++) {
+            states[i] = statesGivenQ(supplyIntercepts[i], supplySlopes[i], demandIntercepts[i], demandSlopes[i],
+                    minQuantity, maxQuantity).toArray(new StateInterval[0]);
+        }
+        return states;
+    }
+
+    /**
+     * Get the economic state of one market over a range of quantities.
+     * Both prices are linear in the quantity, so the state can only change around the quantity at which the curves
+     * cross. Only the whole quantities next to the crossing are evaluated; the rest of the range takes the state
+     * of its ends.
+     */
+    static List<StateInterval> statesGivenQ(double supplyIntercept, double supplySlope, double demandIntercept,
+            double demandSlope, int minQuantity, int maxQuantity) {
+        if (minQuantity > maxQuantity) {
+            throw new IllegalArgumentException("Attempted to query an empty range of quantities.");
+        }
+        Intervals intervals = new Intervals();
+        double crossing = (demandIntercept - supplyIntercept) / (supplySlope - demandSlope);
+        double low = Math.floor(crossing) - 1;
+        double high = Math.ceil(crossing) + 1;
+        // Parallel curves (infinite or NaN crossing) keep the same state at every quantity
+        if (!(high >= minQuantity && low <= maxQuantity)) {
+            intervals.add(stateGivenQ(supplyIntercept, supplySlope, demandIntercept, demandSlope, minQuantity),
+                    minQuantity, maxQuantity);
+            return intervals.list;
+        }
+
+        int first = (int) Math.max(minQuantity, low);
+        int last = (int) Math.min(maxQuantity, high);
+        if (first > minQuantity) {
+            intervals.add(stateGivenQ(supplyIntercept, supplySlope, demandIntercept, demandSlope, minQuantity),
+                    minQuantity, first - 1);
+        }
+        for (int quantity = first; quantity <= last; quantity++) {
+            intervals.add(stateGivenQ(supplyIntercept, supplySlope, demandIntercept, demandSlope, quantity),
+                    quantity, quantity);
+        }
+        if (last < maxQuantity) {
+            intervals.add(stateGivenQ(supplyIntercept, supplySlope, demandIntercept, demandSlope, maxQuantity),
+                    last + 1, maxQuantity);
+        }
+        return intervals.list;
+    }
+
+    /**
+     * Get the economic state of one market over a range of prices.
+     * Quantities are truncated to whole numbers, so the equilibrium spans the prices at which both quantities
+     * truncate to the same number and its ends fall on truncation steps. Boundaries are found by bisection over the
+     * representable prices, so they match the point queries exactly. Subranges are skipped as soon as the state is
+     * known to be constant over them: when both quantities move in opposite directions (the usual case of slopes with
+     * opposite signs) their difference is monotone, so equal states at both ends imply a constant state in between.
+     */
+    static List<StateInterval> statesGivenP(double supplyIntercept, double supplySlope, double demandIntercept,
+            double demandSlope, double minPrice, double maxPrice) {
+        if (!(minPrice <= maxPrice)) {
+            throw new IllegalArgumentException("Attempted to query an empty range of prices.");
+        }
+        PriceRange range = new PriceRange(supplyIntercept, supplySlope, demandIntercept, demandSlope);
+        long low = key(minPrice);
+        long high = key(maxPrice);
+        range.fill(low, high, range.stateAt(low), range.stateAt(high));
+        return range.intervals.list;
+    }
+
+    static SupplyDemandState stateGivenP(double supplyIntercept, double supplySlope, double demandIntercept,
+            double demandSlope, double price) {
+        int qs = quantityGivenP(supplyIntercept, supplySlope, price);
+        int qd = quantityGivenP(demandIntercept, demandSlope, price);
+        if (qs > qd) {
+            return SupplyDemandState.SURPLUS;
+        } else if (qs < qd) {
+            return SupplyDemandState.SHORTAGE;
+        }
+        return SupplyDemandState.EQUILIBRIUM;
+    }
+
+    static SupplyDemandState stateGivenQ(double supplyIntercept, double supplySlope, double demandIntercept,
+            double demandSlope, int quantity) {
+        double ps = supplyIntercept + (supplySlope * quantity);
+        double pd = demandIntercept + (demandSlope * quantity);
+        if (ps > pd) {
+            return SupplyDemandState.SHORTAGE;
+        } else if (ps < pd) {
+            return SupplyDemandState.SURPLUS;
+        }
+        return SupplyDemandState.EQUILIBRIUM;
+    }
+
+    /**
+     * Same truncation and clamping as {@link SupplyCurve#getQsGivenP(double)} and {@link DemandCurve#getQdGivenP(double)}.
+     */
+    private static int quantityGivenP(double intercept, double slope, double price) {
+        return (int) Math.max(0, (intercept - price) / slope);
+    }
+
+    /**
+     * Map a price to a long with the same ordering, so that adjacent prices map to adjacent longs.
+     */
+    private static long key(double price) {
+        long bits = Double.doubleToRawLongBits(price);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static double price(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+
+    private static int checkLengths(double[]... arrays) {
+        int markets = arrays[0].length;
+        for (double[] array : arrays) {
+            if (array.length != markets) {
+                throw new IllegalArgumentException("Attempted to query markets using arrays of mismatched lengths.");
+            }
+        }
+        return markets;
+    }
+
+    /**
+     * Intervals in ascending order, merging neighbours with the same state.
+     */
+    private static class Intervals {
+        private List<StateInterval> list = new ArrayList<>();
+
+        void add(SupplyDemandState state, double start, double end) {
+            int last = list.size() - 1;
+            if (last >= 0 && list.get(last).getState() == state) {
+                list.set(last, new StateInterval(state, list.get(last).getStart(), end));
+            } else {
+                list.add(new StateInterval(state, start, end));
+            }
+        }
+    }
+
+    private static class PriceRange {
+        private double supplyIntercept;
+        private double supplySlope;
+        private double demandIntercept;
+        private double demandSlope;
+        private boolean monotone;
+        private Intervals intervals = new Intervals();
+
+        PriceRange(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope) {
+            this.supplyIntercept = supplyIntercept;
+            this.supplySlope = supplySlope;
+            this.demandIntercept = demandIntercept;
+            this.demandSlope = demandSlope;
+            this.monotone = (supplySlope >= 0 && demandSlope <= 0) || (supplySlope <= 0 && demandSlope >= 0);
+        }
+
+        SupplyDemandState stateAt(long key) {
+            return stateGivenP(supplyIntercept, supplySlope, demandIntercept, demandSlope, price(key));
+        }
+
+        void fill(long low, long high, SupplyDemandState lowState, SupplyDemandState highState) {
+            if (lowState == highState && isConstant(low, high, lowState)) {
+                intervals.add(lowState, price(low), price(high));
+                return;
+            }
+            if (low == high) {
+                intervals.add(lowState, price(low), price(low));
+                return;
+            }
+            long mid = (low >> 1) + (high >> 1) + (low & high & 1);
+            fill(low, mid, lowState, stateAt(mid));
+            fill(mid + 1, high, stateAt(mid + 1), highState);
+        }
+
+        /**
+         * Check whether the state is known to be the same at every price between two prices where it is the same.
+         */
+        private boolean isConstant(long low, long high, SupplyDemandState state) {
+            if (monotone) {
+                return true;
+            }
+            // Both quantities move in the same direction, so each one's range over the interval is given by its ends
+            double lowPrice = price(low);
+            double highPrice = price(high);
+            int qsLow = quantityGivenP(supplyIntercept, supplySlope, lowPrice);
+            int qsHigh = quantityGivenP(supplyIntercept, supplySlope, highPrice);
+            int qdLow = quantityGivenP(demandIntercept, demandSlope, lowPrice);
+            int qdHigh = quantityGivenP(demandIntercept, demandSlope, highPrice);
+            switch (state) {
+                case SURPLUS:
+                    return Math.min(qsLow, qsHigh) > Math.max(qdLow, qdHigh)
+                            || separated(supplyIntercept, supplySlope, demandIntercept, demandSlope, lowPrice, highPrice);
+                case SHORTAGE:
+                    return Math.min(qdLow, qdHigh) > Math.max(qsLow, qsHigh)
+                            || separated(demandIntercept, demandSlope, supplyIntercept, supplySlope, lowPrice, highPrice);
+                default:
+                    return qsLow == qsHigh && qdLow == qdHigh;
+            }
+        }
+
+        /**
+         * Check whether the untruncated quantity of the first curve stays at least two units above the clamped quantity
+         * of the second between two prices. The gap is concave in the price, so checking both ends is enough, and a gap
+         * of two units leaves room for rounding while still guaranteeing a larger truncated quantity.
+         */
+        private static boolean separated(double intercept, double slope, double otherIntercept, double otherSlope,
+                double lowPrice, double highPrice) {
+            return separated(intercept, slope, otherIntercept, otherSlope, lowPrice)
+                    && separated(intercept, slope, otherIntercept, otherSlope, highPrice);
+        }
+
+        private static boolean separated(double intercept, double slope, double otherIntercept, double otherSlope, double price) {
+            double quantity = (intercept - price) / slope;
+            double other = Math.max(0, (otherIntercept - price) / otherSlope);
+            return quantity - other >= 2 && other < Integer.MAX_VALUE - 2;
+        }
+    }
+}
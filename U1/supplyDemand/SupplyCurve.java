@@ -1,14 +1,21 @@
 package U1.supplyDemand;
 
+import java.util.Arrays;
+
 import U1.PPC.Product;
+import U1.metrics.MethodMetrics;
+import U1.metrics.Metrics;
 
 /**
  * Model for a linear supply curve in a given economy.
  */
-public class SupplyCurve {
+public class SupplyCurve implements Curve {
+    private static final MethodMetrics SHIFT_SUPPLY_CURVE = Metrics.method("SupplyCurve", "shiftSupplyCurve");
+
     private Product product;
     private double intercept; 
     private double slope; 
+    private SupplyDemandModel[] models = new SupplyDemandModel[0];
 
     /**
      * Create a supply curve using a linear supply function.
@@ -23,6 +30,7 @@ public class SupplyCurve {
 
     // Accessor methods
 
+    @Override
     public Product getProduct() {
         return product;
     }
@@ -53,12 +61,107 @@ public class SupplyCurve {
         return (int) Math.max(0, (intercept - price) / slope); 
     }
 
+    /**
+     * Get the price of the product at each of a set of quantities, as {@link #getPgivenQs(int)} does.
+     * @param quantities Quantities produced.
+     * @param priceOut Array receiving the prices.
+     */
+    public void getPgivenQs(int[] quantities, double[] priceOut) {
+        CurveKernels.pricesGivenQuantities(intercept, slope, quantities, priceOut);
+    }
+
+    /**
+     * Get the quantity of the product supplied at each of a set of prices, as {@link #getQsGivenP(double)} does.
+     * @param prices Prices of good.
+     * @param quantityOut Array receiving the quantities.
+     */
+    public void getQsGivenP(double[] prices, int[] quantityOut) {
+        CurveKernels.quantitiesGivenPrices(intercept, slope, prices, quantityOut);
+    }
+
+    @Override
+    public double getPriceGivenQuantity(int quantity) {
+        return getPgivenQs(quantity);
+    }
+
+    /**
+     * Get the quantity at a certain price by inverting {@link #getPriceGivenQuantity(int)}, as the other
+     * {@link Curve} implementations do. Unlike {@link #getQsGivenP(double)}, which keeps the original
+     * (intercept - price) / slope form, this returns (price - intercept) / slope, truncated and never negative.
+     * @param price Price of good.
+     * @return Quantity at the given price.
+     */
+    @Override
+    public int invertPrice(double price) {
+        return (int) Math.max(0, (price - intercept) / slope);
+    }
+
+    @Override
+    public void shift(double shiftAmount) {
+        shiftSupplyCurve(shiftAmount);
+    }
+
+    /**
+     * Set the intercept directly, used to restore a curve from a checkpoint.
+     * @param intercept New intercept.
+     */
+    void setIntercept(double intercept) {
+        this.intercept = intercept;
+        interceptChanged();
+    }
+
+    /**
+     * Replace every parameter of the curve, used to point a reusable curve at another market.
+     * @param product Product traded.
+     * @param intercept New intercept.
+     * @param slope New slope.
+     */
+    void set(Product product, double intercept, double slope) {
+        this.product = product;
+        this.slope = slope;
+        setIntercept(intercept);
+    }
+
+    /**
+     * Start notifying a model whenever the intercept changes, used by models that keep their equilibrium up to date.
+     * @param model Model to notify.
+     */
+    void addModel(SupplyDemandModel model) {
+        models = Arrays.copyOf(models, models.length + 1);
+        models[models.length - 1] = model;
+    }
+
+    /**
+     * Stop notifying a model when the intercept changes.
+     * @param model Model to stop notifying.
+     */
+    void removeModel(SupplyDemandModel model) {
+        for (int i = 0; i < models.length; i++) {
+            if (models[i] == model) {
+                SupplyDemandModel[] remaining = new SupplyDemandModel[models.length - 1];
+                System.arraycopy(models, 0, remaining, 0, i);
+                System.arraycopy(models, i + 1, remaining, i, remaining.length - i);
+                models = remaining;
+                return;
+            }
+        }
+    }
+
+    private void interceptChanged() {
+        for (SupplyDemandModel model : models) {
+            model.curveShifted();
+        }
+    }
+
     /**
      * Shift supply curve by a certain amount. 
      * @param shiftAmount Amount by which to shift curve. Increase shifts curve rightward.
      */
     public void shiftSupplyCurve(double shiftAmount) {
+        long start = Metrics.start();
         intercept += shiftAmount;
+        interceptChanged();
+        SHIFT_SUPPLY_CURVE.stop(start);
     }
 
     /**
@@ -1,16 +1,39 @@
 package U1.supplyDemand;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import U1.PPC.Product;
+import U1.metrics.MethodMetrics;
+import U1.metrics.Metrics;
 
 /**
  * Simple supply-demand model for evaluating the production of goods at 
  * different price and quantity points.
  */
 public class SupplyDemandModel {
+    private static final MethodMetrics GET_ECONOMIC_STATE_GIVEN_Q = Metrics.method("SupplyDemandModel", "getEconomicStateGivenQ");
+    private static final MethodMetrics GET_ECONOMIC_STATE_GIVEN_P = Metrics.method("SupplyDemandModel", "getEconomicStateGivenP");
+    private static final MethodMetrics GET_EQUILIBRIUM_QUANTITY = Metrics.method("SupplyDemandModel", "getEquilibriumQuantity");
+    private static final MethodMetrics GET_EQUILIBRIUM_PRICE = Metrics.method("SupplyDemandModel", "getEquilibriumPrice");
+    // Number of states converted from ordinals at a time by getEconomicStateGivenP(double[], SupplyDemandState[])
+    private static final int STATE_CHUNK = 1024;
+
     private Product product;
     private SupplyCurve supplyCurve;
     private DemandCurve demandCurve;
 
+    // Equilibrium kept up to date while listeners are registered
+    private List<EquilibriumListener> listeners = new ArrayList<>();
+    private double notificationThreshold;
+    private int batchDepth;
+    private EquilibriumType type;
+    private double price;
+    private double quantity;
+    private EquilibriumType notifiedType;
+    private double notifiedPrice;
+    private double notifiedQuantity;
+
     /**
      * Enum containing all the possible states of an economy modeled using a supply-demand model.
      */
@@ -20,6 +43,15 @@ public class SupplyDemandModel {
         EQUILIBRIUM
     }
 
+    /**
+     * Enum containing the possible ways in which the supply and demand curves can cross.
+     */
+    public enum EquilibriumType {
+        UNIQUE,
+        NO_CROSSING,
+        COINCIDENT
+    }
+
     /**
      * Create a new supply-demand model.
      * @param supplyCurve Supply curve.
@@ -48,6 +80,15 @@ public class SupplyDemandModel {
         return demandCurve;
     }
 
+    /**
+     * Take an immutable snapshot of the current state of both curves.
+     * @return Snapshot unaffected by later shifts of the curves.
+     */
+    public SupplyDemandSnapshot snapshot() {
+        return new SupplyDemandSnapshot(product, supplyCurve.getIntercept(), supplyCurve.getSlope(),
+                demandCurve.getIntercept(), demandCurve.getSlope(), demandCurve.isInferiorGood());
+    }
+
     /**
      * Get the economic state given a certain amount of a good being
      * produced.
@@ -55,16 +96,21 @@ public class SupplyDemandModel {
      * @return
      */
     public SupplyDemandState getEconomicStateGivenQ(int quantity) {
+        long start = Metrics.start();
 
         var ps = supplyCurve.getPgivenQs(quantity);
         var pd = demandCurve.getPGivenQd(quantity);
 
+        SupplyDemandState state;
         if (ps > pd) {
-            return SupplyDemandState.SHORTAGE;
+            state = SupplyDemandState.SHORTAGE;
         } else if (ps < pd) {
-            return SupplyDemandState.SURPLUS;
+            state = SupplyDemandState.SURPLUS;
+        } else {
+            state = SupplyDemandState.EQUILIBRIUM;
         }
-        return SupplyDemandState.EQUILIBRIUM;
+        GET_ECONOMIC_STATE_GIVEN_Q.stop(start);
+        return state;
     }
 
     /**
@@ -73,16 +119,251 @@ public class SupplyDemandModel {
      * @return The economic state.
      */
     public SupplyDemandState getEconomicStateGivenP(double price) {
+        long start = Metrics.start();
 
         var qs = supplyCurve.getQsGivenP(price);
         var qd = demandCurve.getQdGivenP(price);
 
+        SupplyDemandState state;
         if (qs > qd) {
-            return SupplyDemandState.SURPLUS;
+            state = SupplyDemandState.SURPLUS;
         } else if (qs < qd) {
-            return SupplyDemandState.SHORTAGE;
-        } 
-        return SupplyDemandState.EQUILIBRIUM;
+            state = SupplyDemandState.SHORTAGE;
+        } else {
+            state = SupplyDemandState.EQUILIBRIUM;
+        }
+        GET_ECONOMIC_STATE_GIVEN_P.stop(start);
+        return state;
+    }
+
+    /**
+     * Get the economic state at each of a set of prices, as {@link #getEconomicStateGivenP(double)} does.
+     * Use {@link CurveKernels#statesGivenPrices} directly to receive the states as ordinals without this conversion.
+     * @param prices Prices of good.
+     * @param stateOut Array receiving the economic states.
+     */
+    public void getEconomicStateGivenP(double[] prices, SupplyDemandState[] stateOut) {
+        if (prices.length != stateOut.length) {
+            throw new IllegalArgumentException("Attempted to evaluate a market into an output array of mismatched length.");
+        }
+        SupplyDemandState[] states = SupplyDemandState.values();
+        double supplyIntercept = supplyCurve.getIntercept();
+        double supplySlope = supplyCurve.getSlope();
+        double demandIntercept = demandCurve.getIntercept();
+        double demandSlope = demandCurve.getSlope();
+        // Ordinals go through a small buffer that stays in cache, reused for every chunk of the prices
+        byte[] chunkStates = new byte[Math.min(prices.length, STATE_CHUNK)];
+        for (int from = 0; from < prices.length; from += chunkStates.length) {
+            int length = Math.min(chunkStates.length, prices.length - from);
+            CurveKernels.statesGivenPrices(supplyIntercept, supplySlope, demandIntercept, demandSlope,
+                    prices, from, chunkStates, 0, length);
+            for (int i = 0; i < length; i++) {
+                stateOut[from + i] = states[chunkStates[i]];
+            }
+        }
+    }
+
+    /**
+     * Get the economic state over a whole range of quantities, as {@link #getEconomicStateGivenQ(int)} would give
+     * for each quantity in the range. The state only changes around the quantity at which the curves cross, so
+     * the cost does not depend on the size of the range.
+     * @param minQuantity Lowest quantity of the range.
+     * @param maxQuantity Highest quantity of the range.
+     * @return Intervals covering the range in ascending order, with neighbouring intervals in different states.
+     */
+    public List<StateInterval> getEconomicStatesGivenQ(int minQuantity, int maxQuantity) {
+        return StateRanges.statesGivenQ(supplyCurve.getIntercept(), supplyCurve.getSlope(),
+                demandCurve.getIntercept(), demandCurve.getSlope(), minQuantity, maxQuantity);
+    }
+
+    /**
+     * Get the economic state over a whole range of prices, as {@link #getEconomicStateGivenP(double)} would give
+     * for each price in the range. Interval boundaries follow the same truncation of quantities as the curves.
+     * @param minPrice Lowest price of the range.
+     * @param maxPrice Highest price of the range.
+     * @return Intervals covering the range in ascending order, with neighbouring intervals in different states.
+     */
+    public List<StateInterval> getEconomicStatesGivenP(double minPrice, double maxPrice) {
+        return StateRanges.statesGivenP(supplyCurve.getIntercept(), supplyCurve.getSlope(),
+                demandCurve.getIntercept(), demandCurve.getSlope(), minPrice, maxPrice);
+    }
+
+    /**
+     * Get the way in which the supply and demand curves cross.
+     * Curves with equal slopes are either coincident or never cross, and curves that only cross
+     * at a negative quantity are treated as not crossing.
+     * @return The type of equilibrium.
+     */
+    public EquilibriumType getEquilibriumType() {
+        if (isTracking()) {
+            return type;
+        }
+        return equilibriumType(supplyCurve.getIntercept(), supplyCurve.getSlope(),
+                demandCurve.getIntercept(), demandCurve.getSlope());
+    }
+
+    /**
+     * Get the quantity at which the price producers ask equals the price consumers pay.
+     * @return Equilibrium quantity, or NaN if there is no unique equilibrium.
+     */
+    public double getEquilibriumQuantity() {
+        long start = Metrics.start();
+        double equilibriumQuantity = isTracking() ? quantity
+                : equilibriumQuantity(supplyCurve.getIntercept(), supplyCurve.getSlope(),
+                        demandCurve.getIntercept(), demandCurve.getSlope());
+        GET_EQUILIBRIUM_QUANTITY.stop(start);
+        return equilibriumQuantity;
+    }
+
+    /**
+     * Get the price at which the price producers ask equals the price consumers pay.
+     * @return Equilibrium price, or NaN if there is no unique equilibrium.
+     */
+    public double getEquilibriumPrice() {
+        long start = Metrics.start();
+        double equilibriumPrice = isTracking() ? price
+                : equilibriumPrice(supplyCurve.getIntercept(), supplyCurve.getSlope(),
+                        demandCurve.getIntercept(), demandCurve.getSlope());
+        GET_EQUILIBRIUM_PRICE.stop(start);
+        return equilibriumPrice;
+    }
+
+    public double getNotificationThreshold() {
+        return notificationThreshold;
+    }
+
+    /**
+     * Set how far the equilibrium price or quantity must move from the last notified value before listeners
+     * are notified again. Changes of equilibrium type are always notified.
+     * @param notificationThreshold Smallest change that is notified (0 to notify every change).
+     */
+    public void setNotificationThreshold(double notificationThreshold) {
+        if (notificationThreshold < 0) {
+            throw new IllegalArgumentException("Attempted to set a negative notification threshold.");
+        }
+        this.notificationThreshold = notificationThreshold;
+    }
+
+    /**
+     * Register a listener to be notified when the equilibrium changes.
+     * While at least one listener is registered, the model is notified of every shift of its curves and keeps
+     * its equilibrium up to date, so the equilibrium getters no longer solve for it on each call.
+     * @param listener Listener to notify.
+     */
+    public void addEquilibriumListener(EquilibriumListener listener) {
+        if (listeners.isEmpty()) {
+            supplyCurve.addModel(this);
+            demandCurve.addModel(this);
+            updateEquilibrium();
+            notifiedType = type;
+            notifiedPrice = price;
+            notifiedQuantity = quantity;
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop notifying a listener when the equilibrium changes.
+     * @param listener Listener to remove.
+     */
+    public void removeEquilibriumListener(EquilibriumListener listener) {
+        if (listeners.remove(listener) && listeners.isEmpty()) {
+            supplyCurve.removeModel(this);
+            demandCurve.removeModel(this);
+        }
+    }
+
+    /**
+     * Start a batch of shifts. Until the matching {@link #endBatch()}, the equilibrium is still kept up to date
+     * but listeners are not notified, so a burst of shifts results in at most one notification.
+     * Batches may be nested.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * End a batch of shifts, notifying listeners if the equilibrium changed enough during the batch.
+     */
+    public void endBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("Attempted to end a batch of shifts that was never started.");
+        }
+        if (--batchDepth == 0 && isTracking()) {
+            notifyIfChanged();
+        }
+    }
+
+    private boolean isTracking() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Change the product of the model after both curves were pointed at another market.
+     * @param product Product of both curves.
+     */
+    void setProduct(Product product) {
+        this.product = product;
+    }
+
+    /**
+     * Called by the curves whenever their intercept changes. Only the intercepts move, so the equilibrium is
+     * solved again in closed form from the current intercepts rather than by searching for a new crossing.
+     */
+    void curveShifted() {
+        updateEquilibrium();
+        if (batchDepth == 0) {
+            notifyIfChanged();
+        }
+    }
+
+    private void updateEquilibrium() {
+        double supplyIntercept = supplyCurve.getIntercept();
+        double supplySlope = supplyCurve.getSlope();
+        double demandIntercept = demandCurve.getIntercept();
+        double demandSlope = demandCurve.getSlope();
+        type = equilibriumType(supplyIntercept, supplySlope, demandIntercept, demandSlope);
+        quantity = equilibriumQuantity(supplyIntercept, supplySlope, demandIntercept, demandSlope);
+        price = supplyIntercept + supplySlope * quantity;
+    }
+
+    private void notifyIfChanged() {
+        boolean changed = type != notifiedType
+                || (type == EquilibriumType.UNIQUE
+                        && (Math.abs(price - notifiedPrice) > notificationThreshold
+                                || Math.abs(quantity - notifiedQuantity) > notificationThreshold));
+        if (!changed) {
+            return;
+        }
+        EquilibriumType previousType = notifiedType;
+        double previousPrice = notifiedPrice;
+        double previousQuantity = notifiedQuantity;
+        notifiedType = type;
+        notifiedPrice = price;
+        notifiedQuantity = quantity;
+        for (EquilibriumListener listener : new ArrayList<>(listeners)) {
+            listener.equilibriumChanged(this, previousType, previousPrice, previousQuantity);
+        }
+    }
+
+    // Closed-form solutions of intercept + slope * quantity for both curves, shared with batch solvers
+
+    static EquilibriumType equilibriumType(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope) {
+        if (supplySlope == demandSlope) {
+            return supplyIntercept == demandIntercept ? EquilibriumType.COINCIDENT : EquilibriumType.NO_CROSSING;
+        }
+        return equilibriumQuantity(supplyIntercept, supplySlope, demandIntercept, demandSlope) >= 0
+                ? EquilibriumType.UNIQUE
+                : EquilibriumType.NO_CROSSING;
+    }
+
+    static double equilibriumQuantity(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope) {
+        double quantity = (demandIntercept - supplyIntercept) / (supplySlope - demandSlope);
+        return quantity >= 0 && quantity != Double.POSITIVE_INFINITY ? quantity : Double.NaN;
+    }
+
+    static double equilibriumPrice(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope) {
+        return supplyIntercept + supplySlope * equilibriumQuantity(supplyIntercept, supplySlope, demandIntercept, demandSlope);
     }
 
 }
@@ -0,0 +1,157 @@
+package U1.supplyDemand;
+
+import U1.PPC.Product;
+
+/**
+ * Immutable snapshot of a supply-demand model, safe to share between threads without locking.
+ * Shifts produce a new snapshot instead of modifying this one, so a snapshot can be published through
+ * an {@link java.util.concurrent.atomic.AtomicReference} and updated with
+ * {@code ref.updateAndGet(s -> s.withDemandShift(amount))}. Readers always see the intercepts and slopes
+ * of both curves from the same snapshot.
+ */
+public final class SupplyDemandSnapshot {
+    private final Product product;
+    private final double supplyIntercept;
+    private final double supplySlope;
+    private final double demandIntercept;
+    private final double demandSlope;
+    private final boolean isInferiorGood;
+
+    /**
+     * Create a new snapshot from the parameters of both curves.
+     * @param product Product traded in the market.
+     * @param supplyIntercept Intercept of supply function.
+     * @param supplySlope Slope of supply function.
+     * @param demandIntercept Intercept of demand function.
+     * @param demandSlope Slope of demand function.
+     * @param isInferiorGood Whether the demanded good is an inferior good.
+     */
+    public SupplyDemandSnapshot(Product product, double supplyIntercept, double supplySlope,
+            double demandIntercept, double demandSlope, boolean isInferiorGood) {
+        this.product = product;
+        this.supplyIntercept = supplyIntercept;
+        this.supplySlope = supplySlope;
+        this.demandIntercept = demandIntercept;
+        this.demandSlope = demandSlope;
+        this.isInferiorGood = isInferiorGood;
+    }
+
+    // Accessor methods
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public double getSupplyIntercept() {
+        return supplyIntercept;
+    }
+
+    public double getSupplySlope() {
+        return supplySlope;
+    }
+
+    public double getDemandIntercept() {
+        return demandIntercept;
+    }
+
+    public double getDemandSlope() {
+        return demandSlope;
+    }
+
+    public boolean isInferiorGood() {
+        return isInferiorGood;
+    }
+
+    // Curve queries, same as the corresponding methods of SupplyCurve and DemandCurve
+
+    public double getPgivenQs(int quantity) {
+        return supplyIntercept + (supplySlope * quantity);
+    }
+
+    public int getQsGivenP(double price) {
+        return (int) Math.max(0, (supplyIntercept - price) / supplySlope);
+    }
+
+    public double getPGivenQd(int quantity) {
+        return demandIntercept + (demandSlope * quantity);
+    }
+
+    public int getQdGivenP(double price) {
+        return (int) Math.max(0, (demandIntercept - price) / demandSlope);
+    }
+
+    /**
+     * Get the economic state given a certain amount of a good being produced.
+     * Same as {@link SupplyDemandModel#getEconomicStateGivenQ(int)}.
+     * @param quantity Quantity of the good being produced.
+     * @return The economic state.
+     */
+    public SupplyDemandModel.SupplyDemandState getEconomicStateGivenQ(int quantity) {
+        var ps = getPgivenQs(quantity);
+        var pd = getPGivenQd(quantity);
+
+        if (ps > pd) {
+            return SupplyDemandModel.SupplyDemandState.SHORTAGE;
+        } else if (ps < pd) {
+            return SupplyDemandModel.SupplyDemandState.SURPLUS;
+        }
+        return SupplyDemandModel.SupplyDemandState.EQUILIBRIUM;
+    }
+
+    /**
+     * Get the economic state given a certain price of a good.
+     * Same as {@link SupplyDemandModel#getEconomicStateGivenP(double)}.
+     * @param price Price of good.
+     * @return The economic state.
+     */
+    public SupplyDemandModel.SupplyDemandState getEconomicStateGivenP(double price) {
+        var qs = getQsGivenP(price);
+        var qd = getQdGivenP(price);
+
+        if (qs > qd) {
+            return SupplyDemandModel.SupplyDemandState.SURPLUS;
+        } else if (qs < qd) {
+            return SupplyDemandModel.SupplyDemandState.SHORTAGE;
+        }
+        return SupplyDemandModel.SupplyDemandState.EQUILIBRIUM;
+    }
+
+    public SupplyDemandModel.EquilibriumType getEquilibriumType() {
+        return SupplyDemandModel.equilibriumType(supplyIntercept, supplySlope, demandIntercept, demandSlope);
+    }
+
+    public double getEquilibriumQuantity() {
+        return SupplyDemandModel.equilibriumQuantity(supplyIntercept, supplySlope, demandIntercept, demandSlope);
+    }
+
+    public double getEquilibriumPrice() {
+        return SupplyDemandModel.equilibriumPrice(supplyIntercept, supplySlope, demandIntercept, demandSlope);
+    }
+
+    /**
+     * Get a snapshot with the supply curve shifted, as done by {@link SupplyCurve#shiftSupplyCurve(double)}.
+     * @param shiftAmount Amount by which to shift curve.
+     * @return New snapshot.
+     */
+    public SupplyDemandSnapshot withSupplyShift(double shiftAmount) {
+        return new SupplyDemandSnapshot(product, supplyIntercept + shiftAmount, supplySlope, demandIntercept, demandSlope, isInferiorGood);
+    }
+
+    /**
+     * Get a snapshot with the demand curve shifted, as done by {@link DemandCurve#shiftDemandCurve(double)}.
+     * @param shiftAmount Amount by which to shift curve.
+     * @return New snapshot.
+     */
+    public SupplyDemandSnapshot withDemandShift(double shiftAmount) {
+        return new SupplyDemandSnapshot(product, supplyIntercept, supplySlope, demandIntercept + shiftAmount, demandSlope, isInferiorGood);
+    }
+
+    /**
+     * Get a snapshot with consumer income increased, as done by {@link DemandCurve#increaseConsumerIncome(double)}.
+     * @param change Increase in average consumer income.
+     * @return New snapshot.
+     */
+    public SupplyDemandSnapshot withConsumerIncomeIncrease(double change) {
+        return withDemandShift(isInferiorGood ? -change : change);
+    }
+}
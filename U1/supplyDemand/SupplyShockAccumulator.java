@@ -0,0 +1,66 @@
+package U1.supplyDemand;
+
+/**
+ * Accumulates shifts of a supply curve from many producer threads without contention.
+ * The shift methods mirror those of {@link SupplyCurve}. The curve should only be read through this accumulator,
+ * or after calling {@link #flush()} from the reading thread.
+ */
+public class SupplyShockAccumulator extends ShockAccumulator {
+    private SupplyCurve curve;
+
+    /**
+     * Create a new accumulator for a supply curve.
+     * @param curve Curve to which the shifts are applied.
+     */
+    public SupplyShockAccumulator(SupplyCurve curve) {
+        this.curve = curve;
+    }
+
+    @Override
+    protected void apply(double shiftAmount) {
+        curve.shiftSupplyCurve(shiftAmount);
+    }
+
+    // Methods for reading the curve once pending shifts are applied
+
+    public synchronized double getIntercept() {
+        flush();
+        return curve.getIntercept();
+    }
+
+    public synchronized double getPgivenQs(int quantity) {
+        flush();
+        return curve.getPgivenQs(quantity);
+    }
+
+    public synchronized int getQsGivenP(double price) {
+        flush();
+        return curve.getQsGivenP(price);
+    }
+
+    // Methods for recording shifts, with the same effect as the corresponding methods of SupplyCurve
+
+    public void shiftSupplyCurve(double shiftAmount) {
+        shift(shiftAmount);
+    }
+
+    public void increaseInputPrices(double change) {
+        shift(-change);
+    }
+
+    public void adjustForGovernmentTools(double taxChange, double subsidyChange) {
+        shift(-(taxChange - subsidyChange));
+    }
+
+    public void increaseNumberOfSellers(int change) {
+        shift((double) change);
+    }
+
+    public void improveTechnology(double change) {
+        shift(change);
+    }
+
+    public void increasePriceOfOtherGoods(double change) {
+        shift(-change);
+    }
+}
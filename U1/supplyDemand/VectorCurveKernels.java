@@ -0,0 +1,93 @@
+package U1.supplyDemand;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD loops behind {@link CurveKernels}, only loaded when the jdk.incubator.vector module is present.
+ * Each method handles a whole number of vectors from the start of the arrays (or of the given range) and returns
+ * the index at which the caller should continue with the scalar loop.
+ * <p>
+ * Quantities are truncated without a double-to-int lane conversion, which is not compiled to a vector instruction
+ * on Java 17: after clamping to [0, Integer.MAX_VALUE] (and NaN to 0, as (int) does), adding 2^52 leaves the
+ * rounded integer in the low bits of the double, and one is subtracted where rounding went up.
+ */
+final class VectorCurveKernels {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = DOUBLES.withLanes(long.class);
+    // Half the width of a double vector holds the same number of int lanes
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    // Byte vectors are at least 64 bits wide, so narrow double vectors write their states in groups
+    private static final VectorSpecies<Byte> BYTES =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(Math.max(64, DOUBLES.length() * 8)));
+    private static final int STATE_GROUP = BYTES.length() / DOUBLES.length();
+
+    private static final double ROUNDING_BIAS = 0x1p52;
+    private static final double MAX_QUANTITY = Integer.MAX_VALUE;
+
+    private VectorCurveKernels() {
+    }
+
+    static int pricesGivenQuantities(double intercept, double slope, int[] quantities, double[] priceOut) {
+        int bound = DOUBLES.loopBound(quantities.length);
+        for (int i = 0; i < bound; i += DOUBLES.length()) {
+            DoubleVector quantity = (DoubleVector) IntVector.fromArray(INTS, quantities, i)
+                    .convertShape(VectorOperators.I2D, DOUBLES, 0);
+            // Multiply then add, without fusing, to round exactly like intercept + (slope * quantity)
+            quantity.mul(slope).add(intercept).intoArray(priceOut, i);
+        }
+        return bound;
+    }
+
+    static int quantitiesGivenPrices(double intercept, double slope, double[] prices, int[] quantityOut) {
+        int bound = DOUBLES.loopBound(prices.length);
+        for (int i = 0; i < bound; i += DOUBLES.length()) {
+            LongVector quantity = quantity(intercept, slope, DoubleVector.fromArray(DOUBLES, prices, i));
+            ((IntVector) quantity.convertShape(VectorOperators.L2I, INTS, 0)).intoArray(quantityOut, i);
+        }
+        return bound;
+    }
+
+    static int statesGivenPrices(double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope,
+            double[] prices, int priceOffset, byte[] stateOut, int stateOffset, int length) {
+        int bound = length - length % BYTES.length();
+        LongVector equilibrium = LongVector.broadcast(LONGS, SupplyDemandModel.SupplyDemandState.EQUILIBRIUM.ordinal());
+        long surplus = SupplyDemandModel.SupplyDemandState.SURPLUS.ordinal();
+        long shortage = SupplyDemandModel.SupplyDemandState.SHORTAGE.ordinal();
+        for (int i = 0; i < bound; i += BYTES.length()) {
+            ByteVector states = ByteVector.zero(BYTES);
+            for (int group = 0; group < STATE_GROUP; group++) {
+                DoubleVector price = DoubleVector.fromArray(DOUBLES, prices, priceOffset + i + group * DOUBLES.length());
+                LongVector supplied = quantity(supplyIntercept, supplySlope, price);
+                LongVector demanded = quantity(demandIntercept, demandSlope, price);
+                LongVector state = equilibrium
+                        .blend(surplus, supplied.compare(VectorOperators.GT, demanded))
+                        .blend(shortage, supplied.compare(VectorOperators.LT, demanded));
+                // Part -group places the lanes of this vector after those of the previous ones, other lanes are zero
+                states = states.or((ByteVector) state.convertShape(VectorOperators.L2B, BYTES, -group));
+            }
+            states.intoArray(stateOut, stateOffset + i);
+        }
+        return bound;
+    }
+
+    /**
+     * Quantities (int) Math.max(0, (intercept - price) / slope), one per lane in the low 32 bits.
+     */
+    private static LongVector quantity(double intercept, double slope, DoubleVector price) {
+        DoubleVector quantity = DoubleVector.broadcast(DOUBLES, intercept).sub(price).div(slope)
+                .max(0)
+                .min(MAX_QUANTITY);
+        quantity = quantity.blend(0, quantity.test(VectorOperators.IS_NAN));
+        DoubleVector biased = quantity.add(ROUNDING_BIAS);
+        VectorMask<Long> roundedUp = biased.sub(ROUNDING_BIAS).compare(VectorOperators.GT, quantity).cast(LONGS);
+        return biased.reinterpretAsLongs().sub(1, roundedUp).and(0xFFFFFFFFL);
+    }
+}
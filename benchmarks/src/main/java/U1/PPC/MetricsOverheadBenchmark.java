@@ -0,0 +1,88 @@
+package U1.PPC;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import U1.resources.EconomyTable;
+import U1.supplyDemand.DemandCurve;
+import U1.supplyDemand.SupplyCurve;
+import U1.supplyDemand.SupplyDemandModel;
+
+/**
+ * Cost of the instrumentation in {@link U1.metrics.Metrics}, comparing the same calls in a JVM with metrics
+ * disabled (the default) and one with metrics enabled. The disabled runs should match the uninstrumented baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@State(Scope.Thread)
+public class MetricsOverheadBenchmark {
+    private PPCModel model;
+    private SupplyDemandModel market;
+    private SupplyCurve supplyCurve;
+    private int amtB;
+    private double price;
+
+    @Setup
+    public void setup() {
+        EconomyTable table = new EconomyTable(1);
+        table.set(0, 1000, 500, 800, 2);
+        model = new PPCModel(new Product("A", 3), new Product("B", 5), table.row(0).copy(), new Technology(1.5), new Technology(1.25));
+        Product product = new Product("C", 2);
+        supplyCurve = new SupplyCurve(product, 5, 0.5);
+        market = new SupplyDemandModel(supplyCurve, new DemandCurve(product, 100, -1.5, false));
+        amtB = 20;
+        price = 40;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Du1.metrics=false")
+    public int getAmtADisabled() {
+        return model.getAmtA(amtB);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Du1.metrics=true")
+    public int getAmtAEnabled() {
+        return model.getAmtA(amtB);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Du1.metrics=false")
+    public SupplyDemandModel.SupplyDemandState getEconomicStateGivenPDisabled() {
+        return market.getEconomicStateGivenP(price);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Du1.metrics=true")
+    public SupplyDemandModel.SupplyDemandState getEconomicStateGivenPEnabled() {
+        return market.getEconomicStateGivenP(price);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Du1.metrics=false")
+    public double shiftSupplyCurveDisabled() {
+        supplyCurve.shiftSupplyCurve(1);
+        supplyCurve.shiftSupplyCurve(-1);
+        return supplyCurve.getIntercept();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Du1.metrics=true")
+    public double shiftSupplyCurveEnabled() {
+        supplyCurve.shiftSupplyCurve(1);
+        supplyCurve.shiftSupplyCurve(-1);
+        return supplyCurve.getIntercept();
+    }
+}
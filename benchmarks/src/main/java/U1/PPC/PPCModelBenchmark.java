@@ -0,0 +1,107 @@
+package U1.PPC;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import U1.resources.EconomyTable;
+
+/**
+ * Benchmarks for the PPC model queries, evaluated one point at a time and through {@link PPCFrontier}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PPCModelBenchmark {
+
+    @Param({"1", "1024"})
+    private int size;
+
+    private PPCModel model;
+    private PPCFrontier frontier;
+    private int[] amtA;
+    private int[] amtB;
+    private int[] out;
+    private PPCModel.PPCState[] states;
+
+    @Setup
+    public void setup() {
+        EconomyTable table = new EconomyTable(1);
+        table.set(0, 1000, 500, 800, 2);
+        model = new PPCModel(new Product("A", 3), new Product("B", 5), table.row(0).copy(), new Technology(1.5), new Technology(1.25));
+        frontier = new PPCFrontier(model);
+
+        SplittableRandom random = new SplittableRandom(42);
+        amtA = new int[size];
+        amtB = new int[size];
+        for (int i = 0; i < size; i++) {
+            amtA[i] = random.nextInt(model.getAmtA(0) + 1);
+            amtB[i] = random.nextInt(model.getAmtB(0) + 1);
+        }
+        out = new int[size];
+        states = new PPCModel.PPCState[size];
+    }
+
+    @Benchmark
+    public void getAmtA(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(model.getAmtA(amtB[i]));
+        }
+    }
+
+    @Benchmark
+    public int[] getAmtABatched() {
+        frontier.getAmtA(amtB, out);
+        return out;
+    }
+
+    @Benchmark
+    public void getAmtB(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(model.getAmtB(amtA[i]));
+        }
+    }
+
+    @Benchmark
+    public int[] getAmtBBatched() {
+        frontier.getAmtB(amtA, out);
+        return out;
+    }
+
+    @Benchmark
+    public void getEconomicState(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(model.getEconomicState(amtA[i], amtB[i]));
+        }
+    }
+
+    @Benchmark
+    public PPCModel.PPCState[] getEconomicStateBatched() {
+        frontier.getEconomicStates(amtA, amtB, states);
+        return states;
+    }
+
+    @Benchmark
+    public void getOpportunityCost(Blackhole blackhole) {
+        Product productA = model.getProductA();
+        Product productB = model.getProductB();
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(model.getOpportunityCost((i & 1) == 0 ? productA : productB));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package U1.PPC;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for comparing products, as done on every model query that takes a product.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductBenchmark {
+
+    @Param({"1", "1024"})
+    private int size;
+
+    private Product[] products;
+    private Product[] others;
+    private Product[] interned;
+    private Product[] internedOthers;
+
+    @Setup
+    public void setup() {
+        products = new Product[size];
+        others = new Product[size];
+        for (int i = 0; i < size; i++) {
+            products[i] = new Product("Product number " + i, i);
+            others[i] = new Product("Product number " + (i % 2 == 0 ? i : i + 1), i);
+        }
+        ProductCatalog catalog = new ProductCatalog();
+        interned = new Product[size];
+        internedOthers = new Product[size];
+        for (int i = 0; i < size; i++) {
+            interned[i] = catalog.intern(products[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            internedOthers[i] = catalog.intern(others[i].getName(), i % 2 == 0 ? i : i + 1);
+        }
+    }
+
+    @Benchmark
+    public void equals(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(products[i].equals(others[i]));
+        }
+    }
+
+    @Benchmark
+    public void equalsInterned(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(interned[i].equals(internedOthers[i]));
+        }
+    }
+}
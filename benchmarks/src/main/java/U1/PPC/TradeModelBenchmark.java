@@ -0,0 +1,78 @@
+package U1.PPC;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import U1.resources.EconomyTable;
+
+/**
+ * Benchmarks for finding the country with the comparative advantage among a number of countries,
+ * either by comparing pairs with {@link TradeModel} or by querying a {@link TradeIndex}. Both return the same
+ * country, or null if the best countries are tied.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TradeModelBenchmark {
+
+    @Param({"2", "1024"})
+    private int size;
+
+    private Product productA;
+    private PPCModel[] countries;
+    private TradeIndex index;
+
+    @Setup
+    public void setup() {
+        productA = new Product("A", 3);
+        Product productB = new Product("B", 5);
+        SplittableRandom random = new SplittableRandom(42);
+        EconomyTable table = new EconomyTable(size);
+        countries = new PPCModel[size];
+        for (int i = 0; i < size; i++) {
+            table.set(i, random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextDouble(1, 3));
+            countries[i] = new PPCModel(productA, productB, table.row(i), new Technology(random.nextDouble(0.5, 2)),
+                    new Technology(random.nextDouble(0.5, 2)));
+        }
+        index = new TradeIndex(countries);
+    }
+
+    /**
+     * Compare the best country so far against each of the others in turn, keeping track of ties.
+     */
+    @Benchmark
+    public PPCModel comparativeAdvantage() {
+        PPCModel best = countries[0];
+        boolean tied = false;
+        for (int i = 1; i < countries.length; i++) {
+            PPCModel winner = new TradeModel(best, countries[i]).comparativeAdvantage(productA);
+            if (winner == countries[i]) {
+                best = winner;
+                tied = false;
+            } else if (winner == null) {
+                tied = true;
+            }
+        }
+        return tied ? null : best;
+    }
+
+    @Benchmark
+    public PPCModel comparativeAdvantageIndexed() {
+        return index.comparativeAdvantage(productA);
+    }
+}
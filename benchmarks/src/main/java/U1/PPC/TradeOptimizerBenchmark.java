@@ -0,0 +1,78 @@
+package U1.PPC;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import U1.resources.EconomyTable;
+
+/**
+ * Benchmarks for planning the specialization of many countries with {@link TradeOptimizer}, for two products
+ * and for three products.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TradeOptimizerBenchmark {
+
+    @Param({"16", "512"})
+    private int size;
+
+    private PPCModel[] countries;
+    private int[] demandA;
+    private int[] demandB;
+    private MultiGoodModel[] multiGoodCountries;
+    private double[] values;
+
+    @Setup
+    public void setup() {
+        Product[] products = { new Product("A", 3), new Product("B", 5), new Product("C", 2) };
+        SplittableRandom random = new SplittableRandom(42);
+        EconomyTable table = new EconomyTable(size);
+        countries = new PPCModel[size];
+        demandA = new int[size];
+        demandB = new int[size];
+        multiGoodCountries = new MultiGoodModel[size];
+        for (int i = 0; i < size; i++) {
+            table.set(i, random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextDouble(1, 3));
+            Technology[] techs = new Technology[products.length];
+            for (int g = 0; g < techs.length; g++) {
+                techs[g] = new Technology(random.nextDouble(0.5, 2));
+            }
+            countries[i] = new PPCModel(products[0], products[1], table.row(i), techs[0], techs[1]);
+            demandA[i] = random.nextInt(countries[i].getAmtA(0) + 1);
+            demandB[i] = countries[i].getAmtB(demandA[i]);
+
+            multiGoodCountries[i] = new MultiGoodModel(products, techs, table.row(i));
+            double total = table.row(i).totalAmount();
+            for (int g = 0; g < products.length; g++) {
+                multiGoodCountries[i].setQuota(g, (int) (total / multiGoodCountries[i].getCost(g) * random.nextDouble(0.3)));
+            }
+        }
+        values = new double[] { 1, 1.5, 0.5 };
+    }
+
+    @Benchmark
+    public TradeOptimizer.Plan twoGoods() {
+        return TradeOptimizer.specialize(countries, demandA, demandB);
+    }
+
+    @Benchmark
+    public TradeOptimizer.MultiGoodPlan threeGoods() {
+        return TradeOptimizer.specialize(multiGoodCountries, values);
+    }
+}
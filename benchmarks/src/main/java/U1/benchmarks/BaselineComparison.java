@@ -0,0 +1,122 @@
+package U1.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files in CSV format (written with "-rf csv") and reports the change of every score.
+ * Usage: BaselineComparison baseline.csv results.csv [maximum regression in percent, default 10]
+ * Exits with status 1 if any time per operation grew, or any throughput fell, by more than the maximum regression,
+ * or if any allocation per operation (gc.alloc.rate.norm) grew by more than {@value #MAX_ALLOCATION_INCREASE}
+ * bytes beyond the error margins of the two scores. Allocation is compared in bytes rather than percent, since most
+ * benchmarks allocate nothing and a relative change of a near-zero rate is noise.
+ */
+public class BaselineComparison {
+    private static final double MAX_ALLOCATION_INCREASE = 0.5;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.csv> <results.csv> [max regression %]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = readScores(Path.of(args[0]));
+        Map<String, Score> results = readScores(Path.of(args[1]));
+        double maxRegression = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        boolean regressed = false;
+
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score result = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s -> %14.3f  (new)%n", entry.getKey(), "", result.score);
+                continue;
+            }
+            double change = before.score == 0 ? (result.score == 0 ? 0 : Double.POSITIVE_INFINITY)
+                    : (result.score - before.score) / before.score * 100;
+            boolean regression;
+            if (entry.getKey().contains("gc.alloc.rate.norm")) {
+                regression = result.score - before.score > MAX_ALLOCATION_INCREASE + before.error + result.error;
+            } else if (entry.getKey().contains(":")) {
+                regression = false;
+            } else {
+                regression = (result.throughput ? -change : change) > maxRegression;
+            }
+            regressed |= regression;
+            System.out.printf("%-90s %14.3f -> %14.3f  %+8.1f%%%s%n", entry.getKey(), before.score, result.score, change,
+                    regression ? "  REGRESSION" : "");
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    /**
+     * Read the scores of a JMH CSV result file, keyed by benchmark name and parameter values.
+     */
+    private static Map<String, Score> readScores(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        List<String> header = parseLine(lines.get(0));
+        int benchmarkColumn = header.indexOf("Benchmark");
+        int modeColumn = header.indexOf("Mode");
+        int scoreColumn = header.indexOf("Score");
+        int errorColumn = header.indexOf("Score Error (99.9%)");
+        Map<String, Score> scores = new LinkedHashMap<>();
+
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> values = parseLine(line);
+            StringBuilder key = new StringBuilder(values.get(benchmarkColumn));
+            // Parameters of other benchmarks in the same file are empty, and left out so a partial run matches
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && !values.get(i).isEmpty()) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(values.get(i));
+                }
+            }
+            // A single sample has no error margin, which JMH writes as NaN
+            double error = Double.parseDouble(values.get(errorColumn));
+            scores.put(key.toString(), new Score(Double.parseDouble(values.get(scoreColumn)),
+                    Double.isNaN(error) ? 0 : error, values.get(modeColumn).equals("thrpt")));
+        }
+        return scores;
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Score of one benchmark with its 99.9% error margin, and whether higher is better.
+     */
+    private static class Score {
+        private double score;
+        private double error;
+        private boolean throughput;
+
+        Score(double score, double error, boolean throughput) {
+            this.score = score;
+            this.error = error;
+            this.throughput = throughput;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package U1.resources;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for computing total resources, from individual {@link Resources} objects and from an {@link EconomyTable}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResourcesBenchmark {
+
+    @Param({"1", "1024"})
+    private int size;
+
+    private Resources[] resources;
+    private EconomyTable table;
+    private double[] totals;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        resources = new Resources[size];
+        table = new EconomyTable(size);
+        for (int i = 0; i < size; i++) {
+            resources[i] = new Resources(new R_Land(random.nextDouble(1000)), new R_Labor(random.nextInt(1000)),
+                    new R_Capital(random.nextDouble(1000)), new R_Entrepreneurship(random.nextDouble(1, 3)));
+            table.set(i, resources[i].totalLand(), resources[i].totalLabor(), resources[i].totalCapital(),
+                    resources[i].totalEntrepreneurship());
+        }
+        totals = new double[size];
+    }
+
+    @Benchmark
+    public void totalAmount(Blackhole blackhole) {
+        for (Resources r : resources) {
+            blackhole.consume(r.totalAmount());
+        }
+    }
+
+    @Benchmark
+    public void totalAmountAfterChange(Blackhole blackhole) {
+        for (Resources r : resources) {
+            r.addCapital(0);
+            blackhole.consume(r.totalAmount());
+        }
+    }
+
+    @Benchmark
+    public double[] totalAmountBatched() {
+        table.totalAmount(0, size, totals);
+        return totals;
+    }
+}
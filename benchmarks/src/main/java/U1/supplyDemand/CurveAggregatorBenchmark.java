@@ -0,0 +1,72 @@
+package U1.supplyDemand;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import U1.PPC.Product;
+
+/**
+ * Benchmarks for the market demand of many household demand curves at one price, summed curve by curve and
+ * looked up in a {@link CurveAggregator}, and for replacing one curve in the aggregator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurveAggregatorBenchmark {
+    @Param({"1000", "100000"})
+    private int households;
+
+    private DemandCurve[] curves;
+    private CurveAggregator aggregator;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(42);
+        Product product = new Product("A", 1);
+        curves = new DemandCurve[households];
+        aggregator = new CurveAggregator();
+        for (int i = 0; i < households; i++) {
+            curves[i] = new DemandCurve(product, random.nextDouble(10, 100), -random.nextDouble(0.5, 5), false);
+            aggregator.add(curves[i]);
+        }
+    }
+
+    @Benchmark
+    public long sumCurves() {
+        double price = random.nextDouble(10, 100);
+        long total = 0;
+        for (DemandCurve curve : curves) {
+            total += curve.invertPrice(price);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double aggregate() {
+        return aggregator.invertPrice(random.nextDouble(10, 100));
+    }
+
+    @Benchmark
+    public double updateAndAggregate() {
+        DemandCurve curve = curves[random.nextInt(households)];
+        curve.shiftDemandCurve(random.nextDouble(-1, 1));
+        aggregator.update(curve);
+        return aggregator.invertPrice(random.nextDouble(10, 100));
+    }
+}
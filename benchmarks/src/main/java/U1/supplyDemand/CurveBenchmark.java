@@ -0,0 +1,95 @@
+package U1.supplyDemand;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import U1.PPC.Product;
+
+/**
+ * Benchmarks for looking up a {@link PiecewiseLinearCurve} by binary search and through its grid index,
+ * for 1024 random quantities and prices per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurveBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"16", "4096"})
+    private int breakpoints;
+
+    private PiecewiseLinearCurve searched;
+    private PiecewiseLinearCurve indexed;
+    private int[] quantities;
+    private double[] prices;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] breakpointQuantities = new double[breakpoints];
+        double[] breakpointPrices = new double[breakpoints];
+        double quantity = 0;
+        double price = 10 * breakpoints;
+        for (int i = 0; i < breakpoints; i++) {
+            quantity += random.nextDouble(1, 10);
+            price -= random.nextDouble(1, 10);
+            breakpointQuantities[i] = quantity;
+            breakpointPrices[i] = price;
+        }
+        Product product = new Product("A", 1);
+        searched = new PiecewiseLinearCurve(product, breakpointQuantities, breakpointPrices);
+        indexed = new PiecewiseLinearCurve(product, breakpointQuantities, breakpointPrices);
+        indexed.buildIndex(breakpoints);
+
+        quantities = new int[LOOKUPS];
+        prices = new double[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            quantities[i] = (int) random.nextDouble(0, quantity);
+            prices[i] = random.nextDouble(price, breakpointPrices[0]);
+        }
+    }
+
+    @Benchmark
+    public void getPriceGivenQuantitySearched(Blackhole blackhole) {
+        for (int quantity : quantities) {
+            blackhole.consume(searched.getPriceGivenQuantity(quantity));
+        }
+    }
+
+    @Benchmark
+    public void getPriceGivenQuantityIndexed(Blackhole blackhole) {
+        for (int quantity : quantities) {
+            blackhole.consume(indexed.getPriceGivenQuantity(quantity));
+        }
+    }
+
+    @Benchmark
+    public void invertPriceSearched(Blackhole blackhole) {
+        for (double price : prices) {
+            blackhole.consume(searched.invertPrice(price));
+        }
+    }
+
+    @Benchmark
+    public void invertPriceIndexed(Blackhole blackhole) {
+        for (double price : prices) {
+            blackhole.consume(indexed.invertPrice(price));
+        }
+    }
+}
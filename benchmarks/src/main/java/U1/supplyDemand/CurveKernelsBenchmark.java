@@ -0,0 +1,90 @@
+package U1.supplyDemand;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sweeps of {@link CurveKernels} over a million prices or quantities, comparing a JVM running the SIMD kernels with
+ * one forced onto the scalar loops. Both forks add the jdk.incubator.vector module.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@State(Scope.Thread)
+public class CurveKernelsBenchmark {
+    private static final int SIZE = 1 << 20;
+
+    private double[] prices;
+    private int[] quantities;
+    private double[] priceOut;
+    private int[] quantityOut;
+    private byte[] stateOut;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        prices = new double[SIZE];
+        quantities = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            prices[i] = random.nextDouble(0, 200);
+            quantities[i] = random.nextInt(1000);
+        }
+        priceOut = new double[SIZE];
+        quantityOut = new int[SIZE];
+        stateOut = new byte[SIZE];
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Du1.kernels.scalar=true"})
+    public double[] pricesGivenQuantitiesScalar() {
+        CurveKernels.pricesGivenQuantities(5, 0.5, quantities, priceOut);
+        return priceOut;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public double[] pricesGivenQuantitiesVector() {
+        CurveKernels.pricesGivenQuantities(5, 0.5, quantities, priceOut);
+        return priceOut;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Du1.kernels.scalar=true"})
+    public int[] quantitiesGivenPricesScalar() {
+        CurveKernels.quantitiesGivenPrices(100, 1.5, prices, quantityOut);
+        return quantityOut;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int[] quantitiesGivenPricesVector() {
+        CurveKernels.quantitiesGivenPrices(100, 1.5, prices, quantityOut);
+        return quantityOut;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Du1.kernels.scalar=true"})
+    public byte[] statesGivenPricesScalar() {
+        CurveKernels.statesGivenPrices(5, -0.5, 100, 1.5, prices, stateOut);
+        return stateOut;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public byte[] statesGivenPricesVector() {
+        CurveKernels.statesGivenPrices(5, -0.5, 100, 1.5, prices, stateOut);
+        return stateOut;
+    }
+}
@@ -0,0 +1,53 @@
+package U1.supplyDemand;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the price-adjustment simulator in market-ticks per second.
+ * Markets never converge (negative tolerance), so every tick updates all of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceAdjustmentSimulatorBenchmark {
+    private static final int MARKETS = 1 << 20;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private PriceAdjustmentSimulator simulator;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        simulator = new PriceAdjustmentSimulator(MARKETS, 1e-6, -1);
+        simulator.setParallel(parallel);
+        for (int i = 0; i < MARKETS; i++) {
+            simulator.setMarket(i, random.nextDouble(50, 100), random.nextDouble(0.5, 2), random.nextDouble(0, 10),
+                    -random.nextDouble(0.5, 2), random.nextDouble(0, 100));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MARKETS)
+    public int step() {
+        return simulator.step();
+    }
+}
@@ -0,0 +1,54 @@
+package U1.supplyDemand;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import U1.PPC.Product;
+
+/**
+ * Benchmarks for readers querying a published supply-demand snapshot while a writer keeps shifting the demand curve.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotBenchmark {
+
+    private AtomicReference<SupplyDemandSnapshot> market;
+
+    @Setup
+    public void setup() {
+        Product product = new Product("A", 1);
+        market = new AtomicReference<>(new SupplyDemandModel(new SupplyCurve(product, 2, 1),
+                new DemandCurve(product, 100, -1, false)).snapshot());
+    }
+
+    @Benchmark
+    @Group("publish")
+    @GroupThreads(3)
+    public double read() {
+        return market.get().getEquilibriumPrice();
+    }
+
+    @Benchmark
+    @Group("publish")
+    @GroupThreads(1)
+    public SupplyDemandSnapshot shift() {
+        return market.updateAndGet(snapshot -> snapshot.withDemandShift(snapshot.getDemandIntercept() > 200 ? -100 : 1));
+    }
+}
@@ -0,0 +1,88 @@
+package U1.supplyDemand;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import U1.PPC.Product;
+
+/**
+ * Benchmarks for the supply-demand model queries, along with solving many markets at once through {@link MarketClearing}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SupplyDemandModelBenchmark {
+
+    @Param({"1", "1024"})
+    private int size;
+
+    private SupplyDemandModel model;
+    private double[] prices;
+    private int[] quantities;
+    private double[] supplyIntercepts;
+    private double[] supplySlopes;
+    private double[] demandIntercepts;
+    private double[] demandSlopes;
+    private double[] priceOut;
+    private double[] quantityOut;
+
+    @Setup
+    public void setup() {
+        Product product = new Product("A", 1);
+        model = new SupplyDemandModel(new SupplyCurve(product, 2, 1), new DemandCurve(product, 100, -1, false));
+
+        SplittableRandom random = new SplittableRandom(42);
+        prices = new double[size];
+        quantities = new int[size];
+        supplyIntercepts = new double[size];
+        supplySlopes = new double[size];
+        demandIntercepts = new double[size];
+        demandSlopes = new double[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = random.nextDouble(0, 100);
+            quantities[i] = random.nextInt(100);
+            supplyIntercepts[i] = random.nextDouble(0, 10);
+            supplySlopes[i] = random.nextDouble(0.5, 2);
+            demandIntercepts[i] = random.nextDouble(50, 100);
+            demandSlopes[i] = -random.nextDouble(0.5, 2);
+        }
+        priceOut = new double[size];
+        quantityOut = new double[size];
+    }
+
+    @Benchmark
+    public void getEconomicStateGivenP(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(model.getEconomicStateGivenP(prices[i]));
+        }
+    }
+
+    @Benchmark
+    public void getEconomicStateGivenQ(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(model.getEconomicStateGivenQ(quantities[i]));
+        }
+    }
+
+    @Benchmark
+    public double[] clearMarkets() {
+        MarketClearing.clear(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, priceOut, quantityOut);
+        return priceOut;
+    }
+}
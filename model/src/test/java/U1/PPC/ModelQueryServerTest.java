@@ -0,0 +1,158 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import U1.resources.EconomyTable;
+import U1.supplyDemand.DemandCurve;
+import U1.supplyDemand.SupplyCurve;
+import U1.supplyDemand.SupplyDemandModel;
+
+/**
+ * Runs the query server on the loopback address against real socket clients.
+ */
+class ModelQueryServerTest {
+    private ModelRegistry registry;
+    private ModelQueryServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        Product productA = new Product("A", 3);
+        Product productB = new Product("B", 5);
+        EconomyTable table = new EconomyTable(2);
+        table.set(0, 1000, 500, 800, 2);
+        table.set(1, 400, 300, 200, 1);
+        registry = new ModelRegistry();
+        registry.putEconomy("home", new PPCModel(productA, productB, table.row(0), new Technology(1.5), new Technology(1)));
+        registry.putEconomy("abroad", new PPCModel(productA, productB, table.row(1), new Technology(1), new Technology(1.5)));
+        registry.putTrade("pair", "home", "abroad");
+        Product product = new Product("C", 2);
+        registry.putMarket("market", new SupplyDemandModel(new SupplyCurve(product, 5, 0.5),
+                new DemandCurve(product, 100, -1.5, false)));
+        server = new ModelQueryServer(registry);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        server.close();
+    }
+
+    @Test
+    @Timeout(120)
+    void pipelinedClientsReceiveOrderedResponses() throws IOException {
+        int clients = 2000;
+        int requests = 50;
+        Socket[] sockets = new Socket[clients];
+        try {
+            // Every client sends all of its requests before any response is read
+            for (int c = 0; c < clients; c++) {
+                sockets[c] = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                StringBuilder burst = new StringBuilder();
+                for (int r = 0; r < requests; r++) {
+                    burst.append(c).append('-').append(r).append(" SHIFT_SUPPLY market 1\n");
+                }
+                OutputStream out = sockets[c].getOutputStream();
+                out.write(burst.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            for (int c = 0; c < clients; c++) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(sockets[c].getInputStream(), StandardCharsets.UTF_8));
+                for (int r = 0; r < requests; r++) {
+                    String[] words = in.readLine().split(" ");
+                    assertEquals(c + "-" + r, words[0]);
+                    assertEquals("OK", words[1]);
+                }
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+        }
+        assertEquals(5.0 + clients * requests, registry.getMarket("market").getSupplyIntercept());
+    }
+
+    @Test
+    void advantageNamesTheEconomyOfThePair() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            TradeSnapshot trade = registry.getTrade("pair");
+            PPCSnapshot winner = trade.comparativeAdvantage(trade.getCountryA().getProductA());
+            String expected = winner == null ? "NONE" : winner == trade.getCountryA() ? "home" : "abroad";
+            String response = request(socket, "1 COMPARATIVE_ADVANTAGE pair A");
+            assertEquals("1 OK " + expected, response);
+            assertEquals("2 ERROR No trade pair named missing.", request(socket, "2 ABSOLUTE_ADVANTAGE missing A"));
+        }
+    }
+
+    @Test
+    void overlongRequestIsAnsweredWithAnError() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            String overlong = "1 EQUILIBRIUM market" + " ".repeat(ModelQueryServer.MAX_REQUEST_LENGTH * 100);
+            assertEquals("1 ERROR Request is longer than " + ModelQueryServer.MAX_REQUEST_LENGTH + " characters.",
+                    request(socket, overlong));
+            // The connection keeps working after the long line has been skipped
+            assertEquals("2 OK UNIQUE 28.75 47.5", request(socket, "2 EQUILIBRIUM market"));
+        }
+    }
+
+    @Test
+    @Timeout(120)
+    void closingWhileClientsConnectClosesEveryConnection() throws IOException {
+        for (int round = 0; round < 50; round++) {
+            ModelQueryServer racing = new ModelQueryServer(registry);
+            racing.start();
+            Socket[] sockets = new Socket[20];
+            try {
+                for (int i = 0; i < sockets.length; i++) {
+                    sockets[i] = new Socket(InetAddress.getLoopbackAddress(), racing.getPort());
+                }
+                // Close while the server is still accepting and handing out the connections
+                racing.close();
+                for (Socket socket : sockets) {
+                    socket.setSoTimeout(10_000);
+                    try {
+                        assertEquals(-1, socket.getInputStream().read());
+                    } catch (SocketTimeoutException e) {
+                        throw new AssertionError("Connection left open after the server was closed", e);
+                    } catch (SocketException e) {
+                        // Connections still waiting to be accepted are reset
+                    }
+                }
+            } finally {
+                for (Socket socket : sockets) {
+                    if (socket != null) {
+                        socket.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String request(Socket socket, String request) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((request + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        StringBuilder response = new StringBuilder();
+        int c;
+        while ((c = socket.getInputStream().read()) != '\n' && c >= 0) {
+            response.append((char) c);
+        }
+        return response.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import U1.resources.EconomyTable;
+import U1.resources.Resources;
+import U1.supplyDemand.DemandCurve;
+import U1.supplyDemand.SupplyCurve;
+import U1.supplyDemand.SupplyDemandModel;
+
+/**
+ * Writes random models to a snapshot file and checks that they load back exactly, and that corrupt headers are
+ * rejected with an IOException.
+ */
+class ModelSnapshotFileTest {
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("models", ".snapshot");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void modelsRoundTripExactly() throws IOException {
+        SplittableRandom random = new SplittableRandom(14);
+        Product[] products = { new Product("A", 3), new Product("B", 5), new Product("Ç", 0.1 + 0.2) };
+        int economies = 300;
+        EconomyTable table = new EconomyTable(economies);
+        List<PPCModel> ppcModels = new ArrayList<>();
+        for (int i = 0; i < economies; i++) {
+            table.set(i, random.nextDouble(0, 1000), random.nextInt(0, 1000), random.nextDouble(0, 1000), random.nextDouble(1, 3));
+            Technology techA = new Technology(random.nextDouble(0.5, 2));
+            // Every third economy shares one technology between both products
+            Technology techB = i % 3 == 0 ? techA : new Technology(random.nextDouble(0.5, 2));
+            ppcModels.add(new PPCModel(products[i % 3], products[(i + 1) % 3], table.row(i).copy(), techA, techB));
+        }
+        List<SupplyDemandModel> markets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Product product = products[random.nextInt(products.length)];
+            markets.add(new SupplyDemandModel(new SupplyCurve(product, random.nextDouble(-20, 40), random.nextDouble(0.01, 3)),
+                    new DemandCurve(product, random.nextDouble(40, 120), -random.nextDouble(0.01, 3), random.nextBoolean())));
+        }
+
+        ModelSnapshotFile.write(file, ppcModels, markets);
+        ModelSnapshotFile snapshot = ModelSnapshotFile.open(file);
+        assertEquals(economies, snapshot.getPPCModelCount());
+        assertEquals(markets.size(), snapshot.getMarketCount());
+
+        for (int i = 0; i < economies; i++) {
+            PPCModel written = ppcModels.get(i);
+            PPCModel loaded = snapshot.getPPCModel(i);
+            assertSame(loaded, snapshot.getPPCModel(i));
+            assertEquals(written.getProductA().getName(), loaded.getProductA().getName());
+            assertEquals(written.getProductB().getBaseCost(), loaded.getProductB().getBaseCost());
+            Resources before = written.getAvailableResources();
+            Resources after = loaded.getAvailableResources();
+            assertEquals(before.totalLand(), after.totalLand());
+            assertEquals(before.totalLabor(), after.totalLabor());
+            assertEquals(before.totalCapital(), after.totalCapital());
+            assertEquals(before.totalEntrepreneurship(), after.totalEntrepreneurship());
+            assertEquals(written.getTechA().getEfficiencyFactor(), loaded.getTechA().getEfficiencyFactor());
+            assertEquals(written.getTechB().getEfficiencyFactor(), loaded.getTechB().getEfficiencyFactor());
+            assertEquals(written.getAmtA(0), loaded.getAmtA(0));
+            assertEquals(written.getAmtB(0), loaded.getAmtB(0));
+
+            // Sharing a technology survives the round trip, so improving it keeps moving both costs
+            if (written.getTechA() == written.getTechB()) {
+                assertSame(loaded.getTechA(), loaded.getTechB());
+            } else {
+                assertNotSame(loaded.getTechA(), loaded.getTechB());
+            }
+            written.improveTechnologyA(0.25);
+            loaded.improveTechnologyA(0.25);
+            assertEquals(written.getOpportunityCost(written.getProductA()), loaded.getOpportunityCost(loaded.getProductA()));
+            assertEquals(written.getAmtB(0), loaded.getAmtB(0));
+        }
+
+        for (int i = 0; i < markets.size(); i++) {
+            SupplyDemandModel written = markets.get(i);
+            SupplyDemandModel loaded = snapshot.getMarket(i);
+            assertEquals(written.getProduct().getName(), loaded.getProduct().getName());
+            assertEquals(written.getSupplyCurve().getIntercept(), loaded.getSupplyCurve().getIntercept());
+            assertEquals(written.getSupplyCurve().getSlope(), loaded.getSupplyCurve().getSlope());
+            assertEquals(written.getDemandCurve().getIntercept(), loaded.getDemandCurve().getIntercept());
+            assertEquals(written.getDemandCurve().getSlope(), loaded.getDemandCurve().getSlope());
+            assertEquals(written.getDemandCurve().isInferiorGood(), loaded.getDemandCurve().isInferiorGood());
+            assertEquals(written.getEquilibriumPrice(), loaded.getEquilibriumPrice());
+        }
+    }
+
+    @Test
+    void corruptHeadersAreRejected() throws IOException {
+        Product a = new Product("A", 3);
+        Product b = new Product("B", 5);
+        EconomyTable table = new EconomyTable(1);
+        table.set(0, 100, 100, 100, 1);
+        ModelSnapshotFile.write(file, List.of(new PPCModel(a, b, table.row(0), new Technology(1), new Technology(1))),
+                List.of(new SupplyDemandModel(new SupplyCurve(a, 5, 1), new DemandCurve(a, 50, -1, false))));
+        byte[] valid = Files.readAllBytes(file);
+
+        // Counts are ints at 8, 12 and 16, section offsets are longs from 24
+        assertCorrupt(valid, 8, -1, false);
+        assertCorrupt(valid, 12, -1, false);
+        assertCorrupt(valid, 16, Integer.MIN_VALUE, false);
+        assertCorrupt(valid, 12, Integer.MAX_VALUE, false);
+        assertCorrupt(valid, 8, 1000, false);
+        assertCorrupt(valid, 24, -8, true);
+        assertCorrupt(valid, 32, 4, true);
+        assertCorrupt(valid, 40, valid.length, true);
+        assertCorrupt(valid, 48, Long.MAX_VALUE - 8, true);
+        assertCorrupt(valid, 48, 1L << 32, true);
+
+        // The name length of the first product, right after the header and its base cost
+        assertCorrupt(valid, ModelSnapshotFile.HEADER_SIZE + 8, -5, false);
+        assertCorrupt(valid, ModelSnapshotFile.HEADER_SIZE + 8, Integer.MAX_VALUE, false);
+    }
+
+    private void assertCorrupt(byte[] valid, int position, long value, boolean isLong) throws IOException {
+        ByteBuffer corrupt = ByteBuffer.wrap(valid.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        if (isLong) {
+            corrupt.putLong(position, value);
+        } else {
+            corrupt.putInt(position, (int) value);
+        }
+        Files.write(file, corrupt.array());
+        assertThrows(IOException.class, () -> ModelSnapshotFile.open(file), "value " + value + " at " + position);
+    }
+}
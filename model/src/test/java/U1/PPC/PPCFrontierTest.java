@@ -0,0 +1,83 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.resources.EconomyTable;
+
+/**
+ * Compares the batch methods of {@link PPCFrontier} against the scalar methods of the model for every point,
+ * including negative amounts and the extremes of int.
+ */
+class PPCFrontierTest {
+    private static final int[] SPECIAL_AMOUNTS = {
+        0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1, 1 << 30, -(1 << 30)
+    };
+
+    @Test
+    void batchesMatchScalarMethods() {
+        SplittableRandom random = new SplittableRandom(1);
+        Product productA = new Product("A", 3);
+        Product productB = new Product("B", 5);
+        EconomyTable table = new EconomyTable(200);
+        for (int economy = 0; economy < 200; economy++) {
+            table.set(economy, random.nextDouble(0, 1000), random.nextInt(0, 1000), random.nextDouble(0, 1000), random.nextDouble(1, 3));
+            Technology techA = new Technology(random.nextDouble(0.5, 2));
+            Technology techB = economy % 4 == 0 ? techA : new Technology(random.nextDouble(0.5, 2));
+            PPCModel model = new PPCModel(productA, productB, table.row(economy).copy(), techA, techB);
+            PPCFrontier frontier = new PPCFrontier(model);
+
+            int[] amtA = randomAmounts(random, random.nextInt(0, 100));
+            int[] amtB = randomAmounts(random, amtA.length);
+            // Longer outputs than inputs are allowed, and their tails left alone
+            int[] outA = new int[amtA.length + 1];
+            int[] outB = new int[amtA.length + 1];
+            PPCModel.PPCState[] states = new PPCModel.PPCState[amtA.length];
+            frontier.getAmtA(amtB, outA);
+            frontier.getAmtB(amtA, outB);
+            frontier.getEconomicStates(amtA, amtB, states);
+            for (int i = 0; i < amtA.length; i++) {
+                assertEquals(model.getAmtA(amtB[i]), outA[i], "amount of A for " + amtB[i]);
+                assertEquals(model.getAmtB(amtA[i]), outB[i], "amount of B for " + amtA[i]);
+                assertEquals(model.getEconomicState(amtA[i], amtB[i]), states[i], "state at " + amtA[i] + ", " + amtB[i]);
+            }
+            assertEquals(0, outA[amtA.length]);
+            assertEquals(0, outB[amtA.length]);
+        }
+    }
+
+    @Test
+    void mismatchedLengthsAreRejected() {
+        PPCModel model = new PPCModel(new Product("A", 3), new Product("B", 5), new EconomyTable(1).row(0).copy(),
+                new Technology(1), new Technology(1));
+        PPCFrontier frontier = new PPCFrontier(model);
+        assertThrows(IllegalArgumentException.class, () -> frontier.getAmtA(new int[2], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> frontier.getAmtB(new int[2], new int[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> frontier.getEconomicStates(new int[2], new int[1], new PPCModel.PPCState[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> frontier.getEconomicStates(new int[2], new int[2], new PPCModel.PPCState[1]));
+    }
+
+    private static int[] randomAmounts(SplittableRandom random, int length) {
+        int[] amounts = new int[length];
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    amounts[i] = SPECIAL_AMOUNTS[random.nextInt(SPECIAL_AMOUNTS.length)];
+                    break;
+                case 1:
+                    amounts[i] = random.nextInt();
+                    break;
+                default:
+                    amounts[i] = random.nextInt(-1000, 1000);
+                    break;
+            }
+        }
+        return amounts;
+    }
+}
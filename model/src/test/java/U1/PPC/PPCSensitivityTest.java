@@ -0,0 +1,83 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.resources.EconomyTable;
+
+/**
+ * Compares the analytic sensitivities against central differences of the modifier methods of sample PPC models.
+ */
+class PPCSensitivityTest {
+    private static final int ECONOMIES = 500;
+
+    @Test
+    void sensitivitiesMatchCentralDifferences() {
+        SplittableRandom random = new SplittableRandom(19);
+        Product productA = new Product("A", 3);
+        Product productB = new Product("B", 5);
+        EconomyTable table = new EconomyTable(ECONOMIES);
+        PPCModel[] models = new PPCModel[ECONOMIES];
+        for (int i = 0; i < ECONOMIES; i++) {
+            table.set(i, random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextDouble(1, 3));
+            Technology techA = new Technology(random.nextDouble(0.5, 2));
+            // Every fourth economy shares one technology between both products
+            Technology techB = i % 4 == 0 ? techA : new Technology(random.nextDouble(0.5, 2));
+            models[i] = new PPCModel(productA, productB, table.row(i).copy(), techA, techB);
+        }
+
+        PPCSensitivity sensitivity = new PPCSensitivity(models);
+        for (int i = 0; i < ECONOMIES; i++) {
+            assertClose(maxAmtA(models[i]), sensitivity.getMaxAmtA(i));
+            assertClose(maxAmtB(models[i]), sensitivity.getMaxAmtB(i));
+            assertClose(models[i].getOpportunityCost(productA), sensitivity.getOpportunityCostA(i));
+            assertClose(models[i].getOpportunityCost(productB), sensitivity.getOpportunityCostB(i));
+            for (PPCSensitivity.Lever lever : PPCSensitivity.Lever.values()) {
+                // Resources enter the total as a product of two sums, so a step adding whole workers is exact
+                double h = lever == PPCSensitivity.Lever.AVAILABLE_RESOURCES ? 4 : 1e-6;
+                PPCModel up = changed(models[i], lever, h);
+                PPCModel down = changed(models[i], lever, -h);
+                assertClose((maxAmtA(up) - maxAmtA(down)) / (2 * h), sensitivity.getMaxAmtASensitivity(i, lever));
+                assertClose((maxAmtB(up) - maxAmtB(down)) / (2 * h), sensitivity.getMaxAmtBSensitivity(i, lever));
+                assertClose((up.getOpportunityCost(productA) - down.getOpportunityCost(productA)) / (2 * h),
+                        sensitivity.getOpportunityCostASensitivity(i, lever));
+                assertClose((up.getOpportunityCost(productB) - down.getOpportunityCost(productB)) / (2 * h),
+                        sensitivity.getOpportunityCostBSensitivity(i, lever));
+            }
+        }
+    }
+
+    private static PPCModel changed(PPCModel model, PPCSensitivity.Lever lever, double amount) {
+        PPCModel copy = model.copy();
+        switch (lever) {
+            case AVAILABLE_RESOURCES:
+                copy.changeAvailableResources(amount);
+                break;
+            case TECHNOLOGY_A:
+                copy.improveTechnologyA(amount);
+                break;
+            case TECHNOLOGY_B:
+                copy.improveTechnologyB(amount);
+                break;
+        }
+        return copy;
+    }
+
+    /**
+     * Maximum amount of product A before truncation to whole units.
+     */
+    private static double maxAmtA(PPCModel model) {
+        return model.getAvailableResources().totalAmount() / model.getProductA().cost(model.getTechA());
+    }
+
+    private static double maxAmtB(PPCModel model) {
+        return model.getAvailableResources().totalAmount() / model.getProductB().cost(model.getTechB());
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-5 * Math.max(1, Math.abs(expected)));
+    }
+}
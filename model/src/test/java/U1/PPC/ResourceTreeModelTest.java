@@ -0,0 +1,111 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.resources.EconomyTable;
+import U1.resources.ResourceTree;
+
+/**
+ * Checks PPC models whose resources are leaves or ranges of a resource tree against the sums of the leaves.
+ */
+class ResourceTreeModelTest {
+    private static final Product PRODUCT_A = new Product("A", 3);
+    private static final Product PRODUCT_B = new Product("B", 5);
+
+    @Test
+    void copiesAndSnapshotsKeepTheRangeTotal() {
+        SplittableRandom random = new SplittableRandom(240);
+        ResourceTree tree = randomTree(random, 200);
+        for (int round = 0; round < 300; round++) {
+            int from = random.nextInt(0, 200);
+            int to = random.nextInt(from + 1, 201);
+            PPCModel model = new PPCModel(PRODUCT_A, PRODUCT_B, tree.range(from, to),
+                    new Technology(random.nextDouble(0.5, 2)), new Technology(random.nextDouble(0.5, 2)));
+            double total = leafSum(tree, from, to);
+            int amtA = (int) (total / PRODUCT_A.cost(model.getTechA()));
+            int amtB = (int) (total / PRODUCT_B.cost(model.getTechB()));
+            PPCModel copy = model.copy();
+            PPCSnapshot snapshot = model.snapshot();
+
+            assertEquals(amtA, model.getAmtA(0));
+            assertEquals(amtA, copy.getAmtA(0));
+            assertEquals(amtA, snapshot.getAmtA(0));
+            assertEquals(amtB, copy.getAmtB(0));
+            assertEquals(amtB, snapshot.withTechnologyImprovementA(0.1).getAmtB(0));
+            assertEquals(model.getAvailableResources().totalAmount(), snapshot.getAvailableAmount());
+
+            // Later changes to the tree move the model but not its copies
+            tree.addCapital(from, 500);
+            assertEquals(amtA, copy.getAmtA(0));
+            assertEquals(amtA, snapshot.getAmtA(0));
+            assertTrue(model.getAmtA(0) >= amtA);
+            tree.addCapital(from, -500);
+        }
+    }
+
+    @Test
+    void leafModelsCanBeChangedAndRangeModelsCannot() {
+        SplittableRandom random = new SplittableRandom(241);
+        ResourceTree tree = randomTree(random, 10);
+        PPCModel leafModel = new PPCModel(PRODUCT_A, PRODUCT_B, tree.leaf(3), new Technology(1), new Technology(1));
+        leafModel.changeAvailableResources(40);
+        assertEquals(leafSum(tree, 0, 10), tree.total().totalAmount(), 1e-9 * tree.total().totalAmount());
+        PPCModel leafCopy = leafModel.copy();
+        leafCopy.changeAvailableResources(40);
+        assertEquals(leafModel.getAvailableResources().totalAmount(), tree.leaf(3).totalAmount());
+
+        PPCModel rangeModel = new PPCModel(PRODUCT_A, PRODUCT_B, tree.range(2, 8), new Technology(1), new Technology(1));
+        assertThrows(UnsupportedOperationException.class, () -> rangeModel.changeAvailableResources(4));
+        assertThrows(UnsupportedOperationException.class, () -> rangeModel.copy().changeAvailableResources(4));
+        assertThrows(UnsupportedOperationException.class, () -> rangeModel.snapshot().withResourceChange(4));
+    }
+
+    @Test
+    void sensitivitiesOfRangeModelsUseTheLeafSum() {
+        SplittableRandom random = new SplittableRandom(242);
+        ResourceTree tree = randomTree(random, 50);
+        PPCModel model = new PPCModel(PRODUCT_A, PRODUCT_B, tree.range(5, 45), new Technology(1.5), new Technology(0.8));
+        PPCSensitivity sensitivity = new PPCSensitivity(new PPCModel[] {model});
+        double total = leafSum(tree, 5, 45);
+        assertEquals(total / PRODUCT_A.cost(model.getTechA()), sensitivity.getMaxAmtA(0), 1e-9 * total);
+        assertEquals(total / PRODUCT_B.cost(model.getTechB()), sensitivity.getMaxAmtB(0), 1e-9 * total);
+        assertTrue(Double.isNaN(sensitivity.getMaxAmtASensitivity(0, PPCSensitivity.Lever.AVAILABLE_RESOURCES)));
+    }
+
+    @Test
+    void snapshotFilesRejectRangeModels() throws Exception {
+        ResourceTree tree = randomTree(new SplittableRandom(243), 10);
+        PPCModel model = new PPCModel(PRODUCT_A, PRODUCT_B, tree.range(0, 10), new Technology(1), new Technology(1));
+        Path file = Files.createTempFile("ranges", ".snapshot");
+        try {
+            assertThrows(IllegalArgumentException.class, () -> ModelSnapshotFile.write(file, List.of(model), List.of()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static ResourceTree randomTree(SplittableRandom random, int leaves) {
+        EconomyTable table = new EconomyTable(leaves);
+        for (int i = 0; i < leaves; i++) {
+            table.set(i, random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextInt(1, 1000), random.nextDouble(1, 3));
+        }
+        return ResourceTree.of(table);
+    }
+
+    private static double leafSum(ResourceTree tree, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += (tree.land(i) + tree.capital(i) + tree.labor(i)) * tree.entrepreneurship(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,148 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.jupiter.api.Test;
+
+import U1.resources.EconomyTable;
+import U1.resources.Resources;
+
+/**
+ * Compares the rankings of a trade index against scans over every country, through updates that move countries
+ * in both directions and with technologies and resources drawn from a few values so that many countries tie.
+ */
+class TradeIndexTest {
+    private static final int COUNTRIES = 60;
+    // Dyadic factors, so that moving a technology between them is exact and equal factors give equal keys
+    private static final double[] FACTORS = {0.5, 1, 1.5, 2, 2.5};
+
+    private final Product productA = new Product("A", 3);
+    private final Product productB = new Product("B", 5);
+
+    @Test
+    void rankingsMatchScansThroughUpdates() {
+        SplittableRandom random = new SplittableRandom(7);
+        EconomyTable table = new EconomyTable(COUNTRIES);
+        PPCModel[] countries = new PPCModel[COUNTRIES];
+        for (int i = 0; i < COUNTRIES; i++) {
+            int size = 100 * random.nextInt(1, 4);
+            table.set(i, size, size, size, 2);
+            countries[i] = new PPCModel(productA, productB, table.row(i).copy(), new Technology(factor(random)),
+                    new Technology(factor(random)));
+        }
+        TradeIndex index = new TradeIndex(countries);
+        assertEquals(COUNTRIES, index.size());
+        assertRankings(index, countries);
+
+        for (int round = 0; round < 2_000; round++) {
+            int country = random.nextInt(COUNTRIES);
+            PPCModel model = countries[country];
+            switch (random.nextInt(3)) {
+                case 0:
+                    model.improveTechnologyA(factor(random) - model.getTechA().getEfficiencyFactor());
+                    break;
+                case 1:
+                    model.improveTechnologyB(factor(random) - model.getTechB().getEfficiencyFactor());
+                    break;
+                default:
+                    // Whole steps of four keep every resource a whole number, so equal sizes stay equal
+                    double step = 4 * random.nextInt(-5, 6);
+                    Resources resources = model.getAvailableResources();
+                    if (resources.totalLand() + step / 4 > 0 && resources.totalEntrepreneurship() + step / 4 > 0) {
+                        model.changeAvailableResources(step);
+                    }
+                    break;
+            }
+            index.update(country);
+            assertSame(model, index.getCountry(country));
+            assertRankings(index, countries);
+        }
+    }
+
+    @Test
+    void invalidIndexesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TradeIndex(new PPCModel[0]));
+        EconomyTable table = new EconomyTable(1);
+        table.set(0, 100, 100, 100, 2);
+        PPCModel country = new PPCModel(productA, productB, table.row(0).copy(), new Technology(1), new Technology(1));
+        PPCModel other = new PPCModel(productA, new Product("C", 1), table.row(0).copy(), new Technology(1), new Technology(1));
+        assertThrows(IllegalArgumentException.class, () -> new TradeIndex(new PPCModel[] {country, other}));
+        TradeIndex index = new TradeIndex(new PPCModel[] {country});
+        assertSame(country, index.absoluteAdvantage(productA));
+        assertSame(country, index.comparativeAdvantage(productB));
+        assertThrows(IllegalArgumentException.class, () -> index.absoluteAdvantage(new Product("C", 1)));
+        assertEquals(0, index.topProducers(productA, -1).length);
+        assertEquals(1, index.topProducers(productA, 5).length);
+    }
+
+    private void assertRankings(TradeIndex index, PPCModel[] countries) {
+        for (Product product : new Product[] {productA, productB}) {
+            boolean isA = product == productA;
+            // Lower keys are better: the negated maximum output, and the opportunity cost
+            ToDoubleFunction<PPCModel> absolute = model -> -(isA ? model.getAmtA(0) : model.getAmtB(0));
+            ToDoubleFunction<PPCModel> comparative = model -> model.getOpportunityCost(product);
+            assertRanking(countries, absolute, index.absoluteAdvantage(product), index.topProducers(product, 10),
+                    country -> index.absoluteRank(product, country));
+            assertRanking(countries, comparative, index.comparativeAdvantage(product),
+                    index.topComparativeProducers(product, 10), country -> index.comparativeRank(product, country));
+        }
+    }
+
+    private static void assertRanking(PPCModel[] countries, ToDoubleFunction<PPCModel> key, PPCModel best,
+            PPCModel[] top, IntUnaryOperator rank) {
+        double[] keys = new double[countries.length];
+        for (int i = 0; i < countries.length; i++) {
+            keys[i] = key.applyAsDouble(countries[i]);
+        }
+        double[] sorted = keys.clone();
+        Arrays.sort(sorted);
+
+        int bestCount = 0;
+        PPCModel expectedBest = null;
+        for (int i = 0; i < countries.length; i++) {
+            if (Double.compare(keys[i], sorted[0]) == 0) {
+                bestCount++;
+                expectedBest = countries[i];
+            }
+        }
+        if (bestCount > 1) {
+            assertNull(best, "tied countries have no advantage");
+        } else {
+            assertSame(expectedBest, best);
+        }
+
+        // Tied countries may come in any order, but the keys must be the best ones and the countries distinct
+        double[] topKeys = new double[top.length];
+        for (int i = 0; i < top.length; i++) {
+            topKeys[i] = key.applyAsDouble(top[i]);
+            for (int j = 0; j < i; j++) {
+                assertNotSame(top[j], top[i], "country listed twice");
+            }
+        }
+        assertArrayEquals(Arrays.copyOf(sorted, top.length), topKeys);
+
+        for (int i = 0; i < countries.length; i++) {
+            int better = 0;
+            for (double other : keys) {
+                if (Double.compare(other, keys[i]) < 0) {
+                    better++;
+                }
+            }
+            assertEquals(better, rank.applyAsInt(i), "rank of country " + i);
+        }
+    }
+
+    private static double factor(SplittableRandom random) {
+        return FACTORS[random.nextInt(FACTORS.length)];
+    }
+}
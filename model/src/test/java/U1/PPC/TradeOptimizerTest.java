@@ -0,0 +1,433 @@
+package U1.PPC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.resources.EconomyTable;
+import U1.resources.Resources;
+
+/**
+ * Compares two-product plans against every way of splitting the production of product B between the countries,
+ * and multi-good plans against every basic solution of the same linear program on small problems. Checks the
+ * prices of multi-good plans against the dual of that program and against the change in value when the resources
+ * of a country grow.
+ */
+class TradeOptimizerTest {
+    private static final double TOLERANCE = 1e-9;
+    // Dyadic factors, so that some countries share the same opportunity costs
+    private static final double[] FACTORS = {0.5, 1, 1.5, 2, 2.5};
+
+    private final Product productA = new Product("A", 3);
+    private final Product productB = new Product("B", 5);
+
+    @Test
+    void twoProductPlansMatchExhaustiveSplits() {
+        SplittableRandom random = new SplittableRandom(25);
+        for (int round = 0; round < 300; round++) {
+            int n = random.nextInt(1, 7);
+            PPCModel[] countries = new PPCModel[n];
+            int[] demandA = new int[n];
+            int[] demandB = new int[n];
+            for (int i = 0; i < n; i++) {
+                boolean tied = random.nextBoolean();
+                countries[i] = new PPCModel(productA, productB, resources(random),
+                        new Technology(tied ? factor(random) : random.nextDouble(0.5, 3)),
+                        new Technology(tied ? factor(random) : random.nextDouble(0.5, 3)));
+                double total = countries[i].getAvailableResources().totalAmount();
+                double costA = productA.cost(countries[i].getTechA());
+                double costB = productB.cost(countries[i].getTechB());
+                demandB[i] = random.nextInt((int) (total / costB / 2) + 1);
+                demandA[i] = random.nextInt((int) ((total - demandB[i] * costB) / costA) + 1);
+            }
+            TradeOptimizer.Plan plan = TradeOptimizer.specialize(countries, demandA, demandB);
+            assertEquals(n, plan.size());
+            assertEquals(exhaustiveWorldAmtA(countries, demandB), plan.getWorldAmtA(), TOLERANCE * plan.getWorldAmtA(),
+                    "world amount of A in round " + round);
+
+            double demandedB = 0;
+            double demandedA = 0;
+            int producingBoth = 0;
+            for (int i = 0; i < n; i++) {
+                double total = countries[i].getAvailableResources().totalAmount();
+                double amtA = plan.getAmtA(i);
+                double amtB = plan.getAmtB(i);
+                assertTrue(amtA >= 0 && amtB >= 0);
+                assertEquals(total, amtA * productA.cost(countries[i].getTechA()) + amtB * productB.cost(countries[i].getTechB()),
+                        TOLERANCE * total, "every country produces on its PPC");
+                if (amtA > 0 && amtB > 0) {
+                    producingBoth++;
+                    assertEquals(i, plan.getMarginalCountry());
+                }
+                demandedA += demandA[i];
+                demandedB += demandB[i];
+            }
+            assertTrue(producingBoth <= 1, "at most one country produces both products");
+            assertEquals(demandedB, plan.getWorldAmtB(), TOLERANCE * Math.max(1, demandedB));
+            assertEquals(plan.getWorldAmtA() - demandedA, plan.getGainsFromTrade());
+            assertTrue(plan.getGainsFromTrade() >= -TOLERANCE * plan.getWorldAmtA());
+
+            // Every country gains at both ends of the range of terms of trade, and the range is where it should be
+            assertTrue(plan.getMinTermsOfTrade() <= plan.getMaxTermsOfTrade());
+            for (int i = 0; i < n; i++) {
+                double opportunityCost = countries[i].getOpportunityCost(productA);
+                if (plan.getAmtA(i) > 0) {
+                    assertTrue(opportunityCost <= plan.getMinTermsOfTrade() * (1 + TOLERANCE));
+                }
+                if (plan.getAmtB(i) > 0) {
+                    assertTrue(opportunityCost >= plan.getMaxTermsOfTrade() * (1 - TOLERANCE));
+                }
+                double scale = TOLERANCE * countries[i].getAvailableResources().totalAmount();
+                assertTrue(plan.getGainsFromTrade(i, plan.getMinTermsOfTrade()) >= -scale);
+                if (plan.getMaxTermsOfTrade() < Double.POSITIVE_INFINITY) {
+                    assertTrue(plan.getGainsFromTrade(i, plan.getMaxTermsOfTrade()) >= -scale);
+                }
+            }
+
+            // The multi-good plan valuing only product A is the same problem
+            MultiGoodModel[] models = new MultiGoodModel[n];
+            for (int i = 0; i < n; i++) {
+                models[i] = new MultiGoodModel(new Product[] {productA, productB},
+                        new Technology[] {countries[i].getTechA(), countries[i].getTechB()}, countries[i].getAvailableResources());
+                models[i].setQuota(0, demandA[i]);
+                models[i].setQuota(1, demandB[i]);
+            }
+            TradeOptimizer.MultiGoodPlan multiGoodPlan = TradeOptimizer.specialize(models, new double[] {1, 0});
+            assertNotNull(multiGoodPlan);
+            assertEquals(plan.getWorldAmtA(), multiGoodPlan.getValue(), TOLERANCE * plan.getWorldAmtA());
+            assertEquals(plan.getWorldAmtA(), multiGoodPlan.getWorldAmount(0), TOLERANCE * plan.getWorldAmtA());
+        }
+    }
+
+    @Test
+    void multiGoodPlansMatchEveryBasicSolution() {
+        SplittableRandom random = new SplittableRandom(26);
+        int infeasible = 0;
+        for (int round = 0; round < 200; round++) {
+            int n = random.nextInt(1, 4);
+            int goods = random.nextInt(1, 4);
+            MultiGoodModel[] countries = countries(random, n, goods, 0.6);
+            double[] values = values(random, goods);
+
+            double expected = exhaustiveValue(countries, values);
+            TradeOptimizer.MultiGoodPlan plan = TradeOptimizer.specialize(countries, values);
+            if (Double.isNaN(expected)) {
+                assertNull(plan, "round " + round + " has no feasible plan");
+                infeasible++;
+                continue;
+            }
+            assertNotNull(plan, "round " + round + " has a feasible plan");
+            assertEquals(expected, plan.getValue(), TOLERANCE * Math.max(1, expected), "value in round " + round);
+            assertOptimal(countries, values, plan);
+        }
+        assertTrue(infeasible > 0 && infeasible < 200, "both feasible and infeasible quotas are covered");
+    }
+
+    @Test
+    void resourcePricesMatchChangesInValue() {
+        SplittableRandom random = new SplittableRandom(27);
+        for (int round = 0; round < 50; round++) {
+            int n = random.nextInt(2, 8);
+            int goods = random.nextInt(2, 5);
+            MultiGoodModel[] countries = countries(random, n, goods, 0.3);
+            double[] values = values(random, goods);
+            TradeOptimizer.MultiGoodPlan plan = TradeOptimizer.specialize(countries, values);
+            assertNotNull(plan);
+
+            int country = random.nextInt(n);
+            Resources resources = countries[country].getAvailableResources();
+            double before = resources.totalAmount();
+            resources.addLand(1e-4);
+            double growth = resources.totalAmount() - before;
+            TradeOptimizer.MultiGoodPlan grown = TradeOptimizer.specialize(countries, values);
+            // Random costs leave the optimal basis unchanged by so small a change
+            assertEquals(plan.getResourcePrice(country) * growth, grown.getValue() - plan.getValue(),
+                    1e-6 * growth * Math.max(1, plan.getResourcePrice(country)), "resource price in round " + round);
+        }
+    }
+
+    @Test
+    void largePlansSatisfyDuality() {
+        SplittableRandom random = new SplittableRandom(28);
+        // Enough countries for each pivot to be split across fork/join tasks
+        int n = 150;
+        int goods = 4;
+        MultiGoodModel[] countries = countries(random, n, goods, 0.5);
+        double[] values = values(random, goods);
+        TradeOptimizer.MultiGoodPlan plan = TradeOptimizer.specialize(countries, values);
+        assertNotNull(plan);
+        assertEquals(n, plan.size());
+        assertEquals(goods, plan.getGoods());
+        assertOptimal(countries, values, plan);
+    }
+
+    @Test
+    void invalidPlansAreRejected() {
+        Resources resources = resources(10, 10, 10, 1);
+        PPCModel country = new PPCModel(productA, productB, resources, new Technology(1), new Technology(1));
+        PPCModel other = new PPCModel(productA, new Product("C", 1), resources, new Technology(1), new Technology(1));
+        assertThrows(IllegalArgumentException.class, () -> TradeOptimizer.specialize(new PPCModel[0], new int[0], new int[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> TradeOptimizer.specialize(new PPCModel[] {country}, new int[2], new int[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> TradeOptimizer.specialize(new PPCModel[] {country, other}, new int[2], new int[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> TradeOptimizer.specialize(new PPCModel[] {country}, new int[] {-1}, new int[1]));
+        // 30 units of resources produce 10 of product A or 6 of product B
+        assertThrows(IllegalArgumentException.class,
+                () -> TradeOptimizer.specialize(new PPCModel[] {country}, new int[] {5}, new int[] {4}));
+        assertEquals(10, TradeOptimizer.specialize(new PPCModel[] {country}, new int[] {10}, new int[1]).getWorldAmtA(), TOLERANCE);
+
+        MultiGoodModel model = new MultiGoodModel(new Product[] {productA, productB},
+                new Technology[] {new Technology(1), new Technology(1)}, resources);
+        assertThrows(IllegalArgumentException.class, () -> TradeOptimizer.specialize(new MultiGoodModel[0], new double[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> TradeOptimizer.specialize(new MultiGoodModel[] {model}, new double[] {1}));
+        model.setQuota(1, 7);
+        assertNull(TradeOptimizer.specialize(new MultiGoodModel[] {model}, new double[] {1, 1}));
+    }
+
+    /**
+     * Checks that a multi-good plan is feasible and that its prices are a feasible solution of the dual program
+     * with the same value, which proves both optimal.
+     */
+    private static void assertOptimal(MultiGoodModel[] countries, double[] values, TradeOptimizer.MultiGoodPlan plan) {
+        int goods = values.length;
+        double scale = 0;
+        double value = 0;
+        double dualValue = 0;
+        for (int i = 0; i < countries.length; i++) {
+            double total = countries[i].getAvailableResources().totalAmount();
+            double used = 0;
+            for (int g = 0; g < goods; g++) {
+                assertTrue(plan.getAmount(i, g) >= 0);
+                used += plan.getAmount(i, g) * countries[i].getCost(g);
+                value += plan.getAmount(i, g) * values[g];
+                // No product is worth more than the resources it takes
+                assertTrue(plan.getResourcePrice(i) * countries[i].getCost(g) >= plan.getPrice(g) - TOLERANCE * plan.getPrice(g),
+                        "reduced cost of product " + g + " in country " + i);
+            }
+            assertTrue(used <= total * (1 + TOLERANCE));
+            assertTrue(plan.getResourcePrice(i) >= 0);
+            dualValue += plan.getResourcePrice(i) * total;
+            scale += plan.getResourcePrice(i) * total;
+            double gains = plan.getGainsFromTrade(i);
+            assertTrue(Double.isNaN(gains) || gains >= 0);
+        }
+        for (int g = 0; g < goods; g++) {
+            double demanded = 0;
+            for (MultiGoodModel country : countries) {
+                demanded += country.getQuota(g);
+            }
+            assertTrue(plan.getWorldAmount(g) >= demanded - TOLERANCE * Math.max(1, demanded));
+            assertTrue(plan.getPrice(g) >= values[g]);
+            dualValue -= (plan.getPrice(g) - values[g]) * demanded;
+        }
+        assertEquals(value, plan.getValue(), TOLERANCE * Math.max(1, value));
+        assertEquals(value, dualValue, TOLERANCE * Math.max(1, scale), "strong duality");
+    }
+
+    /**
+     * Best world amount of product A over every choice of countries producing only product B, with at most one more
+     * country producing the rest of the demand for product B. Every country spends all of its resources, since
+     * product A has value.
+     */
+    private double exhaustiveWorldAmtA(PPCModel[] countries, int[] demandB) {
+        int n = countries.length;
+        double demandedB = 0;
+        for (int amount : demandB) {
+            demandedB += amount;
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (int subset = 0; subset < 1 << n; subset++) {
+            for (int marginal = -1; marginal < n; marginal++) {
+                if (marginal >= 0 && (subset & 1 << marginal) != 0) {
+                    continue;
+                }
+                double[] amtB = new double[n];
+                double remaining = demandedB;
+                for (int i = 0; i < n; i++) {
+                    if ((subset & 1 << i) != 0) {
+                        amtB[i] = maxB(countries[i]);
+                        remaining -= amtB[i];
+                    }
+                }
+                if (marginal >= 0) {
+                    if (remaining < 0 || remaining > maxB(countries[marginal])) {
+                        continue;
+                    }
+                    amtB[marginal] = remaining;
+                } else if (remaining > TOLERANCE * Math.max(1, demandedB)) {
+                    continue;
+                }
+                double worldA = 0;
+                for (int i = 0; i < n; i++) {
+                    PPCModel country = countries[i];
+                    worldA += (country.getAvailableResources().totalAmount() - amtB[i] * productB.cost(country.getTechB()))
+                            / productA.cost(country.getTechA());
+                }
+                best = Math.max(best, worldA);
+            }
+        }
+        return best;
+    }
+
+    private double maxB(PPCModel country) {
+        return country.getAvailableResources().totalAmount() / productB.cost(country.getTechB());
+    }
+
+    /**
+     * Best value over every basic solution of the multi-good program, written with a slack per country and a
+     * surplus per product so that the constraints are equalities.
+     * @return Best value, or NaN if no basic solution is feasible.
+     */
+    private static double exhaustiveValue(MultiGoodModel[] countries, double[] values) {
+        int n = countries.length;
+        int goods = values.length;
+        int variables = n * goods;
+        int columns = variables + n + goods;
+        int rows = n + goods;
+        double[][] matrix = new double[rows][columns];
+        double[] rhs = new double[rows];
+        for (int i = 0; i < n; i++) {
+            for (int g = 0; g < goods; g++) {
+                matrix[i][i * goods + g] = countries[i].getCost(g);
+                matrix[n + g][i * goods + g] = 1;
+                rhs[n + g] += countries[i].getQuota(g);
+            }
+            matrix[i][variables + i] = 1;
+            rhs[i] = countries[i].getAvailableResources().totalAmount();
+        }
+        for (int g = 0; g < goods; g++) {
+            matrix[n + g][variables + n + g] = -1;
+        }
+
+        double best = Double.NaN;
+        int[] basis = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            basis[i] = i;
+        }
+        while (true) {
+            double[] solution = solve(matrix, rhs, basis);
+            if (solution != null) {
+                boolean feasible = true;
+                double value = 0;
+                for (int r = 0; r < rows; r++) {
+                    feasible &= solution[r] >= -TOLERANCE * Math.max(1, Math.abs(rhs[r]));
+                    if (basis[r] < variables) {
+                        value += solution[r] * values[basis[r] % goods];
+                    }
+                }
+                if (feasible && !(value <= best)) {
+                    best = value;
+                }
+            }
+            // Next combination of columns in lexicographic order
+            int r = rows - 1;
+            while (r >= 0 && basis[r] == columns - rows + r) {
+                r--;
+            }
+            if (r < 0) {
+                return best;
+            }
+            basis[r]++;
+            for (int s = r + 1; s < rows; s++) {
+                basis[s] = basis[s - 1] + 1;
+            }
+        }
+    }
+
+    /**
+     * Solve for the basic variables by Gaussian elimination with partial pivoting.
+     * @return Values of the basic variables, or null if the columns are linearly dependent.
+     */
+    private static double[] solve(double[][] matrix, double[] rhs, int[] basis) {
+        int rows = rhs.length;
+        double[][] system = new double[rows][rows + 1];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < rows; c++) {
+                system[r][c] = matrix[r][basis[c]];
+            }
+            system[r][rows] = rhs[r];
+        }
+        for (int c = 0; c < rows; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < rows; r++) {
+                if (Math.abs(system[r][c]) > Math.abs(system[pivot][c])) {
+                    pivot = r;
+                }
+            }
+            if (Math.abs(system[pivot][c]) < 1e-12) {
+                return null;
+            }
+            double[] swap = system[c];
+            system[c] = system[pivot];
+            system[pivot] = swap;
+            for (int r = 0; r < rows; r++) {
+                if (r != c) {
+                    double factor = system[r][c] / system[c][c];
+                    for (int k = c; k <= rows; k++) {
+                        system[r][k] -= factor * system[c][k];
+                    }
+                }
+            }
+        }
+        double[] solution = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            solution[r] = system[r][rows] / system[r][r];
+        }
+        return solution;
+    }
+
+    /**
+     * Countries with random technologies and quotas using up to a given share of their resources on average, so
+     * that larger shares leave some problems infeasible.
+     */
+    private static MultiGoodModel[] countries(SplittableRandom random, int n, int goods, double share) {
+        Product[] products = new Product[goods];
+        for (int g = 0; g < goods; g++) {
+            products[g] = new Product("P" + g, random.nextDouble(1, 5));
+        }
+        MultiGoodModel[] countries = new MultiGoodModel[n];
+        for (int i = 0; i < n; i++) {
+            Technology[] techs = new Technology[goods];
+            for (int g = 0; g < goods; g++) {
+                techs[g] = new Technology(random.nextDouble(0.5, 3));
+            }
+            countries[i] = new MultiGoodModel(products, techs, resources(random));
+            double budget = countries[i].getAvailableResources().totalAmount() * share / goods;
+            for (int g = 0; g < goods; g++) {
+                countries[i].setQuota(g, random.nextInt((int) (2 * budget / countries[i].getCost(g)) + 1));
+            }
+        }
+        return countries;
+    }
+
+    private static double[] values(SplittableRandom random, int goods) {
+        double[] values = new double[goods];
+        for (int g = 0; g < goods; g++) {
+            values[g] = random.nextDouble(0.5, 2);
+        }
+        return values;
+    }
+
+    private static Resources resources(SplittableRandom random) {
+        return resources(random.nextDouble(10, 100), random.nextInt(10, 100), random.nextDouble(10, 100), random.nextDouble(1, 3));
+    }
+
+    private static Resources resources(double land, int labor, double capital, double entrepreneurship) {
+        EconomyTable table = new EconomyTable(1);
+        table.set(0, land, labor, capital, entrepreneurship);
+        return table.row(0).copy();
+    }
+
+    private static double factor(SplittableRandom random) {
+        return FACTORS[random.nextInt(FACTORS.length)];
+    }
+}
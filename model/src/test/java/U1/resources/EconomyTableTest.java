@@ -0,0 +1,135 @@
+package U1.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares an economy table, modified by range and through a moving row view, against one {@link Resources} object
+ * per economy modified in the same way.
+ */
+class EconomyTableTest {
+    private static final int ECONOMIES = 200;
+
+    @Test
+    void tableMatchesResourcesObjects() {
+        SplittableRandom random = new SplittableRandom(3);
+        EconomyTable table = new EconomyTable(ECONOMIES);
+        Resources[] expected = new Resources[ECONOMIES];
+        for (int i = 0; i < ECONOMIES; i++) {
+            double land = random.nextDouble(0, 1000);
+            int labor = random.nextInt(0, 1000);
+            double capital = random.nextDouble(0, 1000);
+            double entrepreneurship = random.nextDouble(1, 3);
+            table.set(i, land, labor, capital, entrepreneurship);
+            expected[i] = new Resources(new R_Land(land), new R_Labor(labor), new R_Capital(capital),
+                    new R_Entrepreneurship(entrepreneurship));
+        }
+
+        EconomyTable.Row row = table.row(0);
+        double[] totals = new double[ECONOMIES];
+        for (int round = 0; round < 5_000; round++) {
+            long version = table.getVersion();
+            int from = random.nextInt(0, ECONOMIES + 1);
+            int to = random.nextInt(from, ECONOMIES + 1);
+            double amount = random.nextDouble(-10, 10);
+            int workers = random.nextInt(-10, 11);
+            int index = random.nextInt(ECONOMIES);
+            switch (random.nextInt(8)) {
+                case 0:
+                    table.addLand(from, to, amount);
+                    for (int i = from; i < to; i++) {
+                        expected[i].addLand(amount);
+                    }
+                    break;
+                case 1:
+                    table.addLabor(from, to, workers);
+                    for (int i = from; i < to; i++) {
+                        expected[i].addLabor(workers);
+                    }
+                    break;
+                case 2:
+                    table.addCapital(from, to, amount);
+                    for (int i = from; i < to; i++) {
+                        expected[i].addCapital(amount);
+                    }
+                    break;
+                case 3:
+                    table.improveEntrepreneurship(from, to, amount / 100);
+                    for (int i = from; i < to; i++) {
+                        expected[i].improveEntrepreneurship(amount / 100);
+                    }
+                    break;
+                case 4:
+                    row.moveTo(index).addLand(amount);
+                    expected[index].addLand(amount);
+                    break;
+                case 5:
+                    row.moveTo(index).addLabor(workers);
+                    expected[index].addLabor(workers);
+                    break;
+                case 6:
+                    row.moveTo(index).addCapital(amount);
+                    expected[index].addCapital(amount);
+                    break;
+                default:
+                    row.moveTo(index).improveEntrepreneurship(amount / 100);
+                    expected[index].improveEntrepreneurship(amount / 100);
+                    break;
+            }
+            assertTrue(table.getVersion() > version, "every modification changes the version");
+            assertEquals(table.getVersion(), row.getVersion());
+
+            int checked = random.nextInt(ECONOMIES);
+            assertSame(row, row.moveTo(checked));
+            assertEquals(checked, row.getIndex());
+            assertEquals(expected[checked].totalLand(), row.totalLand());
+            assertEquals(expected[checked].totalLabor(), row.totalLabor());
+            assertEquals(expected[checked].totalCapital(), row.totalCapital());
+            assertEquals(expected[checked].totalEntrepreneurship(), row.totalEntrepreneurship());
+            assertEquals(expected[checked].totalAmount(), row.totalAmount());
+            assertEquals(expected[checked].totalAmount(), table.totalAmount(checked));
+        }
+
+        table.totalAmount(0, ECONOMIES, totals);
+        for (int i = 0; i < ECONOMIES; i++) {
+            assertEquals(expected[i].totalLand(), table.land(i));
+            assertEquals(expected[i].totalLabor(), table.labor(i));
+            assertEquals(expected[i].totalCapital(), table.capital(i));
+            assertEquals(expected[i].totalEntrepreneurship(), table.entrepreneurship(i));
+            assertEquals(expected[i].totalAmount(), totals[i]);
+        }
+    }
+
+    @Test
+    void copiesOfRowsAreIndependent() {
+        EconomyTable table = new EconomyTable(2);
+        table.set(0, 10, 20, 30, 2);
+        Resources copy = table.row(0).copy();
+        table.addLand(0, 2, 5);
+        table.row(0).addLabor(1);
+        assertEquals(10, copy.totalLand());
+        assertEquals(20, copy.totalLabor());
+        assertEquals((10 + 30 + 20) * 2, copy.totalAmount());
+        assertEquals((15 + 30 + 21) * 2, table.totalAmount(0));
+        // Rows outside the range keep their values
+        table.addCapital(1, 1, 100);
+        assertEquals(0, table.capital(1));
+    }
+
+    @Test
+    void invalidRowsAreRejected() {
+        EconomyTable table = new EconomyTable(3);
+        assertThrows(IndexOutOfBoundsException.class, () -> table.addLand(-1, 2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.addLabor(0, 4, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.addCapital(2, 1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.totalAmount(0, 4, new double[4]));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.row(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.row(0).moveTo(-1));
+    }
+}
@@ -0,0 +1,232 @@
+package U1.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the leaves, range sums and copies of a resource tree against plain arrays modified in the same way.
+ */
+class ResourceTreeTest {
+    private static final int LEAVES = 300;
+
+    @Test
+    void sumsMatchBruteForceAfterModifications() {
+        SplittableRandom random = new SplittableRandom(24);
+        EconomyTable table = randomTable(random, LEAVES);
+        ResourceTree tree = ResourceTree.of(table);
+        Shadow shadow = new Shadow(table);
+        ResourceTree.Range region = tree.range(37, 211);
+
+        for (int round = 0; round < 5000; round++) {
+            shadow.modify(random, tree);
+            int from = random.nextInt(0, LEAVES + 1);
+            int to = random.nextInt(from, LEAVES + 1);
+            assertClose(shadow.land(from, to), tree.land(from, to));
+            assertEquals(shadow.labor(from, to), tree.labor(from, to));
+            assertClose(shadow.capital(from, to), tree.capital(from, to));
+            assertClose(shadow.entrepreneurship(from, to), tree.entrepreneurship(from, to));
+            assertClose(shadow.amount(from, to), tree.totalAmount(from, to));
+            assertClose(shadow.amount(37, 211), region.totalAmount());
+            assertEquals(shadow.labor(37, 211), region.totalLabor());
+
+            int leaf = random.nextInt(LEAVES);
+            assertClose(shadow.amount(leaf, leaf + 1), tree.leaf(leaf).totalAmount());
+        }
+    }
+
+    @Test
+    void treeBuiltFromTableMatchesTreeBuiltBySetting() {
+        SplittableRandom random = new SplittableRandom(25);
+        EconomyTable table = randomTable(random, LEAVES);
+        ResourceTree built = ResourceTree.of(table);
+        ResourceTree set = new ResourceTree(LEAVES);
+        for (int i = 0; i < LEAVES; i++) {
+            set.set(i, table.land(i), table.labor(i), table.capital(i), table.entrepreneurship(i));
+        }
+        for (int from = 0; from <= LEAVES; from += 7) {
+            for (int to = from; to <= LEAVES; to += 11) {
+                assertClose(set.totalAmount(from, to), built.totalAmount(from, to));
+                assertClose(set.land(from, to), built.land(from, to));
+                assertEquals(set.labor(from, to), built.labor(from, to));
+            }
+        }
+    }
+
+    @Test
+    void copiesKeepTheTotalAmountAndIgnoreLaterChanges() {
+        SplittableRandom random = new SplittableRandom(26);
+        ResourceTree tree = ResourceTree.of(randomTable(random, LEAVES));
+        for (int round = 0; round < 200; round++) {
+            int from = random.nextInt(0, LEAVES);
+            int to = random.nextInt(from + 1, LEAVES + 1);
+            ResourceTree.Range range = tree.range(from, to);
+            Resources rangeCopy = range.copy();
+            ResourceTree.Leaf leaf = tree.leaf(from);
+            Resources leafCopy = leaf.copy();
+
+            assertEquals(range.totalAmount(), rangeCopy.totalAmount());
+            assertEquals(range.totalLand(), rangeCopy.totalLand());
+            assertEquals(range.totalLabor(), rangeCopy.totalLabor());
+            assertEquals(range.totalCapital(), rangeCopy.totalCapital());
+            assertEquals(range.totalEntrepreneurship(), rangeCopy.totalEntrepreneurship());
+            assertEquals(range.totalAmount(), rangeCopy.copy().totalAmount());
+            assertEquals(leaf.totalAmount(), leafCopy.totalAmount());
+
+            double rangeAmount = range.totalAmount();
+            double leafAmount = leaf.totalAmount();
+            tree.addLand(from, 10);
+            tree.improveEntrepreneurship(from, 0.5);
+            assertEquals(rangeAmount, rangeCopy.totalAmount());
+            assertEquals(leafAmount, leafCopy.totalAmount());
+
+            // Copies of leaves are regular resources, copies of ranges are as read-only as the ranges
+            double treeAmount = leaf.totalAmount();
+            leafCopy.addCapital(1);
+            assertEquals(treeAmount, leaf.totalAmount());
+            assertEquals((leafCopy.totalLand() + leafCopy.totalCapital() + leafCopy.totalLabor())
+                    * leafCopy.totalEntrepreneurship(), leafCopy.totalAmount());
+            assertThrows(UnsupportedOperationException.class, () -> rangeCopy.addLand(1));
+            assertThrows(UnsupportedOperationException.class, () -> range.addLabor(1));
+            tree.addLand(from, -10);
+            tree.improveEntrepreneurship(from, -0.5);
+        }
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-9 * Math.max(1, Math.abs(expected)));
+    }
+
+    private static EconomyTable randomTable(SplittableRandom random, int size) {
+        EconomyTable table = new EconomyTable(size);
+        for (int i = 0; i < size; i++) {
+            table.set(i, random.nextInt(0, 1000), random.nextInt(0, 1000), random.nextInt(0, 1000), random.nextDouble(0.5, 3));
+        }
+        return table;
+    }
+
+    /**
+     * Plain arrays of the resources of every leaf, summed by looping over the range.
+     */
+    private static class Shadow {
+        private double[] land;
+        private long[] labor;
+        private double[] capital;
+        private double[] entrepreneurship;
+
+        Shadow(EconomyTable table) {
+            int size = table.size();
+            land = new double[size];
+            labor = new long[size];
+            capital = new double[size];
+            entrepreneurship = new double[size];
+            for (int i = 0; i < size; i++) {
+                land[i] = table.land(i);
+                labor[i] = table.labor(i);
+                capital[i] = table.capital(i);
+                entrepreneurship[i] = table.entrepreneurship(i);
+            }
+        }
+
+        void modify(SplittableRandom random, ResourceTree tree) {
+            int leaf = random.nextInt(land.length);
+            Resources view = random.nextBoolean() ? tree.leaf(leaf) : null;
+            switch (random.nextInt(5)) {
+                case 0: {
+                    double amount = random.nextDouble(-50, 50);
+                    land[leaf] += amount;
+                    if (view != null) {
+                        view.addLand(amount);
+                    } else {
+                        tree.addLand(leaf, amount);
+                    }
+                    break;
+                }
+                case 1: {
+                    int workers = random.nextInt(-50, 50);
+                    labor[leaf] += workers;
+                    if (view != null) {
+                        view.addLabor(workers);
+                    } else {
+                        tree.addLabor(leaf, workers);
+                    }
+                    break;
+                }
+                case 2: {
+                    double amount = random.nextDouble(-50, 50);
+                    capital[leaf] += amount;
+                    if (view != null) {
+                        view.addCapital(amount);
+                    } else {
+                        tree.addCapital(leaf, amount);
+                    }
+                    break;
+                }
+                case 3: {
+                    double ability = random.nextDouble(-0.2, 0.2);
+                    entrepreneurship[leaf] += ability;
+                    if (view != null) {
+                        view.improveEntrepreneurship(ability);
+                    } else {
+                        tree.improveEntrepreneurship(leaf, ability);
+                    }
+                    break;
+                }
+                default: {
+                    double newLand = random.nextInt(0, 1000);
+                    int newLabor = random.nextInt(0, 1000);
+                    double newCapital = random.nextInt(0, 1000);
+                    double newEntrepreneurship = random.nextDouble(0.5, 3);
+                    land[leaf] = newLand;
+                    labor[leaf] = newLabor;
+                    capital[leaf] = newCapital;
+                    entrepreneurship[leaf] = newEntrepreneurship;
+                    tree.set(leaf, newLand, newLabor, newCapital, newEntrepreneurship);
+                }
+            }
+        }
+
+        double land(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += land[i];
+            }
+            return sum;
+        }
+
+        long labor(int from, int to) {
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += labor[i];
+            }
+            return sum;
+        }
+
+        double capital(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += capital[i];
+            }
+            return sum;
+        }
+
+        double entrepreneurship(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += entrepreneurship[i];
+            }
+            return sum;
+        }
+
+        double amount(int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += (land[i] + capital[i] + labor[i]) * entrepreneurship[i];
+            }
+            return sum;
+        }
+    }
+}
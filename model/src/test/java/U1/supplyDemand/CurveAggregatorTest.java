@@ -0,0 +1,141 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Compares {@link CurveAggregator#invertPrice(double)} against the sum of {@link Curve#invertPrice(double)} over the
+ * curves, through additions, removals and updates that cross merges of the pending buffer, with many curves sharing
+ * a choke price.
+ */
+class CurveAggregatorTest {
+    private static final Product PRODUCT = new Product("A", 1);
+
+    @Test
+    void sumMatchesBruteForceThroughChanges() {
+        SplittableRandom random = new SplittableRandom(51);
+        CurveAggregator aggregator = new CurveAggregator();
+        List<Curve> curves = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            // Grow to a few thousand curves, so that the buffer outgrows its minimum, then keep the size steady
+            int operation = random.nextInt(curves.size() < 4_000 ? 4 : 6);
+            if (operation <= 1 || curves.isEmpty()) {
+                Curve curve = randomCurve(random);
+                add(aggregator, curve);
+                curves.add(curve);
+            } else if (operation <= 3) {
+                Curve curve = curves.get(random.nextInt(curves.size()));
+                curve.shift(random.nextInt(-2, 3) * 5.0);
+                update(aggregator, curve);
+            } else {
+                Curve curve = curves.remove(random.nextInt(curves.size()));
+                aggregator.remove(curve);
+            }
+            assertEquals(curves.size(), aggregator.size());
+            double price = random.nextBoolean() ? random.nextInt(-2, 24) * 5.0 : random.nextDouble(-10, 120);
+            assertSum(curves, aggregator, price);
+        }
+    }
+
+    @Test
+    void curvesRemovedBeforeAndAfterMergesLeaveNothing() {
+        SplittableRandom random = new SplittableRandom(52);
+        CurveAggregator aggregator = new CurveAggregator();
+        List<Curve> curves = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Curve curve = randomCurve(random);
+            add(aggregator, curve);
+            curves.add(curve);
+        }
+        // Remove in a different order than added, re-adding some in between, across several merges
+        while (!curves.isEmpty()) {
+            Curve curve = curves.remove(random.nextInt(curves.size()));
+            aggregator.remove(curve);
+            if (random.nextInt(4) == 0) {
+                add(aggregator, curve);
+                update(aggregator, curve);
+                aggregator.remove(curve);
+            }
+            assertSum(curves, aggregator, random.nextInt(0, 22) * 5.0);
+        }
+        assertEquals(0, aggregator.size());
+        // Removals still in the buffer cancel their additions only up to rounding
+        for (int price = -10; price <= 120; price += 5) {
+            assertEquals(0, aggregator.invertPrice(price), 1e-9);
+        }
+    }
+
+    @Test
+    void invalidChangesAreRejected() {
+        CurveAggregator aggregator = new CurveAggregator();
+        SupplyCurve supply = new SupplyCurve(PRODUCT, 10, 1);
+        aggregator.add(supply);
+        assertThrows(IllegalArgumentException.class, () -> aggregator.add(supply));
+        assertThrows(IllegalArgumentException.class, () -> aggregator.add(new SupplyCurve(PRODUCT, 10, 0)));
+        assertThrows(IllegalArgumentException.class, () -> aggregator.remove(new DemandCurve(PRODUCT, 10, -1, false)));
+        aggregator.remove(supply);
+        assertThrows(IllegalArgumentException.class, () -> aggregator.remove(supply));
+    }
+
+    private static void assertSum(List<Curve> curves, CurveAggregator aggregator, double price) {
+        double expected = 0;
+        double magnitude = 1;
+        long truncated = 0;
+        for (Curve curve : curves) {
+            double intercept = intercept(curve);
+            double slope = slope(curve);
+            expected += Math.max(0, (price - intercept) / slope);
+            magnitude += Math.abs(intercept / slope) + Math.abs(price / slope);
+            truncated += curve.invertPrice(price);
+        }
+        double actual = aggregator.invertPrice(price);
+        double tolerance = 1e-12 * magnitude;
+        assertEquals(expected, actual, tolerance, "sum at " + price);
+        assertTrue(actual >= truncated - tolerance && actual < truncated + curves.size() + tolerance,
+                "sum at " + price + " is more than one per curve above the truncated sum " + truncated);
+    }
+
+    /**
+     * A supply or demand curve whose choke price is one of a few values, so that many curves share it.
+     */
+    private static Curve randomCurve(SplittableRandom random) {
+        double intercept = random.nextInt(0, 20) * 5.0;
+        double slope = random.nextDouble(0.1, 5);
+        return random.nextBoolean()
+                ? new SupplyCurve(PRODUCT, intercept, slope)
+                : new DemandCurve(PRODUCT, intercept, -slope, random.nextBoolean());
+    }
+
+    private static void add(CurveAggregator aggregator, Curve curve) {
+        if (curve instanceof SupplyCurve) {
+            aggregator.add((SupplyCurve) curve);
+        } else {
+            aggregator.add((DemandCurve) curve);
+        }
+    }
+
+    private static void update(CurveAggregator aggregator, Curve curve) {
+        if (curve instanceof SupplyCurve) {
+            aggregator.update((SupplyCurve) curve);
+        } else {
+            aggregator.update((DemandCurve) curve);
+        }
+    }
+
+    private static double intercept(Curve curve) {
+        return curve instanceof SupplyCurve ? ((SupplyCurve) curve).getIntercept() : ((DemandCurve) curve).getIntercept();
+    }
+
+    private static double slope(Curve curve) {
+        return curve instanceof SupplyCurve ? ((SupplyCurve) curve).getSlope() : ((DemandCurve) curve).getSlope();
+    }
+}
@@ -0,0 +1,134 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Compares the bulk lookups of {@link CurveKernels} against the single-value methods of the curves and the model,
+ * over lengths that leave scalar tails and prices that need clamping.
+ */
+class CurveKernelsTest {
+    private static final Product PRODUCT = new Product("A", 1);
+    private static final double[] SPECIAL_PRICES = {
+        Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, 0, Double.MIN_VALUE,
+        Double.MAX_VALUE, -Double.MAX_VALUE, 1e12, -1e12, 4.999999999, 5, 5.000000001
+    };
+
+    @Test
+    void simdLoopsAreUnderTest() {
+        assertTrue(CurveKernels.VECTORIZED, "Run with --add-modules jdk.incubator.vector to test the SIMD loops");
+    }
+
+    @Test
+    void quantitiesMatchSingleLookups() {
+        SplittableRandom random = new SplittableRandom(22);
+        for (int round = 0; round < 500; round++) {
+            SupplyCurve supply = new SupplyCurve(PRODUCT, randomIntercept(random), randomSlope(random));
+            DemandCurve demand = new DemandCurve(PRODUCT, randomIntercept(random), randomSlope(random), false);
+            double[] prices = randomPrices(random, random.nextInt(0, 80));
+            int[] supplied = new int[prices.length];
+            int[] demanded = new int[prices.length];
+            supply.getQsGivenP(prices, supplied);
+            demand.getQdGivenP(prices, demanded);
+            for (int i = 0; i < prices.length; i++) {
+                assertEquals(supply.getQsGivenP(prices[i]), supplied[i], "supply at " + prices[i]);
+                assertEquals(demand.getQdGivenP(prices[i]), demanded[i], "demand at " + prices[i]);
+            }
+        }
+    }
+
+    @Test
+    void pricesMatchSingleLookups() {
+        SplittableRandom random = new SplittableRandom(23);
+        for (int round = 0; round < 500; round++) {
+            SupplyCurve supply = new SupplyCurve(PRODUCT, randomIntercept(random), randomSlope(random));
+            int[] quantities = new int[random.nextInt(0, 80)];
+            for (int i = 0; i < quantities.length; i++) {
+                quantities[i] = random.nextBoolean() ? random.nextInt(-1000, 1000) : random.nextInt();
+            }
+            double[] prices = new double[quantities.length];
+            supply.getPgivenQs(quantities, prices);
+            for (int i = 0; i < quantities.length; i++) {
+                assertEquals(supply.getPgivenQs(quantities[i]), prices[i], "price at " + quantities[i]);
+            }
+        }
+    }
+
+    @Test
+    void statesMatchSingleLookups() {
+        SplittableRandom random = new SplittableRandom(24);
+        for (int round = 0; round < 500; round++) {
+            SupplyDemandModel model = new SupplyDemandModel(
+                    new SupplyCurve(PRODUCT, randomIntercept(random), randomSlope(random)),
+                    new DemandCurve(PRODUCT, randomIntercept(random), randomSlope(random), false));
+            double[] prices = randomPrices(random, random.nextInt(0, 3000));
+            SupplyDemandModel.SupplyDemandState[] states = new SupplyDemandModel.SupplyDemandState[prices.length];
+            model.getEconomicStateGivenP(prices, states);
+            for (int i = 0; i < prices.length; i++) {
+                assertEquals(model.getEconomicStateGivenP(prices[i]), states[i], "state at " + prices[i]);
+            }
+        }
+    }
+
+    @Test
+    void stateRangesStayWithinTheirOffsets() {
+        SplittableRandom random = new SplittableRandom(25);
+        double[] prices = randomPrices(random, 200);
+        byte[] whole = new byte[prices.length];
+        CurveKernels.statesGivenPrices(5, 0.5, 100, -1.5, prices, whole);
+        for (int round = 0; round < 500; round++) {
+            int priceOffset = random.nextInt(0, prices.length + 1);
+            int length = random.nextInt(0, prices.length - priceOffset + 1);
+            int stateOffset = random.nextInt(0, 8);
+            byte[] stateOut = new byte[stateOffset + length + 8];
+            Arrays.fill(stateOut, (byte) -1);
+            CurveKernels.statesGivenPrices(5, 0.5, 100, -1.5, prices, priceOffset, stateOut, stateOffset, length);
+            for (int i = 0; i < stateOut.length; i++) {
+                boolean written = i >= stateOffset && i < stateOffset + length;
+                assertEquals(written ? whole[priceOffset + i - stateOffset] : -1, stateOut[i]);
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> CurveKernels.statesGivenPrices(5, 0.5, 100, -1.5, prices, 150, new byte[100], 0, 51));
+        assertThrows(IllegalArgumentException.class,
+                () -> CurveKernels.statesGivenPrices(5, 0.5, 100, -1.5, prices, 0, new byte[100], 50, 51));
+    }
+
+    private static double randomIntercept(SplittableRandom random) {
+        return random.nextInt(8) == 0 ? 5 : random.nextDouble(-50, 150);
+    }
+
+    private static double randomSlope(SplittableRandom random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                return 0;
+            case 1:
+                return -0.0;
+            case 2:
+                return random.nextDouble(-1e-12, 1e-12);
+            default:
+                return random.nextDouble(-5, 5);
+        }
+    }
+
+    /**
+     * Prices mostly near the curves, with the special values mixed in so they land in vector lanes and tails alike.
+     */
+    private static double[] randomPrices(SplittableRandom random, int length) {
+        double[] prices = new double[length];
+        for (int i = 0; i < length; i++) {
+            prices[i] = random.nextInt(6) == 0
+                    ? SPECIAL_PRICES[random.nextInt(SPECIAL_PRICES.length)]
+                    : random.nextDouble(-100, 200);
+        }
+        return prices;
+    }
+}
@@ -0,0 +1,189 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Compares the {@link Curve} implementations against brute force: the binary-search and grid lookups of
+ * {@link PiecewiseLinearCurve} against a linear scan of the segments, shifted curves against the unshifted ones,
+ * {@link ConstantElasticityCurve} against its closed form, and {@link Curve#invertPrice(double)} against
+ * {@link Curve#getPriceGivenQuantity(int)}.
+ */
+class CurveTest {
+    private static final Product PRODUCT = new Product("A", 1);
+
+    @Test
+    void piecewiseLookupsMatchLinearScan() {
+        SplittableRandom random = new SplittableRandom(41);
+        for (int round = 0; round < 300; round++) {
+            double[][] breakpoints = randomBreakpoints(random);
+            double[] quantities = breakpoints[0];
+            double[] prices = breakpoints[1];
+            PiecewiseLinearCurve searched = new PiecewiseLinearCurve(PRODUCT, quantities, prices);
+            PiecewiseLinearCurve indexed = new PiecewiseLinearCurve(PRODUCT, quantities, prices);
+            indexed.buildIndex(random.nextInt(1, 3 * quantities.length));
+            for (int i = 0; i < 200; i++) {
+                // Include the breakpoints themselves and values on both sides of the curve
+                int quantity = i < quantities.length
+                        ? (int) quantities[i]
+                        : random.nextInt(-10, (int) quantities[quantities.length - 1] + 10);
+                double expectedPrice = interpolate(quantities, prices, quantity);
+                assertEquals(expectedPrice, searched.getPriceGivenQuantity(quantity), "searched price at " + quantity);
+                assertEquals(expectedPrice, indexed.getPriceGivenQuantity(quantity), "indexed price at " + quantity);
+
+                double price = i < prices.length
+                        ? prices[i]
+                        : random.nextDouble(min(prices) - 5, max(prices) + 5);
+                int expectedQuantity = (int) Math.max(0, interpolate(prices, quantities, price));
+                assertEquals(expectedQuantity, searched.invertPrice(price), "searched quantity at " + price);
+                assertEquals(expectedQuantity, indexed.invertPrice(price), "indexed quantity at " + price);
+            }
+        }
+    }
+
+    @Test
+    void shiftedCurvesMovePricesAndKeepTheIndex() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 200; round++) {
+            double[][] breakpoints = randomBreakpoints(random);
+            PiecewiseLinearCurve original = new PiecewiseLinearCurve(PRODUCT, breakpoints[0], breakpoints[1]);
+            PiecewiseLinearCurve shifted = new PiecewiseLinearCurve(PRODUCT, breakpoints[0], breakpoints[1]);
+            shifted.buildIndex(breakpoints[0].length);
+            ConstantElasticityCurve closedForm = randomElasticityCurve(random);
+            ConstantElasticityCurve closedFormShifted = new ConstantElasticityCurve(PRODUCT, closedForm.getScale(), closedForm.getElasticity());
+            // Whole shifts and prices in eighths keep the arithmetic exact
+            double total = 0;
+            for (int shift = 0; shift < 3; shift++) {
+                double amount = random.nextInt(-20, 21);
+                shifted.shift(amount);
+                closedFormShifted.shift(amount);
+                total += amount;
+            }
+            assertEquals(total, closedFormShifted.getOffset());
+            for (int breakpoint = 0; breakpoint < shifted.getBreakpointCount(); breakpoint++) {
+                assertEquals(original.getBreakpointPrice(breakpoint) + total, shifted.getBreakpointPrice(breakpoint));
+            }
+            for (int i = 0; i < 100; i++) {
+                int quantity = random.nextInt(0, 1_000);
+                assertEquals(original.getPriceGivenQuantity(quantity) + total, shifted.getPriceGivenQuantity(quantity), 1e-9);
+                assertEquals(closedForm.getPriceGivenQuantity(quantity) + total, closedFormShifted.getPriceGivenQuantity(quantity), 1e-9);
+                double price = random.nextInt(-800, 800) / 8.0;
+                assertEquals(original.invertPrice(price), shifted.invertPrice(price + total), "piecewise at " + price);
+                assertEquals(closedForm.invertPrice(price), closedFormShifted.invertPrice(price + total), "closed form at " + price);
+            }
+        }
+    }
+
+    @Test
+    void constantElasticityMatchesClosedForm() {
+        SplittableRandom random = new SplittableRandom(43);
+        for (int round = 0; round < 300; round++) {
+            ConstantElasticityCurve curve = randomElasticityCurve(random);
+            double scale = curve.getScale();
+            double elasticity = curve.getElasticity();
+            for (int i = 0; i < 50; i++) {
+                int quantity = random.nextInt(1, 100_000);
+                double price = curve.getPriceGivenQuantity(quantity);
+                assertEquals(quantity, scale * Math.pow(price, elasticity), 1e-6 * quantity, "quantity at " + price);
+            }
+            // At or below a price of zero, demand is unbounded and supply is zero
+            int atZero = elasticity < 0 ? Integer.MAX_VALUE : 0;
+            assertEquals(atZero, curve.invertPrice(0));
+            assertEquals(atZero, curve.invertPrice(-random.nextDouble(0, 100)));
+            assertEquals((int) scale, curve.invertPrice(1));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ConstantElasticityCurve(PRODUCT, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new ConstantElasticityCurve(PRODUCT, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConstantElasticityCurve(PRODUCT, 1, Double.NaN));
+    }
+
+    @Test
+    void invertPriceInvertsGetPriceGivenQuantity() {
+        SplittableRandom random = new SplittableRandom(44);
+        for (int round = 0; round < 300; round++) {
+            double[][] breakpoints = randomBreakpoints(random);
+            PiecewiseLinearCurve indexed = new PiecewiseLinearCurve(PRODUCT, breakpoints[0], breakpoints[1]);
+            indexed.buildIndex(breakpoints[0].length);
+            int maxQuantity = (int) breakpoints[0][breakpoints[0].length - 1];
+            Curve[] curves = {
+                new PiecewiseLinearCurve(PRODUCT, breakpoints[0], breakpoints[1]),
+                indexed,
+                randomElasticityCurve(random),
+                new SupplyCurve(PRODUCT, random.nextDouble(0, 50), random.nextDouble(0.1, 5)),
+                new DemandCurve(PRODUCT, random.nextDouble(1_000, 5_000), -random.nextDouble(0.1, 5), random.nextBoolean()),
+            };
+            for (Curve curve : curves) {
+                for (int i = 0; i < 50; i++) {
+                    int quantity = random.nextInt(1, curve instanceof PiecewiseLinearCurve ? maxQuantity + 1 : 200);
+                    int inverted = curve.invertPrice(curve.getPriceGivenQuantity(quantity));
+                    // Truncation can drop a quantity that comes back a rounding error short
+                    assertTrue(inverted == quantity || inverted == quantity - 1,
+                            curve.getClass().getSimpleName() + " inverted " + quantity + " to " + inverted);
+                }
+            }
+        }
+    }
+
+    @Test
+    void invalidBreakpointsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PiecewiseLinearCurve(PRODUCT, new double[] {1}, new double[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> new PiecewiseLinearCurve(PRODUCT, new double[] {1, 2}, new double[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> new PiecewiseLinearCurve(PRODUCT, new double[] {1, 1}, new double[] {1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> new PiecewiseLinearCurve(PRODUCT, new double[] {1, 2, 3}, new double[] {1, 2, 1}));
+        PiecewiseLinearCurve curve = new PiecewiseLinearCurve(PRODUCT, new double[] {1, 2}, new double[] {1, 2});
+        assertThrows(IllegalArgumentException.class, () -> curve.buildIndex(0));
+    }
+
+    /**
+     * Breakpoints with strictly increasing whole quantities from zero and prices that strictly increase or decrease,
+     * unevenly spaced so that grid cells hold several segments or none.
+     */
+    private static double[][] randomBreakpoints(SplittableRandom random) {
+        int count = random.nextInt(2, 40);
+        boolean increasing = random.nextBoolean();
+        double[] quantities = new double[count];
+        double[] prices = new double[count];
+        prices[0] = random.nextDouble(0, 100);
+        for (int i = 1; i < count; i++) {
+            quantities[i] = quantities[i - 1] + (random.nextInt(8) == 0 ? random.nextInt(50, 200) : random.nextInt(1, 5));
+            double step = random.nextInt(8) == 0 ? random.nextDouble(5, 20) : random.nextDouble(0.01, 1);
+            prices[i] = prices[i - 1] + (increasing ? step : -step);
+        }
+        return new double[][] {quantities, prices};
+    }
+
+    private static ConstantElasticityCurve randomElasticityCurve(SplittableRandom random) {
+        double elasticity = random.nextDouble(0.2, 3);
+        return new ConstantElasticityCurve(PRODUCT, random.nextDouble(1, 1_000), random.nextBoolean() ? elasticity : -elasticity);
+    }
+
+    /**
+     * Interpolate along the last segment whose first key is at or before the value, scanning every segment.
+     */
+    private static double interpolate(double[] from, double[] to, double value) {
+        boolean increasing = from[1] > from[0];
+        int segment = 0;
+        for (int i = 1; i < from.length - 1; i++) {
+            if (increasing ? from[i] <= value : from[i] >= value) {
+                segment = i;
+            }
+        }
+        double fraction = (value - from[segment]) / (from[segment + 1] - from[segment]);
+        return to[segment] + fraction * (to[segment + 1] - to[segment]);
+    }
+
+    private static double min(double[] values) {
+        return Math.min(values[0], values[values.length - 1]);
+    }
+
+    private static double max(double[] values) {
+        return Math.max(values[0], values[values.length - 1]);
+    }
+}
@@ -0,0 +1,102 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Compares the analytic sensitivities against central differences of the equilibria of sample markets.
+ */
+class EquilibriumSensitivityTest {
+    private static final Product PRODUCT = new Product("A", 1);
+    private static final int MARKETS = 500;
+
+    @Test
+    void parameterSensitivitiesMatchCentralDifferences() {
+        SupplyDemandModel[] models = randomModels(new SplittableRandom(19));
+        EquilibriumSensitivity sensitivity = EquilibriumSensitivity.of(models);
+        for (int i = 0; i < MARKETS; i++) {
+            double supplyIntercept = models[i].getSupplyCurve().getIntercept();
+            double supplySlope = models[i].getSupplyCurve().getSlope();
+            double demandIntercept = models[i].getDemandCurve().getIntercept();
+            double demandSlope = models[i].getDemandCurve().getSlope();
+            assertClose(SupplyDemandModel.equilibriumPrice(supplyIntercept, supplySlope, demandIntercept, demandSlope),
+                    sensitivity.getPrice(i));
+            assertClose(SupplyDemandModel.equilibriumQuantity(supplyIntercept, supplySlope, demandIntercept, demandSlope),
+                    sensitivity.getQuantity(i));
+
+            double[] parameters = { supplyIntercept, supplySlope, demandIntercept, demandSlope };
+            double[] priceBy = { sensitivity.getPriceBySupplyIntercept(i), sensitivity.getPriceBySupplySlope(i),
+                    sensitivity.getPriceByDemandIntercept(i), sensitivity.getPriceByDemandSlope(i) };
+            double[] quantityBy = { sensitivity.getQuantityBySupplyIntercept(i), sensitivity.getQuantityBySupplySlope(i),
+                    sensitivity.getQuantityByDemandIntercept(i), sensitivity.getQuantityByDemandSlope(i) };
+            for (int p = 0; p < parameters.length; p++) {
+                double h = 1e-6 * Math.max(1, Math.abs(parameters[p]));
+                double[] up = parameters.clone();
+                double[] down = parameters.clone();
+                up[p] += h;
+                down[p] -= h;
+                assertClose((price(up) - price(down)) / (up[p] - down[p]), priceBy[p]);
+                assertClose((quantity(up) - quantity(down)) / (up[p] - down[p]), quantityBy[p]);
+            }
+        }
+    }
+
+    @Test
+    void leverSensitivitiesMatchCentralDifferences() {
+        SplittableRandom random = new SplittableRandom(20);
+        SupplyDemandModel[] models = randomModels(random);
+        EquilibriumSensitivity sensitivity = EquilibriumSensitivity.of(models);
+        for (int i = 0; i < MARKETS; i++) {
+            for (ShiftKind lever : ShiftKind.values()) {
+                // Every lever moves an intercept, so the equilibrium is linear in its argument and a whole step is exact
+                SupplyDemandModel up = shifted(models[i], lever, 1);
+                SupplyDemandModel down = shifted(models[i], lever, -1);
+                assertClose((up.getEquilibriumPrice() - down.getEquilibriumPrice()) / 2, sensitivity.getPriceSensitivity(i, lever));
+                assertClose((up.getEquilibriumQuantity() - down.getEquilibriumQuantity()) / 2,
+                        sensitivity.getQuantitySensitivity(i, lever));
+            }
+        }
+    }
+
+    /**
+     * Markets whose curves always cross at a positive quantity, away from the edge where the equilibrium disappears.
+     */
+    private static SupplyDemandModel[] randomModels(SplittableRandom random) {
+        SupplyDemandModel[] models = new SupplyDemandModel[MARKETS];
+        for (int i = 0; i < MARKETS; i++) {
+            models[i] = new SupplyDemandModel(new SupplyCurve(PRODUCT, random.nextDouble(-20, 35), random.nextDouble(0.05, 3)),
+                    new DemandCurve(PRODUCT, random.nextDouble(40, 120), -random.nextDouble(0.05, 3), random.nextBoolean()));
+        }
+        return models;
+    }
+
+    private static SupplyDemandModel shifted(SupplyDemandModel model, ShiftKind lever, double amount) {
+        SupplyCurve supply = model.getSupplyCurve();
+        DemandCurve demand = model.getDemandCurve();
+        SupplyCurve supplyCopy = new SupplyCurve(PRODUCT, supply.getIntercept(), supply.getSlope());
+        DemandCurve demandCopy = new DemandCurve(PRODUCT, demand.getIntercept(), demand.getSlope(), demand.isInferiorGood());
+        if (lever.isSupply()) {
+            lever.apply(supplyCopy, amount);
+        } else {
+            lever.apply(demandCopy, amount);
+        }
+        return new SupplyDemandModel(supplyCopy, demandCopy);
+    }
+
+    private static double price(double[] parameters) {
+        return SupplyDemandModel.equilibriumPrice(parameters[0], parameters[1], parameters[2], parameters[3]);
+    }
+
+    private static double quantity(double[] parameters) {
+        return SupplyDemandModel.equilibriumQuantity(parameters[0], parameters[1], parameters[2], parameters[3]);
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-5 * Math.max(1, Math.abs(expected)));
+    }
+}
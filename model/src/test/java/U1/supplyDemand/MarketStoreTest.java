@@ -0,0 +1,269 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+import U1.PPC.ProductCatalog;
+
+/**
+ * Compares {@link MarketStore} against curves holding the same parameters: file round trips, shifts against the
+ * curve modifier methods, views shifted while the store is shifted directly, and ranges across the boundary between
+ * two chunks of a file-backed store.
+ */
+class MarketStoreTest {
+    private ProductCatalog catalog;
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        catalog = new ProductCatalog();
+        catalog.intern("A", 1);
+        catalog.intern("B", 2);
+        catalog.intern("C", 3);
+        file = Files.createTempFile("markets", ".store");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void filesRoundTripExactly() throws IOException {
+        SplittableRandom random = new SplittableRandom(61);
+        int markets = 1_000;
+        MarketStore written = MarketStore.create(file, markets, catalog);
+        for (int market = 0; market < markets; market++) {
+            setRandom(written, market, random);
+        }
+        written.shift(0, markets, ShiftKind.DEMAND_CONSUMER_INCOME, 1.5);
+        written.force();
+
+        MarketStore read = MarketStore.open(file, catalog);
+        assertEquals(markets, read.size());
+        for (int market = 0; market < markets; market++) {
+            assertSame(written.getProduct(market), read.getProduct(market));
+            assertEquals(written.getSupplyIntercept(market), read.getSupplyIntercept(market));
+            assertEquals(written.getSupplySlope(market), read.getSupplySlope(market));
+            assertEquals(written.getDemandIntercept(market), read.getDemandIntercept(market));
+            assertEquals(written.getDemandSlope(market), read.getDemandSlope(market));
+            assertEquals(written.isInferiorGood(market), read.isInferiorGood(market));
+        }
+    }
+
+    @Test
+    void corruptFilesAreRejected() throws IOException {
+        MarketStore.create(file, 10, catalog);
+        byte[] valid = Files.readAllBytes(file);
+
+        Files.write(file, header(0x12345678, MarketStore.VERSION, 10, valid));
+        assertThrows(IOException.class, () -> MarketStore.open(file, catalog));
+        Files.write(file, header(MarketStore.MAGIC, MarketStore.VERSION + 1, 10, valid));
+        assertThrows(IOException.class, () -> MarketStore.open(file, catalog));
+        Files.write(file, header(MarketStore.MAGIC, MarketStore.VERSION, -1, valid));
+        assertThrows(IOException.class, () -> MarketStore.open(file, catalog));
+        Files.write(file, header(MarketStore.MAGIC, MarketStore.VERSION, Long.MAX_VALUE / 2, valid));
+        assertThrows(IOException.class, () -> MarketStore.open(file, catalog));
+        Files.write(file, header(MarketStore.MAGIC, MarketStore.VERSION, 11, valid));
+        assertThrows(IOException.class, () -> MarketStore.open(file, catalog));
+        Files.write(file, new byte[MarketStore.HEADER_SIZE - 1]);
+        assertThrows(IOException.class, () -> MarketStore.open(file, catalog));
+    }
+
+    @Test
+    void shiftsMatchCurveModifiers() {
+        SplittableRandom random = new SplittableRandom(62);
+        int markets = 300;
+        MarketStore single = MarketStore.allocate(markets, catalog);
+        MarketStore ranged = MarketStore.allocate(markets, catalog);
+        SupplyCurve[] supplyCurves = new SupplyCurve[markets];
+        DemandCurve[] demandCurves = new DemandCurve[markets];
+        for (int market = 0; market < markets; market++) {
+            setRandom(single, market, random);
+            copy(single, ranged, market);
+            Product product = single.getProduct(market);
+            supplyCurves[market] = new SupplyCurve(product, single.getSupplyIntercept(market), single.getSupplySlope(market));
+            demandCurves[market] = new DemandCurve(product, single.getDemandIntercept(market), single.getDemandSlope(market),
+                    single.isInferiorGood(market));
+        }
+        for (int round = 0; round < 200; round++) {
+            ShiftKind kind = ShiftKind.of(random.nextInt(ShiftKind.values().length));
+            // Fractional and negative amounts, which the int modifiers truncate
+            double amount = random.nextInt(-20, 21) / 4.0;
+            int from = random.nextInt(markets);
+            int to = random.nextInt(from, markets + 1);
+            ranged.shift(from, to, kind, amount);
+            for (int market = from; market < to; market++) {
+                single.shift(market, kind, amount);
+                if (kind.isSupply()) {
+                    kind.apply(supplyCurves[market], amount);
+                } else {
+                    kind.apply(demandCurves[market], amount);
+                }
+            }
+        }
+        for (int market = 0; market < markets; market++) {
+            assertEquals(supplyCurves[market].getIntercept(), single.getSupplyIntercept(market), "supply of market " + market);
+            assertEquals(demandCurves[market].getIntercept(), single.getDemandIntercept(market), "demand of market " + market);
+            assertEquals(single.getSupplyIntercept(market), ranged.getSupplyIntercept(market), "ranged supply of market " + market);
+            assertEquals(single.getDemandIntercept(market), ranged.getDemandIntercept(market), "ranged demand of market " + market);
+            assertEquals(supplyCurves[market].getSlope(), single.getSupplySlope(market));
+            assertEquals(demandCurves[market].getSlope(), single.getDemandSlope(market));
+        }
+    }
+
+    @Test
+    void viewShiftsInterleaveWithStoreShifts() {
+        SplittableRandom random = new SplittableRandom(63);
+        int markets = 50;
+        MarketStore store = MarketStore.allocate(markets, catalog);
+        double[] supplyIntercepts = new double[markets];
+        double[] demandIntercepts = new double[markets];
+        for (int market = 0; market < markets; market++) {
+            setRandom(store, market, random);
+            supplyIntercepts[market] = store.getSupplyIntercept(market);
+            demandIntercepts[market] = store.getDemandIntercept(market);
+        }
+        MarketStore.View view = store.view();
+        for (int step = 0; step < 2_000; step++) {
+            int market = random.nextInt(markets);
+            double amount = random.nextInt(-8, 9) / 8.0;
+            switch (random.nextInt(4)) {
+                case 0:
+                    SupplyDemandModel model = view.moveTo(market);
+                    assertSame(store.getProduct(market), model.getProduct());
+                    assertEquals(supplyIntercepts[market], model.getSupplyCurve().getIntercept(), 1e-9);
+                    assertEquals(demandIntercepts[market], model.getDemandCurve().getIntercept(), 1e-9);
+                    assertEquals(store.isInferiorGood(market), model.getDemandCurve().isInferiorGood());
+                    break;
+                case 1:
+                    // Shift the market the view is on through the view, without moving it
+                    if (view.getMarket() >= 0) {
+                        int current = (int) view.getMarket();
+                        view.getModel().getSupplyCurve().shiftSupplyCurve(amount);
+                        view.getModel().getDemandCurve().shiftDemandCurve(-amount);
+                        supplyIntercepts[current] += amount;
+                        demandIntercepts[current] -= amount;
+                    }
+                    break;
+                case 2:
+                    store.shift(market, ShiftKind.SUPPLY_SHIFT, amount);
+                    store.shift(market, ShiftKind.DEMAND_SHIFT, amount);
+                    supplyIntercepts[market] += amount;
+                    demandIntercepts[market] += amount;
+                    break;
+                default:
+                    view.flush();
+                    break;
+            }
+        }
+        view.flush();
+        for (int market = 0; market < markets; market++) {
+            assertEquals(supplyIntercepts[market], store.getSupplyIntercept(market), 1e-9, "supply of market " + market);
+            assertEquals(demandIntercepts[market], store.getDemandIntercept(market), 1e-9, "demand of market " + market);
+        }
+    }
+
+    @Test
+    void viewsNeedAProduct() {
+        MarketStore store = MarketStore.allocate(0, new ProductCatalog());
+        assertThrows(IllegalStateException.class, store::view);
+    }
+
+    @Test
+    void rangesCrossChunkBoundaries() throws IOException {
+        // Mapping a file leaves the untouched parts of the columns sparse, so only the markets used take memory
+        int around = 100;
+        long boundary = MarketStore.CHUNK_MARKETS;
+        MarketStore store = MarketStore.create(file, boundary + around, catalog);
+        SplittableRandom random = new SplittableRandom(64);
+        long from = boundary - around;
+        long to = boundary + around;
+        int count = (int) (to - from);
+        for (long market = from; market < to; market++) {
+            setRandom(store, market, random);
+        }
+        double[] supplyIntercepts = new double[count];
+        double[] demandIntercepts = new double[count];
+        for (int i = 0; i < count; i++) {
+            supplyIntercepts[i] = store.getSupplyIntercept(from + i);
+            demandIntercepts[i] = store.getDemandIntercept(from + i);
+        }
+
+        store.shift(from + 1, to, ShiftKind.SUPPLY_TAX, 2);
+        store.shift(from, to - 1, ShiftKind.DEMAND_CONSUMER_INCOME, 3);
+        double[] supplySlopes = new double[count];
+        double[] demandSlopes = new double[count];
+        for (int i = 0; i < count; i++) {
+            long market = from + i;
+            if (market >= from + 1) {
+                supplyIntercepts[i] -= 2;
+            }
+            if (market < to - 1) {
+                demandIntercepts[i] += store.isInferiorGood(market) ? -3 : 3;
+            }
+            assertEquals(supplyIntercepts[i], store.getSupplyIntercept(market), "supply of market " + market);
+            assertEquals(demandIntercepts[i], store.getDemandIntercept(market), "demand of market " + market);
+            supplySlopes[i] = store.getSupplySlope(market);
+            demandSlopes[i] = store.getDemandSlope(market);
+        }
+
+        double[] prices = new double[count];
+        double[] quantities = new double[count];
+        store.clear(from, prices, quantities);
+        double[] expectedPrices = new double[count];
+        double[] expectedQuantities = new double[count];
+        MarketClearing.clear(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, expectedPrices, expectedQuantities);
+        assertArrayEquals(expectedPrices, prices);
+        assertArrayEquals(expectedQuantities, quantities);
+
+        // A view moving across the boundary writes each market back to its own chunk
+        MarketStore.View view = store.view();
+        for (long market = from; market < to; market++) {
+            view.moveTo(market).getSupplyCurve().shiftSupplyCurve(1);
+        }
+        view.flush();
+        for (int i = 0; i < count; i++) {
+            assertEquals(supplyIntercepts[i] + 1, store.getSupplyIntercept(from + i));
+        }
+        store.force();
+
+        assertThrows(IndexOutOfBoundsException.class, () -> store.shift(from, to + 1, ShiftKind.SUPPLY_SHIFT, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.clear(to - 1, new double[2], new double[2]));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getSupplyIntercept(to));
+    }
+
+    private void setRandom(MarketStore store, long market, SplittableRandom random) {
+        Product product = catalog.get(random.nextInt(catalog.size()));
+        store.set(market, product, random.nextDouble(0, 50), random.nextDouble(0.1, 5), random.nextDouble(50, 100),
+                -random.nextDouble(0.1, 5), random.nextBoolean());
+    }
+
+    private static void copy(MarketStore from, MarketStore to, long market) {
+        to.set(market, from.getProduct(market), from.getSupplyIntercept(market), from.getSupplySlope(market),
+                from.getDemandIntercept(market), from.getDemandSlope(market), from.isInferiorGood(market));
+    }
+
+    /**
+     * Replace the header of a valid store file.
+     */
+    private static byte[] header(int magic, int version, long markets, byte[] valid) {
+        byte[] bytes = valid.clone();
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(magic).putInt(version).putLong(markets);
+        return bytes;
+    }
+}
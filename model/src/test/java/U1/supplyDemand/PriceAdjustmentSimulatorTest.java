@@ -0,0 +1,203 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Compares the simulator against a direct simulation that keeps scheduled shifts in a list and applies those due
+ * each tick in the order they were scheduled, with shifts scheduled out of order, several per tick and while the
+ * simulation runs, and compares parallel ticks against sequential ones.
+ */
+class PriceAdjustmentSimulatorTest {
+    // Amounts whose sum depends on the order of addition, so that same-tick shifts must keep their order
+    private static final double[] AMOUNTS = {1e16, -1e16, 1, -1, 0.5, 3};
+
+    @Test
+    void simulationMatchesDirectSimulation() {
+        SplittableRandom random = new SplittableRandom(12);
+        int markets = 40;
+        PriceAdjustmentSimulator simulator = new PriceAdjustmentSimulator(markets, 0.01, 2);
+        Direct direct = new Direct(markets, 0.01, 2);
+        for (int market = 0; market < markets; market++) {
+            double supplyIntercept = random.nextDouble(0, 20);
+            double supplySlope = -random.nextDouble(0.5, 2);
+            double demandIntercept = random.nextDouble(80, 100);
+            double demandSlope = random.nextDouble(0.5, 2);
+            double price = random.nextDouble(0, 100);
+            if (market == 0) {
+                // Set through a model, as the simulator copies curves
+                Product product = new Product("A", 1);
+                simulator.setMarket(market, new SupplyDemandModel(new SupplyCurve(product, supplyIntercept, supplySlope),
+                        new DemandCurve(product, demandIntercept, demandSlope, false)), price);
+            } else {
+                simulator.setMarket(market, supplyIntercept, supplySlope, demandIntercept, demandSlope, price);
+            }
+            direct.set(market, supplyIntercept, supplySlope, demandIntercept, demandSlope, price);
+        }
+
+        for (int round = 0; round < 3_000; round++) {
+            // Schedule a few shifts before each tick, at the current tick or later and in any order
+            int scheduled = random.nextInt(4);
+            for (int i = 0; i < scheduled; i++) {
+                long tick = simulator.getTick() + (random.nextBoolean() ? 0 : random.nextInt(0, 20));
+                int market = random.nextInt(random.nextBoolean() ? 3 : markets);
+                double amount = AMOUNTS[random.nextInt(AMOUNTS.length)];
+                boolean isDemand = random.nextBoolean();
+                if (isDemand) {
+                    simulator.scheduleDemandShift(tick, market, amount);
+                } else {
+                    simulator.scheduleSupplyShift(tick, market, amount);
+                }
+                direct.schedule(tick, market, amount, isDemand);
+            }
+            assertEquals(direct.step(), simulator.step(), "active markets at tick " + round);
+            assertEquals(direct.tick, simulator.getTick());
+            for (int market = 0; market < markets; market++) {
+                assertEquals(direct.supplyIntercepts[market], simulator.getSupplyIntercept(market), "supply of market " + market);
+                assertEquals(direct.demandIntercepts[market], simulator.getDemandIntercept(market), "demand of market " + market);
+                assertEquals(direct.prices[market], simulator.getPrice(market), "price of market " + market);
+                assertEquals(direct.converged[market], simulator.isConverged(market), "convergence of market " + market);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> simulator.scheduleSupplyShift(simulator.getTick() - 1, 0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> simulator.scheduleDemandShift(simulator.getTick(), markets, 1));
+    }
+
+    @Test
+    void runStopsOnceConvergedAndNothingIsPending() {
+        PriceAdjustmentSimulator simulator = new PriceAdjustmentSimulator(1, 0.01, 1);
+        Direct direct = new Direct(1, 0.01, 1);
+        simulator.setMarket(0, 10, -1, 90, 1, 0);
+        direct.set(0, 10, -1, 90, 1, 0);
+        simulator.scheduleDemandShift(500, 0, 4);
+        direct.schedule(500, 0, 4, true);
+
+        long marketTicks = 0;
+        while (direct.tick < 10_000) {
+            int active = direct.step();
+            marketTicks += active;
+            if (active == 0 && direct.events.isEmpty()) {
+                break;
+            }
+        }
+        assertEquals(marketTicks, simulator.run(10_000));
+        assertEquals(direct.tick, simulator.getTick());
+        assertEquals(direct.prices[0], simulator.getPrice(0));
+        assertTrue(simulator.isConverged(0));
+        assertEquals(94, simulator.getDemandIntercept(0));
+    }
+
+    @Test
+    void parallelTicksMatchSequentialTicks() {
+        SplittableRandom random = new SplittableRandom(13);
+        // More than one fork/join task's worth of markets
+        int markets = 50_000;
+        PriceAdjustmentSimulator sequential = new PriceAdjustmentSimulator(markets, 0.01, 1);
+        PriceAdjustmentSimulator parallel = new PriceAdjustmentSimulator(markets, 0.01, 1);
+        parallel.setParallel(true);
+        for (int market = 0; market < markets; market++) {
+            double supplyIntercept = random.nextDouble(0, 20);
+            double supplySlope = -random.nextDouble(0.5, 2);
+            double demandIntercept = random.nextDouble(80, 100);
+            double demandSlope = random.nextDouble(0.5, 2);
+            double price = random.nextDouble(0, 100);
+            sequential.setMarket(market, supplyIntercept, supplySlope, demandIntercept, demandSlope, price);
+            parallel.setMarket(market, supplyIntercept, supplySlope, demandIntercept, demandSlope, price);
+        }
+        for (int tick = 0; tick < 30; tick++) {
+            int market = random.nextInt(markets);
+            sequential.scheduleDemandShift(tick + 5, market, 2);
+            parallel.scheduleDemandShift(tick + 5, market, 2);
+            assertEquals(sequential.step(), parallel.step());
+        }
+        for (int market = 0; market < markets; market++) {
+            assertEquals(sequential.getPrice(market), parallel.getPrice(market));
+            assertEquals(sequential.isConverged(market), parallel.isConverged(market));
+        }
+    }
+
+    /**
+     * Simulation written out directly from the rules of the simulator, with shifts kept in a list in the order
+     * they were scheduled.
+     */
+    private static class Direct {
+        double[] supplyIntercepts;
+        double[] supplySlopes;
+        double[] demandIntercepts;
+        double[] demandSlopes;
+        double[] prices;
+        boolean[] converged;
+        double adjustmentRate;
+        int tolerance;
+        long tick;
+        List<double[]> events = new ArrayList<>();
+
+        Direct(int markets, double adjustmentRate, int tolerance) {
+            supplyIntercepts = new double[markets];
+            supplySlopes = new double[markets];
+            demandIntercepts = new double[markets];
+            demandSlopes = new double[markets];
+            prices = new double[markets];
+            converged = new boolean[markets];
+            this.adjustmentRate = adjustmentRate;
+            this.tolerance = tolerance;
+        }
+
+        void set(int market, double supplyIntercept, double supplySlope, double demandIntercept, double demandSlope, double price) {
+            supplyIntercepts[market] = supplyIntercept;
+            supplySlopes[market] = supplySlope;
+            demandIntercepts[market] = demandIntercept;
+            demandSlopes[market] = demandSlope;
+            prices[market] = price;
+        }
+
+        void schedule(long tick, int market, double amount, boolean isDemand) {
+            events.add(new double[] {tick, market, amount, isDemand ? 1 : 0});
+        }
+
+        int step() {
+            List<double[]> remaining = new ArrayList<>();
+            for (double[] event : events) {
+                if (event[0] > tick) {
+                    remaining.add(event);
+                    continue;
+                }
+                int market = (int) event[1];
+                if (event[3] == 1) {
+                    demandIntercepts[market] += event[2];
+                } else {
+                    supplyIntercepts[market] += event[2];
+                }
+                converged[market] = false;
+            }
+            events = remaining;
+
+            int active = 0;
+            for (int i = 0; i < prices.length; i++) {
+                if (converged[i]) {
+                    continue;
+                }
+                active++;
+                SupplyCurve supply = new SupplyCurve(null, supplyIntercepts[i], supplySlopes[i]);
+                DemandCurve demand = new DemandCurve(null, demandIntercepts[i], demandSlopes[i], false);
+                int excessDemand = demand.getQdGivenP(prices[i]) - supply.getQsGivenP(prices[i]);
+                if (Math.abs(excessDemand) <= tolerance) {
+                    converged[i] = true;
+                } else {
+                    prices[i] += adjustmentRate * excessDemand;
+                }
+            }
+            tick++;
+            return active;
+        }
+    }
+}
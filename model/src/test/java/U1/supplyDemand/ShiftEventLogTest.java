@@ -0,0 +1,137 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Replays logged shift events and compares the curves against the same shifts applied directly, from the start of
+ * the log and from checkpoints, and checks that events with a negative product ID are rejected.
+ */
+class ShiftEventLogTest {
+    private static final int PRODUCTS = 6;
+
+    private Path file;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        file = Files.createTempFile("shifts", ".log");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void replayMatchesDirectShifts() throws IOException {
+        SplittableRandom random = new SplittableRandom(13);
+        int events = 5_000;
+        int[] productIds = new int[events];
+        ShiftKind[] kinds = new ShiftKind[events];
+        double[] amounts = new double[events];
+        try (ShiftEventLog log = new ShiftEventLog(file)) {
+            for (int event = 0; event < events; event++) {
+                // Some products have no curve, or lie past the end of the arrays, and are skipped
+                productIds[event] = random.nextInt(PRODUCTS + 2);
+                kinds[event] = ShiftKind.of(random.nextInt(ShiftKind.values().length));
+                amounts[event] = random.nextInt(-20, 21) / 4.0;
+                log.append(productIds[event], kinds[event], amounts[event]);
+            }
+            assertEquals(events, log.getEventCount());
+        }
+
+        try (ShiftEventReader reader = new ShiftEventReader(file)) {
+            assertEquals(events, reader.getEventCount());
+            SupplyCurve[] supplyCurves = supplyCurves();
+            DemandCurve[] demandCurves = demandCurves();
+            ShiftEventReader.Checkpoints checkpoints = new ShiftEventReader.Checkpoints(256);
+            reader.replay(supplyCurves, demandCurves, 0, events, checkpoints);
+            assertCurves(productIds, kinds, amounts, events, supplyCurves, demandCurves);
+
+            for (int round = 0; round < 50; round++) {
+                int event = random.nextInt(events + 1);
+                reader.replayTo(supplyCurves, demandCurves, event, checkpoints);
+                assertCurves(productIds, kinds, amounts, event, supplyCurves, demandCurves);
+            }
+        }
+    }
+
+    @Test
+    void negativeProductIdsAreRejected() throws IOException {
+        try (ShiftEventLog log = new ShiftEventLog(file)) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(-1, ShiftKind.SUPPLY_SHIFT, 1));
+            log.append(0, ShiftKind.SUPPLY_SHIFT, 1);
+            log.append(0, ShiftKind.SUPPLY_SHIFT, 1);
+        }
+        // Corrupt the product ID of the second event
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(ShiftEventLog.HEADER_SIZE + ShiftEventLog.EVENT_SIZE, Integer.MIN_VALUE);
+        Files.write(file, bytes);
+
+        try (ShiftEventReader reader = new ShiftEventReader(file)) {
+            SupplyCurve[] supplyCurves = supplyCurves();
+            assertThrows(IOException.class, () -> reader.replay(supplyCurves, demandCurves(), 0, 2));
+            assertEquals(1, supplyCurves[0].getIntercept());
+        }
+    }
+
+    private static void assertCurves(int[] productIds, ShiftKind[] kinds, double[] amounts, int events,
+            SupplyCurve[] supplyCurves, DemandCurve[] demandCurves) {
+        SupplyCurve[] expectedSupply = supplyCurves();
+        DemandCurve[] expectedDemand = demandCurves();
+        for (int event = 0; event < events; event++) {
+            int id = productIds[event];
+            if (kinds[event].isSupply()) {
+                if (id < PRODUCTS && expectedSupply[id] != null) {
+                    kinds[event].apply(expectedSupply[id], amounts[event]);
+                }
+            } else if (id < PRODUCTS && expectedDemand[id] != null) {
+                kinds[event].apply(expectedDemand[id], amounts[event]);
+            }
+        }
+        for (int id = 0; id < PRODUCTS; id++) {
+            if (expectedSupply[id] != null) {
+                assertEquals(expectedSupply[id].getIntercept(), supplyCurves[id].getIntercept(), "supply of " + id + " after " + events);
+            }
+            if (expectedDemand[id] != null) {
+                assertEquals(expectedDemand[id].getIntercept(), demandCurves[id].getIntercept(), "demand of " + id + " after " + events);
+            }
+        }
+    }
+
+    /**
+     * Fresh supply curves with intercept zero, without a curve for product 1.
+     */
+    private static SupplyCurve[] supplyCurves() {
+        SupplyCurve[] curves = new SupplyCurve[PRODUCTS];
+        for (int id = 0; id < PRODUCTS; id++) {
+            curves[id] = id == 1 ? null : new SupplyCurve(new Product("P" + id, 1), 0, 1);
+        }
+        return curves;
+    }
+
+    /**
+     * Fresh demand curves with intercept 100, without a curve for product 2, and inferior goods at odd IDs.
+     */
+    private static DemandCurve[] demandCurves() {
+        DemandCurve[] curves = new DemandCurve[PRODUCTS];
+        for (int id = 0; id < PRODUCTS; id++) {
+            curves[id] = id == 2 ? null : new DemandCurve(new Product("P" + id, 1), 100, -1, id % 2 == 1);
+        }
+        return curves;
+    }
+}
@@ -0,0 +1,179 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import U1.PPC.Product;
+
+/**
+ * Compares shock accumulators against curves shifted directly by the same modifier methods, and checks that
+ * shifts recorded from many threads while other threads flush and read are all applied exactly once.
+ */
+class ShockAccumulatorTest {
+    private static final Product PRODUCT = new Product("A", 1);
+
+    @Test
+    void supplyModifiersMatchCurve() {
+        SplittableRandom random = new SplittableRandom(10);
+        SupplyCurve expected = new SupplyCurve(PRODUCT, 10, 0.5);
+        SupplyShockAccumulator accumulator = new SupplyShockAccumulator(new SupplyCurve(PRODUCT, 10, 0.5));
+        for (int round = 0; round < 2_000; round++) {
+            // Amounts in eighths keep every sum exact, whether the shifts are folded one by one or together
+            double change = random.nextInt(-40, 41) / 8.0;
+            int sellers = random.nextInt(-5, 6);
+            switch (random.nextInt(6)) {
+                case 0:
+                    expected.shiftSupplyCurve(change);
+                    accumulator.shiftSupplyCurve(change);
+                    break;
+                case 1:
+                    expected.increaseInputPrices(change);
+                    accumulator.increaseInputPrices(change);
+                    break;
+                case 2:
+                    expected.adjustForGovernmentTools(change, change / 2);
+                    accumulator.adjustForGovernmentTools(change, change / 2);
+                    break;
+                case 3:
+                    expected.increaseNumberOfSellers(sellers);
+                    accumulator.increaseNumberOfSellers(sellers);
+                    break;
+                case 4:
+                    expected.improveTechnology(change);
+                    accumulator.improveTechnology(change);
+                    break;
+                default:
+                    expected.increasePriceOfOtherGoods(change);
+                    accumulator.increasePriceOfOtherGoods(change);
+                    break;
+            }
+            // Read only some of the time, so that several shifts are folded by one flush
+            if (random.nextInt(4) == 0) {
+                int quantity = random.nextInt(0, 100);
+                double price = random.nextInt(-400, 400) / 8.0;
+                assertEquals(expected.getIntercept(), accumulator.getIntercept());
+                assertEquals(expected.getPgivenQs(quantity), accumulator.getPgivenQs(quantity));
+                assertEquals(expected.getQsGivenP(price), accumulator.getQsGivenP(price));
+                assertEquals(0, accumulator.getPendingShift());
+            }
+        }
+    }
+
+    @Test
+    void demandModifiersMatchCurve() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (boolean isInferiorGood : new boolean[] {false, true}) {
+            DemandCurve expected = new DemandCurve(PRODUCT, 100, -0.5, isInferiorGood);
+            DemandShockAccumulator accumulator = new DemandShockAccumulator(new DemandCurve(PRODUCT, 100, -0.5, isInferiorGood));
+            for (int round = 0; round < 2_000; round++) {
+                double change = random.nextInt(-40, 41) / 8.0;
+                int size = random.nextInt(-5, 6);
+                switch (random.nextInt(7)) {
+                    case 0:
+                        expected.shiftDemandCurve(change);
+                        accumulator.shiftDemandCurve(change);
+                        break;
+                    case 1:
+                        expected.increasePreferenceForProduct(change);
+                        accumulator.increasePreferenceForProduct(change);
+                        break;
+                    case 2:
+                        expected.increaseMarketSize(size);
+                        accumulator.increaseMarketSize(size);
+                        break;
+                    case 3:
+                        expected.increaseComplementaryGoodPrice(change);
+                        accumulator.increaseComplementaryGoodPrice(change);
+                        break;
+                    case 4:
+                        expected.increaseSubstituteGoodPrice(change);
+                        accumulator.increaseSubstituteGoodPrice(change);
+                        break;
+                    case 5:
+                        expected.increaseConsumerIncome(change);
+                        accumulator.increaseConsumerIncome(change);
+                        break;
+                    default:
+                        expected.increaseExpectationsForProduct(change);
+                        accumulator.increaseExpectationsForProduct(change);
+                        break;
+                }
+                if (random.nextInt(4) == 0) {
+                    int quantity = random.nextInt(0, 100);
+                    double price = random.nextInt(-400, 400) / 8.0;
+                    assertEquals(expected.getIntercept(), accumulator.getIntercept());
+                    assertEquals(expected.getPGivenQd(quantity), accumulator.getPGivenQd(quantity));
+                    assertEquals(expected.getQdGivenP(price), accumulator.getQdGivenP(price));
+                }
+            }
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentShiftsAreAppliedExactlyOnce() throws Exception {
+        int producers = 4;
+        int shifts = 200_000;
+        SupplyCurve curve = new SupplyCurve(PRODUCT, 0, 1);
+        SupplyShockAccumulator accumulator = new SupplyShockAccumulator(curve);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService threads = Executors.newFixedThreadPool(producers + 1);
+        AtomicBoolean producing = new AtomicBoolean(true);
+        try {
+            ScheduledFuture<?> flushes = accumulator.flushEvery(flusher, 1, TimeUnit.MILLISECONDS);
+            // A reader flushing on every read, racing with the scheduled flushes
+            Future<Integer> reads = threads.submit(() -> {
+                int count = 0;
+                while (producing.get()) {
+                    accumulator.getIntercept();
+                    count++;
+                }
+                return count;
+            });
+            List<Future<Long>> totals = new ArrayList<>();
+            for (int producer = 0; producer < producers; producer++) {
+                long seed = producer;
+                totals.add(threads.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    long total = 0;
+                    for (int i = 0; i < shifts; i++) {
+                        // Whole amounts, so that the sum is exact in any order
+                        int amount = random.nextInt(-3, 4);
+                        accumulator.shiftSupplyCurve(amount);
+                        total += amount;
+                    }
+                    return total;
+                }));
+            }
+            long expected = 0;
+            for (Future<Long> total : totals) {
+                expected += total.get();
+            }
+            producing.set(false);
+            assertTrue(reads.get() > 0);
+            flushes.cancel(false);
+
+            accumulator.flush();
+            assertEquals(0, accumulator.getPendingShift());
+            assertEquals(expected, curve.getIntercept());
+            assertEquals(expected, accumulator.getIntercept());
+        } finally {
+            flusher.shutdownNow();
+            threads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package U1.supplyDemand;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import U1.PPC.Product;
+
+/**
+ * Compares the intervals returned by the range queries against point-by-point evaluation of the same markets.
+ */
+class StateRangesTest {
+    private static final Product PRODUCT = new Product("A", 1);
+    private static final int MARKETS = 2000;
+
+    @Test
+    void priceRangesMatchPointQueries() {
+        SplittableRandom random = new SplittableRandom(16);
+        for (int i = 0; i < MARKETS; i++) {
+            SupplyDemandModel model = randomModel(random, i % 3);
+            double minPrice = random.nextDouble(-50, 100);
+            double maxPrice = minPrice + random.nextDouble(0, 200);
+            List<StateInterval> intervals = model.getEconomicStatesGivenP(minPrice, maxPrice);
+
+            assertEquals(minPrice, intervals.get(0).getStart());
+            assertEquals(maxPrice, intervals.get(intervals.size() - 1).getEnd());
+            for (int j = 0; j < intervals.size(); j++) {
+                StateInterval interval = intervals.get(j);
+                if (j > 0) {
+                    assertEquals(Math.nextUp(intervals.get(j - 1).getEnd()), interval.getStart());
+                    assertNotEquals(intervals.get(j - 1).getState(), interval.getState());
+                }
+                assertEquals(model.getEconomicStateGivenP(interval.getStart()), interval.getState());
+                assertEquals(model.getEconomicStateGivenP(interval.getEnd()), interval.getState());
+                for (int k = 0; k < 8; k++) {
+                    double price = Math.min(interval.getEnd(),
+                            interval.getStart() + random.nextDouble() * (interval.getEnd() - interval.getStart()));
+                    assertEquals(model.getEconomicStateGivenP(price), interval.getState());
+                }
+            }
+        }
+    }
+
+    @Test
+    void quantityRangesMatchPointQueries() {
+        SplittableRandom random = new SplittableRandom(17);
+        for (int i = 0; i < MARKETS; i++) {
+            SupplyDemandModel model = randomModel(random, i % 3);
+            int minQuantity = random.nextInt(-100, 200);
+            int maxQuantity = minQuantity + random.nextInt(0, 400);
+            List<StateInterval> intervals = model.getEconomicStatesGivenQ(minQuantity, maxQuantity);
+
+            int quantity = minQuantity;
+            for (int j = 0; j < intervals.size(); j++) {
+                StateInterval interval = intervals.get(j);
+                assertEquals(quantity, interval.getStart());
+                if (j > 0) {
+                    assertNotEquals(intervals.get(j - 1).getState(), interval.getState());
+                }
+                for (; quantity <= interval.getEnd(); quantity++) {
+                    assertEquals(model.getEconomicStateGivenQ(quantity), interval.getState());
+                }
+            }
+            assertEquals(maxQuantity + 1, quantity);
+        }
+    }
+
+    @Test
+    void bulkQueriesMatchSingleMarkets() {
+        SplittableRandom random = new SplittableRandom(18);
+        int markets = 300;
+        double[] supplyIntercepts = new double[markets];
+        double[] supplySlopes = new double[markets];
+        double[] demandIntercepts = new double[markets];
+        double[] demandSlopes = new double[markets];
+        SupplyDemandModel[] models = new SupplyDemandModel[markets];
+        for (int i = 0; i < markets; i++) {
+            models[i] = randomModel(random, i % 3);
+            supplyIntercepts[i] = models[i].getSupplyCurve().getIntercept();
+            supplySlopes[i] = models[i].getSupplyCurve().getSlope();
+            demandIntercepts[i] = models[i].getDemandCurve().getIntercept();
+            demandSlopes[i] = models[i].getDemandCurve().getSlope();
+        }
+
+        StateInterval[][] byPrice = StateRanges.statesGivenP(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, 0, 150);
+        StateInterval[][] byQuantity = StateRanges.statesGivenQ(supplyIntercepts, supplySlopes, demandIntercepts, demandSlopes, 0, 300);
+        for (int i = 0; i < markets; i++) {
+            assertSameIntervals(models[i].getEconomicStatesGivenP(0, 150), byPrice[i]);
+            assertSameIntervals(models[i].getEconomicStatesGivenQ(0, 300), byQuantity[i]);
+        }
+    }
+
+    private static void assertSameIntervals(List<StateInterval> expected, StateInterval[] actual) {
+        assertEquals(expected.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals(expected.get(i).getState(), actual[i].getState());
+            assertEquals(expected.get(i).getStart(), actual[i].getStart());
+            assertEquals(expected.get(i).getEnd(), actual[i].getEnd());
+        }
+    }
+
+    /**
+     * Create a market with slopes of opposite signs (kind 0), the same sign (kind 1) or nearly parallel curves (kind 2).
+     */
+    private static SupplyDemandModel randomModel(SplittableRandom random, int kind) {
+        double supplyIntercept = random.nextDouble(-20, 60);
+        double supplySlope = random.nextDouble(0.01, 3);
+        double demandIntercept = random.nextDouble(40, 120);
+        double demandSlope;
+        if (kind == 0) {
+            demandSlope = -random.nextDouble(0.01, 3);
+        } else if (kind == 1) {
+            demandSlope = random.nextDouble(0.01, 3) * (random.nextBoolean() ? 1 : 0.5);
+        } else {
+            demandSlope = supplySlope * (1 + random.nextDouble(-1e-9, 1e-9));
+        }
+        return new SupplyDemandModel(new SupplyCurve(PRODUCT, supplyIntercept, supplySlope),
+                new DemandCurve(PRODUCT, demandIntercept, demandSlope, false));
+    }
+}